@@ -0,0 +1,97 @@
+package guru.mikelue.farming.json;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.Climate;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LogActivity;
+
+/**
+ * Measures the encoding(Jackson) of models responded by REST services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonEncodingBenchmark {
+	private ObjectWriter blockWriter;
+	private ObjectWriter landLogWriter;
+	private ObjectWriter landWriter;
+
+	private Block sampleBlock;
+	private LandLog sampleLandLog;
+	private Land sampleLand;
+
+	public JsonEncodingBenchmark() {}
+
+	@Setup
+	public void setup()
+	{
+		var objectMapper = new ObjectMapper()
+			.registerModule(
+				new SimpleModule()
+					.addSerializer(Instant.class, new InstantJsonComponent.Serializer())
+					.addDeserializer(Instant.class, new InstantJsonComponent.Deserializer())
+			);
+
+		blockWriter = objectMapper.writerFor(Block.class);
+		landLogWriter = objectMapper.writerFor(LandLog.class);
+		landWriter = objectMapper.writerFor(Land.class);
+
+		var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+		sampleLand = new Land(UUID.randomUUID());
+		sampleLand.setName("Wheatfield of Auvers");
+		sampleLand.setClimate(Climate.Dry);
+		sampleLand.setSize((short)512);
+		sampleLand.setCreationTime(now.minusSeconds(86400));
+
+		sampleBlock = new Block();
+		sampleBlock.setLandId(sampleLand.getId());
+		sampleBlock.setId((short)128);
+		sampleBlock.setCrop(Crop.Grape);
+		sampleBlock.setSowTime(now.minusSeconds(600));
+		sampleBlock.setMatureTime(now.minusSeconds(60));
+		sampleBlock.setHarvestAmount((short)40);
+		sampleBlock.setStatus(Status.Occupied);
+		sampleBlock.setComment("Cabernet Sauvignon");
+		sampleBlock.setUpdateTime(now);
+
+		sampleLandLog = LandLog.from(sampleBlock);
+		sampleLandLog.setActivity(LogActivity.Sowing);
+		sampleLandLog.setUsedTimeSecond((short)12);
+	}
+
+	@Benchmark
+	public String encodeBlock() throws JsonProcessingException
+	{
+		return blockWriter.writeValueAsString(sampleBlock);
+	}
+
+	@Benchmark
+	public String encodeLandLog() throws JsonProcessingException
+	{
+		return landLogWriter.writeValueAsString(sampleLandLog);
+	}
+
+	@Benchmark
+	public String encodeLand() throws JsonProcessingException
+	{
+		return landWriter.writeValueAsString(sampleLand);
+	}
+}
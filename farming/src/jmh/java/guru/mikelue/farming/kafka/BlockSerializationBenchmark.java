@@ -0,0 +1,131 @@
+package guru.mikelue.farming.kafka;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import guru.mikelue.farming.json.InstantJsonComponent;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.Crop;
+
+/**
+ * Compares the serialization of {@link Block} between JSON(Jackson) and binary,
+ * and measures the encoding of key({@link BlockId}).<p>
+ *
+ * The binary value being smaller than JSON one is asserted by {@code BlockSerializationTest}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockSerializationBenchmark {
+	private final static String TOPIC = "sowing";
+
+	private JsonSerializer<Block> jsonSerializer;
+	private JsonDeserializer<Block> jsonDeserializer;
+	private BlockSerialization.ValueSerializerImpl binarySerializer;
+	private BlockSerialization.ValueDeserializerImpl binaryDeserializer;
+	private BlockSerialization.KeySerializerImpl keySerializer;
+	private BlockSerialization.KeyDeserializerImpl keyDeserializer;
+
+	private Block sampleBlock;
+	private byte[] jsonBytes;
+	private byte[] binaryBytes;
+	private RecordHeaders jsonHeaders;
+	private RecordHeaders binaryHeaders;
+	private BlockId sampleKey;
+	private byte[] keyBytes;
+
+	public BlockSerializationBenchmark() {}
+
+	@Setup
+	public void setup()
+	{
+		var objectMapper = new ObjectMapper()
+			.registerModule(
+				new SimpleModule()
+					.addSerializer(Instant.class, new InstantJsonComponent.Serializer())
+					.addDeserializer(Instant.class, new InstantJsonComponent.Deserializer())
+			);
+
+		jsonSerializer = new JsonSerializer<>(objectMapper);
+		jsonDeserializer = new JsonDeserializer<>(Block.class, objectMapper, false);
+		binarySerializer = new BlockSerialization.ValueSerializerImpl();
+		binaryDeserializer = new BlockSerialization.ValueDeserializerImpl(jsonDeserializer);
+		keySerializer = new BlockSerialization.KeySerializerImpl();
+		keyDeserializer = new BlockSerialization.KeyDeserializerImpl();
+
+		var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+		sampleBlock = new Block();
+		sampleBlock.setLandId(UUID.randomUUID());
+		sampleBlock.setId((short)1024);
+		sampleBlock.setCrop(Crop.Rice);
+		sampleBlock.setSowTime(now.minusSeconds(600));
+		sampleBlock.setMatureTime(now.minusSeconds(60));
+		sampleBlock.setHarvestAmount((short)40);
+		sampleBlock.setStatus(Status.ScheduledHarvest);
+		sampleBlock.setComment("Honduras apricot");
+		sampleBlock.setUpdateTime(now);
+
+		jsonHeaders = new RecordHeaders();
+		jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, sampleBlock);
+		binaryHeaders = new RecordHeaders();
+		binaryBytes = binarySerializer.serialize(TOPIC, binaryHeaders, sampleBlock);
+		sampleKey = sampleBlock.getBlockId();
+		keyBytes = keySerializer.serialize(TOPIC, sampleKey);
+	}
+
+	@Benchmark
+	public byte[] serializeJson()
+	{
+		return jsonSerializer.serialize(TOPIC, new RecordHeaders(), sampleBlock);
+	}
+
+	@Benchmark
+	public byte[] serializeBinary()
+	{
+		return binarySerializer.serialize(TOPIC, new RecordHeaders(), sampleBlock);
+	}
+
+	@Benchmark
+	public void deserializeJson(Blackhole blackhole)
+	{
+		blackhole.consume(
+			binaryDeserializer.deserialize(TOPIC, jsonHeaders, jsonBytes)
+		);
+	}
+
+	@Benchmark
+	public void deserializeBinary(Blackhole blackhole)
+	{
+		blackhole.consume(
+			binaryDeserializer.deserialize(TOPIC, binaryHeaders, binaryBytes)
+		);
+	}
+
+	@Benchmark
+	public byte[] serializeKey()
+	{
+		return keySerializer.serialize(TOPIC, sampleKey);
+	}
+
+	@Benchmark
+	public BlockId deserializeKey()
+	{
+		return keyDeserializer.deserialize(TOPIC, keyBytes);
+	}
+}
@@ -0,0 +1,73 @@
+package guru.mikelue.farming.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.misc.lang.agent.IntegerAgent;
+
+/**
+ * Measures the lookups of enums(by cached mapping of {@link IntegerAgent})
+ * and the random draws of {@link CropProperties}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelLookupBenchmark {
+	private final static Crop[] CROPS = Crop.values();
+	private final static Status[] STATUSES = Status.values();
+
+	private int round = 0;
+
+	public ModelLookupBenchmark() {}
+
+	@Benchmark
+	public Crop cropFromValue()
+	{
+		return Crop.fromValue(nextOf(CROPS).value());
+	}
+
+	@Benchmark
+	public Status statusFromValue()
+	{
+		return Status.fromValue(nextOf(STATUSES).value());
+	}
+
+	/**
+	 * Gets the mate of enum from the cache of JVM.
+	 */
+	@Benchmark
+	public Crop cropFromEnumMateOfCache()
+	{
+		return IntegerAgent.asEnumMate(Crop.class)
+			.getEnum(nextOf(CROPS).value());
+	}
+
+	@Benchmark
+	public int sowingTime()
+	{
+		return CropProperties.getSowingTime(nextOf(CROPS));
+	}
+
+	@Benchmark
+	public int growingTime()
+	{
+		return CropProperties.getGrowingTime(nextOf(CROPS));
+	}
+
+	@Benchmark
+	public short harvestingQuantity()
+	{
+		return CropProperties.getHarvestingQuanity(nextOf(CROPS));
+	}
+
+	private <T> T nextOf(T[] values)
+	{
+		round = (round + 1) % values.length;
+		return values[round];
+	}
+}
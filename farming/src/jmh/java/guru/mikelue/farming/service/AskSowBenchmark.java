@@ -0,0 +1,158 @@
+package guru.mikelue.farming.service;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.model.AskBlockAction;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.Climate;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the pipeline(Reactor) of {@link FarmingService#askSow}.<p>
+ *
+ * The repositories and producer are stubbed(without I/O), so the overhead of
+ * operators(checking of climate, claiming, and sending) is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class AskSowBenchmark {
+	@Param({ "1", "16", "128" })
+	private short askedBlocks;
+
+	private FarmingService farmingService;
+	private AskBlockAction sowingInfo;
+
+	public AskSowBenchmark() {}
+
+	@Setup
+	public void setup()
+	{
+		var land = new Land(UUID.randomUUID());
+		land.setName("Benchmark land");
+		land.setClimate(Climate.Mild);
+		land.setSize(askedBlocks);
+
+		sowingInfo = new AskBlockAction();
+		sowingInfo.setLandId(land.getId());
+		sowingInfo.setCrop(Crop.Kale);
+		sowingInfo.setAskedBlocks(askedBlocks);
+		sowingInfo.setComment("Benchmark");
+
+		farmingService = new FarmingService();
+		ReflectionTestUtils.setField(
+			farmingService, "landCache",
+			new LandCache(
+				stubLandRepos(land), new KafkaProperties(), new SimpleMeterRegistry(),
+				16, Duration.ofMinutes(10)
+			)
+		);
+		ReflectionTestUtils.setField(farmingService, "reactiveBlockRepos", stubBlockRepos());
+		ReflectionTestUtils.setField(farmingService, "queueService", new StubProducerService());
+		ReflectionTestUtils.setField(farmingService, "maturityIndex", new MaturityIndex());
+		ReflectionTestUtils.setField(farmingService, "landSummaryService", new LandSummaryService());
+	}
+
+	@Benchmark
+	public List<Block> askSow()
+	{
+		return farmingService.askSow(sowingInfo)
+			.collectList()
+			.block();
+	}
+
+	private static ReactiveLandRepos stubLandRepos(Land land)
+	{
+		return (ReactiveLandRepos)Proxy.newProxyInstance(
+			ReactiveLandRepos.class.getClassLoader(), new Class<?>[] { ReactiveLandRepos.class },
+			(proxy, method, args) -> {
+				if (method.getName().equals("findById")) {
+					return Mono.just(land);
+				}
+
+				throw new UnsupportedOperationException(method.getName());
+			}
+		);
+	}
+
+	private static ReactiveBlockRepos stubBlockRepos()
+	{
+		return (ReactiveBlockRepos)Proxy.newProxyInstance(
+			ReactiveBlockRepos.class.getClassLoader(), new Class<?>[] { ReactiveBlockRepos.class },
+			(proxy, method, args) -> {
+				if (method.getName().equals("claimBlocksOfLand")) {
+					return Flux.fromIterable(
+						claimedBlocks((AskBlockAction)args[0], (Status)args[2], (Instant)args[3])
+					);
+				}
+
+				throw new UnsupportedOperationException(method.getName());
+			}
+		);
+	}
+
+	private static List<Block> claimedBlocks(AskBlockAction action, Status newStatus, Instant updateTime)
+	{
+		var blocks = new ArrayList<Block>(action.getAskedBlocks());
+
+		for (short i = 0; i < action.getAskedBlocks(); i++) {
+			var block = new Block();
+			block.setLandId(action.getLandId());
+			block.setId(i);
+			block.setCrop(action.getCrop());
+			block.setComment(action.getComment());
+			block.setStatus(newStatus);
+			block.setUpdateTime(updateTime);
+
+			blocks.add(block);
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * Acknowledges every block immediately.
+	 */
+	private static class StubProducerService extends FarmingProducerService {
+		private final static RecordMetadata METADATA = new RecordMetadata(
+			new TopicPartition("sowing", 0), 0, 0, 0, 0, 0
+		);
+
+		@Override
+		public Flux<SendResult<BlockId, Block>> sendBatch(Flux<Block> blocks, String topicName)
+		{
+			return blocks.map(block -> new SendResult<>(
+				new ProducerRecord<>(topicName, block.getBlockId(), block),
+				METADATA
+			));
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package guru.mikelue.misc.springframework.data.web;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the parsing of sorting/paging parameters by
+ * {@link ReactiveSortParamResolver} and {@link ReactivePageableParamResolver}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParamResolverBenchmark {
+	private final static String SORT_VALUE = "name:asc,climate:desc,size";
+
+	private ReactiveSortParamResolver sortResolver;
+	private ReactivePageableParamResolver pageableResolver;
+	private BindingContext bindingContext;
+
+	private MethodParameter sortParam;
+	private MethodParameter pageableParam;
+
+	private ServerWebExchange exchangeOfQueryString;
+	private ServerWebExchange exchangeOfHeaders;
+
+	public ParamResolverBenchmark() {}
+
+	@Setup
+	public void setup() throws NoSuchMethodException
+	{
+		sortResolver = new ReactiveSortParamResolver();
+		pageableResolver = new ReactivePageableParamResolver();
+		pageableResolver.setSortResolver(sortResolver);
+		bindingContext = new BindingContext();
+
+		var sampleMethod = ParamResolverBenchmark.class.getDeclaredMethod(
+			"sampleHandler", Sort.class, Pageable.class
+		);
+		sortParam = new MethodParameter(sampleMethod, 0);
+		pageableParam = new MethodParameter(sampleMethod, 1);
+
+		var applicationContext = new StaticApplicationContext();
+		applicationContext.getBeanFactory().registerSingleton(
+			"conversionService", DefaultConversionService.getSharedInstance()
+		);
+		applicationContext.refresh();
+
+		exchangeOfQueryString = withApplicationContext(
+			MockServerWebExchange.from(
+				MockServerHttpRequest.get("/land")
+					.queryParam(ReactivePageableParamResolver.DEFAULT_PARAM_NAME_PAGE, "3")
+					.queryParam(ReactivePageableParamResolver.DEFAULT_PARAM_NAME_PAGE_SIZE, "50")
+					.queryParam(ReactiveSortParamResolver.DEFAULT_PARAM_NAME_PAGE_SORT, SORT_VALUE)
+			),
+			applicationContext
+		);
+		exchangeOfHeaders = withApplicationContext(
+			MockServerWebExchange.from(
+				MockServerHttpRequest.get("/land")
+					.header(ReactivePageableParamResolver.DEFAULT_PARAM_NAME_PAGE, "3")
+					.header(ReactivePageableParamResolver.DEFAULT_PARAM_NAME_PAGE_SIZE, "50")
+					.header(ReactiveSortParamResolver.DEFAULT_PARAM_NAME_PAGE_SORT, SORT_VALUE)
+			),
+			applicationContext
+		);
+
+		/**
+		 * Checks the resolved values before measuring
+		 */
+		var sort = (Sort)sortResolver.resolveArgumentValue(sortParam, bindingContext, exchangeOfQueryString);
+		var pageable = (Pageable)pageableResolver.resolveArgumentValue(pageableParam, bindingContext, exchangeOfHeaders);
+		if (sort.stream().count() != 3 || pageable.getPageSize() != 50) {
+			throw new IllegalStateException(
+				String.format("Unexpected resolved values. Sort: %s. Pageable: %s", sort, pageable)
+			);
+		}
+		// :~)
+	}
+
+	@Benchmark
+	public Object sortByQueryString()
+	{
+		return sortResolver.resolveArgumentValue(sortParam, bindingContext, exchangeOfQueryString);
+	}
+
+	@Benchmark
+	public Object sortByHeaders()
+	{
+		return sortResolver.resolveArgumentValue(sortParam, bindingContext, exchangeOfHeaders);
+	}
+
+	@Benchmark
+	public Object pageableByQueryString()
+	{
+		return pageableResolver.resolveArgumentValue(pageableParam, bindingContext, exchangeOfQueryString);
+	}
+
+	@Benchmark
+	public Object pageableByHeaders()
+	{
+		return pageableResolver.resolveArgumentValue(pageableParam, bindingContext, exchangeOfHeaders);
+	}
+
+	/**
+	 * The resolver of pageable gets {@link ConversionService} from the application context of exchange.
+	 */
+	private static ServerWebExchange withApplicationContext(
+		ServerWebExchange exchange, ApplicationContext applicationContext
+	) {
+		return new ServerWebExchangeDecorator(exchange) {
+			@Override
+			public ApplicationContext getApplicationContext()
+			{
+				return applicationContext;
+			}
+		};
+	}
+
+	void sampleHandler(
+		@SortDefault(sort="id", direction=Direction.DESC) Sort sort,
+		@PageableDefault(size=30, sort="name") Pageable pageable
+	) {}
+}
@@ -2,10 +2,15 @@ package guru.mikelue.farming;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is configured by ReactiveReposConfig
+@SpringBootApplication(
+	exclude={ R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class }
+)
 @EntityScan("guru.mikelue.farming.model")
 @EnableScheduling
 public class MainApplication {
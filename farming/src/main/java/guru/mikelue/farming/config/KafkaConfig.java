@@ -1,29 +1,67 @@
 package guru.mikelue.farming.config;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
 import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.EndpointHandlerMethod;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import guru.mikelue.farming.kafka.BlockSerialization;
+import guru.mikelue.farming.kafka.LandAffinityPartitioner;
 import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.service.FarmingConsumerService;
 
 @Configuration(proxyBeanMethods=false)
 public class KafkaConfig {
 	public final static String TOPIC_SOWING = "sowing";
 	public final static String TOPIC_HARVESTING = "harvesting";
 	public final static String TOPIC_CLEANING = "cleaning";
+	/**
+	 * The topic of blocks re-sent for remaining in scheduled status too long(any of sowing, harvesting, or cleaning),
+	 * which is consumed by a throttled lane so the live topics are not delayed by storm of re-sending.
+	 */
+	public final static String TOPIC_RETRY = "scheduled-retry";
+	/**
+	 * The topic of completions failed to be applied to databases, which is retried by topics with increasing delays
+	 * ({@value #TOPIC_FAILED_COMPLETION}-retry-&lt;n&gt;), the exhausted ones are parked in {@value #TOPIC_FAILED_COMPLETION_DLT}.
+	 */
+	public final static String TOPIC_FAILED_COMPLETION = "failed-completion";
+	public final static String TOPIC_FAILED_COMPLETION_DLT = TOPIC_FAILED_COMPLETION + "-dlt";
+	/**
+	 * The compacted topic of invalidated lands(keyed by id of land), which is consumed by every instance.
+	 */
+	public final static String TOPIC_LAND_INVALIDATION = "land-invalidation";
+
+	public final static String LAND_INVALIDATION_LISTENER_FACTORY = "landInvalidationListenerFactory";
+	public final static String RETRY_LISTENER_FACTORY = "retryListenerFactory";
+
+	public final static String VALUE_FORMAT_BINARY = "binary";
+	public final static String VALUE_FORMAT_JSON = "json";
 
 	public KafkaConfig() {}
 
@@ -66,17 +104,150 @@ public class KafkaConfig {
 			.build();
 	}
 
+	@Bean
+	NewTopic buildTopicForRetry(
+		@Value("${kafka.topic.retry.partitions}")
+		int partitions,
+		@Value("${kafka.topic.retry.replicas}")
+		int replicas
+	) {
+		return TopicBuilder.name(TOPIC_RETRY)
+			.partitions(partitions)
+			.replicas(replicas)
+			.build();
+	}
+
+	/**
+	 * The retrying of failed completions, the topics(including the one of dead letters) are created by Spring Kafka.<p>
+	 *
+	 * The state of retrying(attempts and due time) is kept by headers of records, the partition of a retry topic is paused
+	 * until the record is due, so no thread of listener is sleeping.
+	 */
+	@Bean
+	RetryTopicConfiguration failedCompletionRetryTopic(
+		KafkaTemplate<BlockId, Block> kafkaTemplate,
+		@Value("${kafka.topic.failed-completion.partitions}")
+		int partitions,
+		@Value("${kafka.topic.failed-completion.replicas}")
+		short replicas,
+		@Value("${valor.farming.completion.retry.attempts}")
+		int attempts,
+		@Value("${valor.farming.completion.retry.initial-delay}")
+		Duration initialDelay,
+		@Value("${valor.farming.completion.retry.multiplier}")
+		double multiplier,
+		@Value("${valor.farming.completion.retry.max-delay}")
+		Duration maxDelay
+	) {
+		return RetryTopicConfigurationBuilder.newInstance()
+			.includeTopic(TOPIC_FAILED_COMPLETION)
+			.maxAttempts(attempts)
+			.exponentialBackoff(initialDelay.toMillis(), multiplier, maxDelay.toMillis())
+			.suffixTopicsWithIndexValues()
+			.autoCreateTopicsWith(partitions, replicas)
+			.dltHandlerMethod(new EndpointHandlerMethod(FarmingConsumerService.class, "handleDeadCompletion"))
+			.create(kafkaTemplate);
+	}
+
+	@Bean
+	NewTopic buildTopicForLandInvalidation(
+		@Value("${kafka.topic.land-invalidation.replicas}")
+		int replicas
+	) {
+		return TopicBuilder.name(TOPIC_LAND_INVALIDATION)
+			.partitions(1)
+			.replicas(replicas)
+			.compact()
+			.build();
+	}
+
+	/**
+	 * The listeners of invalidated lands, whose key(id of land) and value(reason) are strings.<p>
+	 *
+	 * The consumer factory is not exposed as bean, so the one of Spring Boot(for blocks) is kept.
+	 * Only the invalidations published after the instance is started are consumed.
+	 */
+	@Bean(LAND_INVALIDATION_LISTENER_FACTORY)
+	ConcurrentKafkaListenerContainerFactory<String, String> landInvalidationListenerFactory(
+		KafkaProperties kafkaProperties
+	) {
+		var consumerProperties = kafkaProperties.buildConsumerProperties();
+		consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+		var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+		factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+			consumerProperties,
+			new StringDeserializer(), new StringDeserializer()
+		));
+
+		return factory;
+	}
+
+	/**
+	 * The listeners of re-sent blocks, which are throttled by the number of consumers, the number of polled records,
+	 * and the idle time between polls(per consumer).<p>
+	 *
+	 * The consumer factory of Spring Boot(for blocks) is shared, so the records are deserialized the same as live topics.
+	 */
+	@Bean(RETRY_LISTENER_FACTORY)
+	ConcurrentKafkaListenerContainerFactory<BlockId, Block> retryListenerFactory(
+		ConsumerFactory<BlockId, Block> consumerFactory,
+		@Value("${valor.farming.retry.concurrency}")
+		int concurrency,
+		@Value("${valor.farming.retry.max-poll-records}")
+		int maxPollRecords,
+		@Value("${valor.farming.retry.idle-between-polls}")
+		Duration idleBetweenPolls
+	) {
+		var factory = new ConcurrentKafkaListenerContainerFactory<BlockId, Block>();
+		factory.setConsumerFactory(consumerFactory);
+		factory.setBatchListener(true);
+		factory.setConcurrency(concurrency);
+
+		var containerProperties = factory.getContainerProperties();
+		containerProperties.setIdleBetweenPolls(idleBetweenPolls.toMillis());
+
+		var consumerProperties = new Properties();
+		consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+		containerProperties.setKafkaConsumerProperties(consumerProperties);
+
+		return factory;
+	}
+
+	/**
+	 * The format of value is "binary" or "json"(for consumers not upgraded yet).<p>
+	 *
+	 * The blocks are partitioned by land only if the land affinity is enabled({@link LandAffinityPartitioner}).
+	 */
 	@Bean
 	DefaultKafkaProducerFactoryCustomizer blockProducerFactory(
 		@Autowired
-		ObjectMapper objectMapper
+		ObjectMapper objectMapper,
+		@Value("${valor.farming.kafka.value-format}")
+		String valueFormat,
+		@Value("${valor.farming.kafka.land-affinity}")
+		boolean landAffinity
 	) {
+		Serializer<Block> valueSerializer = switch (valueFormat.toLowerCase()) {
+			case VALUE_FORMAT_BINARY -> new BlockSerialization.ValueSerializerImpl();
+			case VALUE_FORMAT_JSON -> new JsonSerializer<>(objectMapper);
+			default -> throw new IllegalArgumentException(
+				String.format("Unknown format of value: \"%s\"", valueFormat)
+			);
+		};
+
 		return untypedFactory -> {
 			@SuppressWarnings("unchecked")
 			var factory = (DefaultKafkaProducerFactory<BlockId, Block>)untypedFactory;
 
 			factory.setKeySerializer(new BlockSerialization.KeySerializerImpl());
-			factory.setValueSerializer(new JsonSerializer<>(objectMapper));
+			factory.setValueSerializer(valueSerializer);
+
+			if (landAffinity) {
+				factory.updateConfigs(Map.of(
+					ProducerConfig.PARTITIONER_CLASS_CONFIG, LandAffinityPartitioner.class
+				));
+			}
 		};
 	}
 
@@ -93,7 +264,9 @@ public class KafkaConfig {
 			jsonDeserializer.trustedPackages("guru.mikelue.farming.model");
 
 			factory.setKeyDeserializer(new BlockSerialization.KeyDeserializerImpl());
-			factory.setValueDeserializer(jsonDeserializer);
+			factory.setValueDeserializer(
+				new BlockSerialization.ValueDeserializerImpl(jsonDeserializer)
+			);
 		};
 	}
 }
@@ -0,0 +1,116 @@
+package guru.mikelue.farming.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.farming.repos.reactive.BlockingBridge;
+import guru.mikelue.farming.repos.reactive.JpaBridgedBlockRepos;
+import guru.mikelue.farming.repos.reactive.JpaBridgedLandRepos;
+import guru.mikelue.farming.repos.reactive.R2dbcBlockRepos;
+import guru.mikelue.farming.repos.reactive.R2dbcLandRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+
+/**
+ * Selects the implementation of reactive repositories by <em>valor.farming.repos.reactive</em>:
+ *
+ * <ul>
+ * 	<li>{@value #REPOS_R2DBC}(default) - By R2DBC, the pool of connections is separated from JDBC</li>
+ * 	<li>{@value #REPOS_JPA} - By JPA, the blocking calls are run by {@link BlockingBridge}</li>
+ * </ul>
+ *
+ * The auto-configuration of R2DBC(by Spring Boot) is excluded,
+ * so there is no reactive transaction manager competing with the one of JPA.
+ */
+@Configuration(proxyBeanMethods=false)
+public class ReactiveReposConfig {
+	public final static String REPOS_R2DBC = "r2dbc";
+	public final static String REPOS_JPA = "jpa";
+
+	public ReactiveReposConfig() {}
+
+	@Configuration(proxyBeanMethods=false)
+	@ConditionalOnProperty(name="valor.farming.repos.reactive", havingValue=REPOS_R2DBC, matchIfMissing=true)
+	static class R2dbcReposConfig {
+		R2dbcReposConfig() {}
+
+		@Bean(destroyMethod="dispose")
+		ConnectionPool r2dbcConnectionPool(
+			@Value("${valor.farming.r2dbc.url}")
+			String url,
+			@Value("${spring.datasource.username}")
+			String username,
+			@Value("${spring.datasource.password}")
+			String password,
+			@Value("${valor.farming.r2dbc.pool.max-size}")
+			int maxSize
+		) {
+			var options = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+
+			return new ConnectionPool(
+				ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+					.name("farming-r2dbc")
+					.maxSize(maxSize)
+					.build()
+			);
+		}
+
+		@Bean
+		DatabaseClient r2dbcDatabaseClient(ConnectionPool connectionPool)
+		{
+			return DatabaseClient.create(connectionPool);
+		}
+
+		@Bean
+		ReactiveBlockRepos r2dbcBlockRepos(
+			DatabaseClient databaseClient,
+			@Value("${valor.farming.scan.fetch-size}")
+			int fetchSize
+		) {
+			return new R2dbcBlockRepos(databaseClient, fetchSize);
+		}
+
+		@Bean
+		ReactiveLandRepos r2dbcLandRepos(
+			DatabaseClient databaseClient,
+			@Value("${valor.farming.scan.fetch-size}")
+			int fetchSize
+		) {
+			return new R2dbcLandRepos(databaseClient, fetchSize);
+		}
+	}
+
+	@Configuration(proxyBeanMethods=false)
+	@ConditionalOnProperty(name="valor.farming.repos.reactive", havingValue=REPOS_JPA)
+	static class JpaBridgedReposConfig {
+		JpaBridgedReposConfig() {}
+
+		@Bean
+		ReactiveBlockRepos jpaBridgedBlockRepos(
+			BlockRepos blockRepos, BlockingBridge blockingBridge,
+			@Value("${valor.farming.scan.fetch-size}")
+			int fetchSize
+		) {
+			return new JpaBridgedBlockRepos(blockRepos, blockingBridge, fetchSize);
+		}
+
+		@Bean
+		ReactiveLandRepos jpaBridgedLandRepos(LandRepos landRepos, BlockingBridge blockingBridge)
+		{
+			return new JpaBridgedLandRepos(landRepos, blockingBridge);
+		}
+	}
+}
@@ -1,17 +1,25 @@
 package guru.mikelue.farming.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import guru.mikelue.farming.web.GlobalErrorAttributes;
+import guru.mikelue.farming.web.StreamingJsonArrayEncoder;
 import guru.mikelue.misc.springframework.data.web.ReactivePageableParamResolver;
 import guru.mikelue.misc.springframework.data.web.ReactiveSortParamResolver;
 
 @Configuration(proxyBeanMethods=false)
 public class WebConfig implements WebFluxConfigurer {
+	@Autowired
+	private ObjectMapper objectMapper;
+
     @Override
     public void configureArgumentResolvers(ArgumentResolverConfigurer configurer)
 	{
@@ -23,6 +31,17 @@ public class WebConfig implements WebFluxConfigurer {
 		configurer.addCustomResolver(pageableResolver);
     }
 
+	/**
+	 * The arrays of JSON are written element by element instead of collecting the whole elements.
+	 */
+	@Override
+	public void configureHttpMessageCodecs(ServerCodecConfigurer configurer)
+	{
+		configurer.defaultCodecs().jackson2JsonEncoder(
+			new StreamingJsonArrayEncoder(objectMapper)
+		);
+	}
+
 	@Bean
 	ErrorAttributes defaultErrorAttributes()
 	{
@@ -1,12 +1,21 @@
 package guru.mikelue.farming.kafka;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.UUID;
 
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serializer;
 
+import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.Crop;
 
 public class BlockSerialization {
 	private BlockSerialization() {}
@@ -14,6 +23,42 @@ public class BlockSerialization {
 	// 2 longs + 1 short
 	private final static int NEED_BYTES_FOR_KEY = 18;
 
+	/**
+	 * The header carries the format of value, the value without this header is JSON.
+	 */
+	public final static String HEADER_VALUE_FORMAT = "vc-value-format";
+	/**
+	 * The format(as value of {@link #HEADER_VALUE_FORMAT}) of binary {@link Block}.
+	 */
+	public final static String FORMAT_BINARY_BLOCK = "vc-block-binary";
+
+	private final static byte[] BYTES_OF_FORMAT_BINARY_BLOCK =
+		FORMAT_BINARY_BLOCK.getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * The version of layout of binary {@link Block}.
+	 */
+	public final static byte BINARY_VERSION = 1;
+
+	/**
+	 * Bits of optional properties of block, the property is present if the bit is set.
+	 */
+	private final static int BIT_CROP = 1;
+	private final static int BIT_SOW_TIME = 1 << 1;
+	private final static int BIT_MATURE_TIME = 1 << 2;
+	private final static int BIT_HARVEST_AMOUNT = 1 << 3;
+	private final static int BIT_STATUS = 1 << 4;
+	private final static int BIT_COMMENT = 1 << 5;
+	private final static int BIT_UPDATE_TIME = 1 << 6;
+	private final static int BIT_BLOCK_VERSION = 1 << 7;
+	// :~)
+
+	/**
+	 * Version(1) + bits(1) + key(18) + crop(1) + 3 timestamps(24) + harvest amount(2) + status(1)
+	 * + length of comment(2) + version of block(4)
+	 */
+	private final static int MAX_BYTES_WITHOUT_COMMENT = 54;
+
 	public static class KeySerializerImpl implements Serializer<BlockId> {
         @Override
         public byte[] serialize(String topic, BlockId blockId)
@@ -45,4 +90,228 @@ public class BlockSerialization {
 			);
         }
 	}
+
+	/**
+	 * Serializes {@link Block} into compact binary, the header of {@link #HEADER_VALUE_FORMAT} is added.<p>
+	 *
+	 * The layout(version 1):
+	 *
+	 * <ol>
+	 * 	<li>version(byte)</li>
+	 * 	<li>bits of present properties(byte)</li>
+	 * 	<li>land id(2 longs) and id(short)</li>
+	 * 	<li>crop(byte), sow time(long), mature time(long), harvest amount(short),
+	 * 		status(byte), comment(UTF-8 with length of short), update time(long) - only if present</li>
+	 * 	<li>version of block(int) - only if present</li>
+	 * </ol>
+	 *
+	 * The time is epoch seconds, which is the same precision as JSON.
+	 *
+	 * The version of block is appended after other properties,
+	 * which is skipped by the deserializers reading properties of bits 0 to 6 only.
+	 *
+	 * The buffer of serializing is reused by every thread.
+	 */
+	public static class ValueSerializerImpl implements Serializer<Block> {
+		private final static ThreadLocal<ByteBuffer> localBuffer = ThreadLocal.withInitial(
+			() -> ByteBuffer.allocate(256)
+		);
+
+		@Override
+		public byte[] serialize(String topic, Headers headers, Block block)
+		{
+			headers.remove(HEADER_VALUE_FORMAT);
+			headers.add(HEADER_VALUE_FORMAT, BYTES_OF_FORMAT_BINARY_BLOCK);
+
+			return serialize(topic, block);
+		}
+
+		@Override
+		public byte[] serialize(String topic, Block block)
+		{
+			if (block == null) {
+				return null;
+			}
+
+			var bytesOfComment = block.getComment() != null ?
+				block.getComment().getBytes(StandardCharsets.UTF_8) : null;
+			if (bytesOfComment != null && bytesOfComment.length > Short.MAX_VALUE) {
+				throw new SerializationException(
+					String.format("Comment of block is too long: %d bytes", bytesOfComment.length)
+				);
+			}
+
+			var buffer = prepareBuffer(
+				MAX_BYTES_WITHOUT_COMMENT +
+				(bytesOfComment != null ? bytesOfComment.length : 0)
+			);
+
+			var bits = 0;
+			if (block.getCrop() != null) { bits |= BIT_CROP; }
+			if (block.getSowTime() != null) { bits |= BIT_SOW_TIME; }
+			if (block.getMatureTime() != null) { bits |= BIT_MATURE_TIME; }
+			if (block.getHarvestAmount() != null) { bits |= BIT_HARVEST_AMOUNT; }
+			if (block.getStatus() != null) { bits |= BIT_STATUS; }
+			if (bytesOfComment != null) { bits |= BIT_COMMENT; }
+			if (block.getUpdateTime() != null) { bits |= BIT_UPDATE_TIME; }
+			if (block.getVersion() != null) { bits |= BIT_BLOCK_VERSION; }
+
+			buffer.put(BINARY_VERSION);
+			buffer.put((byte)bits);
+
+			var landId = block.getLandId();
+			buffer.putLong(landId.getMostSignificantBits());
+			buffer.putLong(landId.getLeastSignificantBits());
+			buffer.putShort(block.getId());
+
+			if ((bits & BIT_CROP) != 0) {
+				buffer.put(block.getCrop().value().byteValue());
+			}
+			if ((bits & BIT_SOW_TIME) != 0) {
+				buffer.putLong(block.getSowTime().getEpochSecond());
+			}
+			if ((bits & BIT_MATURE_TIME) != 0) {
+				buffer.putLong(block.getMatureTime().getEpochSecond());
+			}
+			if ((bits & BIT_HARVEST_AMOUNT) != 0) {
+				buffer.putShort(block.getHarvestAmount());
+			}
+			if ((bits & BIT_STATUS) != 0) {
+				buffer.put(block.getStatus().value().byteValue());
+			}
+			if ((bits & BIT_COMMENT) != 0) {
+				buffer.putShort((short)bytesOfComment.length);
+				buffer.put(bytesOfComment);
+			}
+			if ((bits & BIT_UPDATE_TIME) != 0) {
+				buffer.putLong(block.getUpdateTime().getEpochSecond());
+			}
+			if ((bits & BIT_BLOCK_VERSION) != 0) {
+				buffer.putInt(block.getVersion());
+			}
+
+			return Arrays.copyOf(buffer.array(), buffer.position());
+		}
+
+		private static ByteBuffer prepareBuffer(int neededBytes)
+		{
+			var buffer = localBuffer.get();
+
+			if (buffer.capacity() < neededBytes) {
+				buffer = ByteBuffer.allocate(neededBytes);
+				localBuffer.set(buffer);
+			}
+
+			return buffer.clear();
+		}
+	}
+
+	/**
+	 * Deserializes {@link Block} by the header of {@link #HEADER_VALUE_FORMAT}.<p>
+	 *
+	 * The data without the header is deserialized by the fallback(e.g. JSON) deserializer.
+	 */
+	public static class ValueDeserializerImpl implements Deserializer<Block> {
+		private final Deserializer<Block> fallbackDeserializer;
+
+		public ValueDeserializerImpl(Deserializer<Block> newFallbackDeserializer)
+		{
+			fallbackDeserializer = newFallbackDeserializer;
+		}
+
+		@Override
+		public Block deserialize(String topic, Headers headers, byte[] data)
+		{
+			var formatHeader = headers.lastHeader(HEADER_VALUE_FORMAT);
+
+			if (formatHeader == null) {
+				return fallbackDeserializer.deserialize(topic, headers, data);
+			}
+
+			if (!Arrays.equals(BYTES_OF_FORMAT_BINARY_BLOCK, formatHeader.value())) {
+				throw new SerializationException(
+					String.format("Unknown format of block: \"%s\"",
+						new String(formatHeader.value(), StandardCharsets.US_ASCII)
+					)
+				);
+			}
+
+			return deserialize(topic, data);
+		}
+
+		/**
+		 * Deserializes binary block.
+		 */
+		@Override
+		public Block deserialize(String topic, byte[] data)
+		{
+			if (data == null) {
+				return null;
+			}
+
+			try {
+				return readBlock(ByteBuffer.wrap(data));
+			} catch (BufferUnderflowException e) {
+				throw new SerializationException("Binary block is truncated", e);
+			}
+		}
+
+		@Override
+		public void close()
+		{
+			fallbackDeserializer.close();
+		}
+
+		private static Block readBlock(ByteBuffer sourceBytes)
+		{
+			var version = sourceBytes.get();
+			if (version != BINARY_VERSION) {
+				throw new SerializationException(
+					String.format("Unsupported version of binary block: %d", version)
+				);
+			}
+
+			var bits = sourceBytes.get();
+
+			var block = new Block();
+			block.setLandId(new UUID(sourceBytes.getLong(), sourceBytes.getLong()));
+			block.setId(sourceBytes.getShort());
+
+			if ((bits & BIT_CROP) != 0) {
+				block.setCrop(Crop.fromValue(sourceBytes.get()));
+			}
+			if ((bits & BIT_SOW_TIME) != 0) {
+				block.setSowTime(Instant.ofEpochSecond(sourceBytes.getLong()));
+			}
+			if ((bits & BIT_MATURE_TIME) != 0) {
+				block.setMatureTime(Instant.ofEpochSecond(sourceBytes.getLong()));
+			}
+			if ((bits & BIT_HARVEST_AMOUNT) != 0) {
+				block.setHarvestAmount(sourceBytes.getShort());
+			}
+			if ((bits & BIT_STATUS) != 0) {
+				block.setStatus(Status.fromValue(sourceBytes.get()));
+			}
+			if ((bits & BIT_COMMENT) != 0) {
+				var lengthOfComment = sourceBytes.getShort();
+				if (lengthOfComment > sourceBytes.remaining()) {
+					throw new BufferUnderflowException();
+				}
+
+				block.setComment(new String(
+					sourceBytes.array(), sourceBytes.arrayOffset() + sourceBytes.position(),
+					lengthOfComment, StandardCharsets.UTF_8
+				));
+				sourceBytes.position(sourceBytes.position() + lengthOfComment);
+			}
+			if ((bits & BIT_UPDATE_TIME) != 0) {
+				block.setUpdateTime(Instant.ofEpochSecond(sourceBytes.getLong()));
+			}
+			if ((bits & BIT_BLOCK_VERSION) != 0) {
+				block.setVersion(sourceBytes.getInt());
+			}
+
+			return block;
+		}
+	}
 }
@@ -0,0 +1,59 @@
+package guru.mikelue.farming.kafka;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Partitions blocks by the id of land only, so the blocks of a land are consumed by the same consumer.<p>
+ *
+ * The key(serialized by {@link BlockSerialization.KeySerializerImpl}) starts with 16 bytes of land id,
+ * which are hashed by murmur2(the same as the default partitioner of Kafka).
+ * The key without land id(e.g. {@code null}) is put to random partition.<p>
+ *
+ * Every producer must use the same partitioner for a topic, otherwise the blocks of a land are spread.
+ */
+public class LandAffinityPartitioner implements Partitioner {
+	/**
+	 * The number of bytes of land id(2 longs) in the key
+	 */
+	private final static int BYTES_OF_LAND_ID = 16;
+
+	public LandAffinityPartitioner() {}
+
+	@Override
+	public void configure(Map<String, ?> configs) {}
+
+	@Override
+	public int partition(
+		String topic,
+		Object key, byte[] keyBytes,
+		Object value, byte[] valueBytes,
+		Cluster cluster
+	) {
+		var numberOfPartitions = cluster.partitionCountForTopic(topic);
+
+		if (keyBytes == null || keyBytes.length < BYTES_OF_LAND_ID) {
+			return ThreadLocalRandom.current().nextInt(numberOfPartitions);
+		}
+
+		return partitionOfLand(keyBytes, numberOfPartitions);
+	}
+
+	/**
+	 * Gets the partition of land by the bytes of key.
+	 */
+	static int partitionOfLand(byte[] keyBytes, int numberOfPartitions)
+	{
+		return Utils.toPositive(
+			Utils.murmur2(Arrays.copyOf(keyBytes, BYTES_OF_LAND_ID))
+		) % numberOfPartitions;
+	}
+
+	@Override
+	public void close() {}
+}
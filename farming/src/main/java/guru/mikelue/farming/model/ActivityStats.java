@@ -0,0 +1,46 @@
+package guru.mikelue.farming.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * The aggregation of logs of a land for an hour or a day(UTC), by activity and crop.
+ *
+ * @param startTime The start time of hour or day
+ * @param activity The activity of logs
+ * @param crop The crop of blocks, {@code null} for the blocks without crop
+ * @param numberOfActivities The number of logs
+ * @param harvestAmount The sum of harvesting amount
+ * @param usedTimeSecond The sum of used time(seconds)
+ * @param maxUsedTimeSecond The maximum of used time(seconds)
+ */
+@DefaultJsonConfig
+@JsonPropertyOrder({
+	"start_time", "activity", "crop",
+	"number_of_activities", "harvest_amount", "used_time_second", "max_used_time_second"
+})
+public record ActivityStats(
+	@JsonProperty("start_time")
+	Instant startTime,
+	@JsonProperty("activity")
+	LogActivity activity,
+	@JsonProperty("crop")
+	Crop crop,
+	@JsonProperty("number_of_activities")
+	long numberOfActivities,
+	@JsonProperty("harvest_amount")
+	long harvestAmount,
+	@JsonProperty("used_time_second")
+	long usedTimeSecond,
+	@JsonProperty("max_used_time_second")
+	int maxUsedTimeSecond
+) {
+	/**
+	 * The granularity of aggregation.
+	 */
+	public enum Granularity {
+		Hour, Day;
+	}
+}
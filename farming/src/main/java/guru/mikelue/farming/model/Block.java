@@ -33,9 +33,18 @@ import guru.mikelue.misc.lang.agent.IntegerAgent;
 			ORDER BY b.id ASC
 		"""
 	),
+	@NamedQuery(
+		name="Block.findByLandIdAfter",
+		query="""
+			SELECT b FROM Block b
+			WHERE b.landId = :land_id
+				AND b.id > :last_id
+			ORDER BY b.id ASC
+		"""
+	),
 })
 @DefaultJsonConfig
-@JsonPropertyOrder({ "id", "crop", "sow_time", "mature_time", "harvest_amount", "status", "comment", "update_time" })
+@JsonPropertyOrder({ "id", "crop", "sow_time", "mature_time", "harvest_amount", "status", "comment", "update_time", "version" })
 public class Block {
 	public static class BlockId implements Serializable {
 		private UUID landId;
@@ -191,6 +200,9 @@ public class Block {
 	@Column(name="bl_update_time", nullable=false)
 	private Instant updateTime;
 
+	@Column(name="bl_version", nullable=false)
+	private Integer version;
+
 	/**
 	 * Gets enclosing land of block.<p>
 	 *
@@ -406,6 +418,27 @@ public class Block {
 		updateTime = newUpdateTime;
 	}
 
+	/**
+	 * Gets version of block, which is increased by every transition of status.<p>
+	 *
+	 * @return version of block, {@code null} if the block is received from message without version
+	 */
+	@JsonGetter("version")
+	public Integer getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Sets version of block.<p>
+	 *
+	 * @param newVersion version of block
+	 */
+	public void setVersion(Integer newVersion)
+	{
+		version = newVersion;
+	}
+
 	@Override
 	public boolean equals(Object obj)
 	{
@@ -439,6 +472,7 @@ public class Block {
 			.append("mature-time", getMatureTime())
 			.append("harvest-amount", getHarvestAmount())
 			.append("comment", getComment())
+			.append("version", getVersion())
 		.build();
 	}
 }
@@ -0,0 +1,15 @@
+package guru.mikelue.farming.model;
+
+import java.util.UUID;
+
+import guru.mikelue.farming.model.Block.Status;
+
+/**
+ * The number of blocks of a land grouped by status and crop.
+ *
+ * @param landId The id of land
+ * @param status The status of blocks
+ * @param crop The crop of blocks, {@code null} for the blocks without crop
+ * @param numberOfBlocks The number of blocks
+ */
+public record BlockCount(UUID landId, Status status, Crop crop, int numberOfBlocks) {}
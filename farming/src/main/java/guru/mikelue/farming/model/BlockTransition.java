@@ -0,0 +1,19 @@
+package guru.mikelue.farming.model;
+
+import guru.mikelue.farming.model.Block.BlockId;
+
+/**
+ * The change of a block by a single statement of updating.
+ *
+ * @param previous The block before updating
+ * @param current The block after updating
+ */
+public record BlockTransition(Block previous, Block current) {
+	/**
+	 * Gets the id of block.
+	 */
+	public BlockId blockId()
+	{
+		return current.getBlockId();
+	}
+}
@@ -1,6 +1,8 @@
 package guru.mikelue.farming.model;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -10,10 +12,26 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 import org.springframework.data.cassandra.core.cql.Ordering;
 import org.springframework.data.cassandra.core.mapping.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import static org.springframework.data.cassandra.core.cql.PrimaryKeyType.*;
 
-@Table("vc_land_log_by_time")
+/**
+ * The log of a block, which is partitioned by land and day(UTC) of log,
+ * so the size of a partition is bounded by the activities of a land in one day.
+ *
+ * @see LandLogBucket
+ */
+@Table("vc_land_log_by_day")
 public class LandLog {
+	/**
+	 * Gets the day(UTC) of partition for the time of log.
+	 */
+	public static LocalDate dayOf(Instant time)
+	{
+		return LocalDate.ofInstant(time, ZoneOffset.UTC);
+	}
+
 	@PrimaryKeyClass
 	public static class PK {
 		public static PK from(Block ordinaryBlock)
@@ -25,21 +43,33 @@ public class LandLog {
 			var newPK = new PK();
 
 			newPK.landId = landId;
-			newPK.time = time;
+			newPK.setTime(time);
 			newPK.blockId = blockId;
 
 			return newPK;
 		}
 
-		@PrimaryKeyColumn(name="ll_ld_id", type=PARTITIONED)
+		@PrimaryKeyColumn(name="ll_ld_id", ordinal=0, type=PARTITIONED)
 		private UUID landId;
 
-		@PrimaryKeyColumn(name="ll_time", ordinal=1, ordering=Ordering.DESCENDING)
+		@PrimaryKeyColumn(name="ll_day", ordinal=1, type=PARTITIONED)
+		private LocalDate day;
+
+		@PrimaryKeyColumn(name="ll_time", ordinal=2, ordering=Ordering.DESCENDING)
 		private Instant time;
 
-		@PrimaryKeyColumn(name="ll_bl_id", ordinal=2, ordering=Ordering.ASCENDING)
+		@PrimaryKeyColumn(name="ll_bl_id", ordinal=3, ordering=Ordering.ASCENDING)
 		private Short blockId;
 
+		/**
+		 * Sets time of log, the day of partition is set as well.
+		 */
+		private void setTime(Instant newTime)
+		{
+			time = newTime;
+			day = newTime != null ? dayOf(newTime) : null;
+		}
+
 		@Override
 		public boolean equals(Object obj)
 		{
@@ -52,6 +82,7 @@ public class LandLog {
 			var rhs = (PK)obj;
 			return new EqualsBuilder()
 				.append(this.landId, rhs.landId)
+				.append(this.day, rhs.day)
 				.append(this.time, rhs.time)
 				.append(this.blockId, rhs.blockId)
 				.isEquals();
@@ -62,6 +93,7 @@ public class LandLog {
 		{
 			return new HashCodeBuilder(451873, 21589)
 				.append(landId)
+				.append(day)
 				.append(time)
 				.append(blockId)
 			.toHashCode();
@@ -298,13 +330,24 @@ public class LandLog {
 	}
 
 	/**
-	 * Sets time of log.<p>
+	 * Sets time of log, which decides the day of partition as well.<p>
 	 *
 	 * @param newTime time of log
 	 */
 	public void setTime(Instant newTime)
 	{
-		pk.time = newTime;
+		pk.setTime(newTime);
+	}
+
+	/**
+	 * Gets day(UTC) of partition.<p>
+	 *
+	 * @return day of partition, which is decided by time of log
+	 */
+	@JsonIgnore
+	public LocalDate getDay()
+	{
+		return pk.day;
 	}
 
 	/**
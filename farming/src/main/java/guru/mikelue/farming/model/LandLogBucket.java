@@ -0,0 +1,93 @@
+package guru.mikelue.farming.model;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.springframework.data.cassandra.core.cql.Ordering;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import static org.springframework.data.cassandra.core.cql.PrimaryKeyType.*;
+
+/**
+ * The days(UTC) having logs of a land, which are the partitions of {@link LandLog} to be visited
+ * while listing logs by range of time.
+ */
+@Table("vc_land_log_bucket")
+public class LandLogBucket {
+	public static LandLogBucket of(UUID landId, LocalDate day)
+	{
+		var newBucket = new LandLogBucket();
+
+		newBucket.landId = landId;
+		newBucket.day = day;
+
+		return newBucket;
+	}
+
+	@PrimaryKeyColumn(name="lb_ld_id", ordinal=0, type=PARTITIONED)
+	private UUID landId;
+
+	@PrimaryKeyColumn(name="lb_day", ordinal=1, ordering=Ordering.DESCENDING)
+	private LocalDate day;
+
+	public LandLogBucket() {}
+
+	/**
+	 * Gets id of land.<p>
+	 *
+	 * @return id of land
+	 */
+	public UUID getLandId()
+	{
+		return landId;
+	}
+
+	/**
+	 * Gets day(UTC) of logs.<p>
+	 *
+	 * @return day of logs
+	 */
+	public LocalDate getDay()
+	{
+		return day;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (obj == null) { return false; }
+		if (obj == this) { return true; }
+		if (obj.getClass() != getClass()) {
+			return false;
+		}
+
+		var rhs = (LandLogBucket)obj;
+		return new EqualsBuilder()
+			.append(this.landId, rhs.landId)
+			.append(this.day, rhs.day)
+			.isEquals();
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return new HashCodeBuilder(451879, 21601)
+			.append(landId)
+			.append(day)
+		.toHashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, ToStringStyle.NO_CLASS_NAME_STYLE)
+			.append("LandId", landId)
+			.append("Day", day)
+		.build();
+	}
+}
@@ -0,0 +1,69 @@
+package guru.mikelue.farming.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * The position of the last log seen by a client, which is used to resume the listing of logs
+ * without reading the logs before it.<p>
+ *
+ * The text of cursor is opaque to clients.
+ *
+ * @param time The time of last log
+ * @param blockId The id of block of last log
+ */
+public record LandLogCursor(Instant time, short blockId) {
+	/**
+	 * Builds the cursor of a log.
+	 */
+	public static LandLogCursor of(LandLog landLog)
+	{
+		return new LandLogCursor(landLog.getTime(), landLog.getBlockId());
+	}
+
+	/**
+	 * Decodes the text built by {@link #encode()}.
+	 *
+	 * @throws IllegalArgumentException The text is not a valid cursor
+	 */
+	public static LandLogCursor decode(String text)
+	{
+		try {
+			var values = new String(
+				Base64.getUrlDecoder().decode(text),
+				StandardCharsets.US_ASCII
+			)
+				.split(":", 2);
+
+			return new LandLogCursor(
+				Instant.ofEpochMilli(Long.parseLong(values[0])),
+				Short.parseShort(values[1])
+			);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException(
+				String.format("Cannot decode cursor of logs: \"%s\"", text), e
+			);
+		}
+	}
+
+	/**
+	 * Encodes the cursor to URL-safe text.
+	 */
+	public String encode()
+	{
+		return Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(
+				(time.toEpochMilli() + ":" + blockId).getBytes(StandardCharsets.US_ASCII)
+			);
+	}
+
+	/**
+	 * Gets the day of partition of the log.
+	 */
+	public LocalDate day()
+	{
+		return LandLog.dayOf(time);
+	}
+}
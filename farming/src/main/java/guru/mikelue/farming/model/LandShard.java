@@ -0,0 +1,109 @@
+package guru.mikelue.farming.model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A range of land ids, which is used to split scanning of blocks.<p>
+ *
+ * The space of UUID is split evenly by the most significant bits(as unsigned),
+ * the range is [lower bound, upper bound) and the upper bound of last shard is unlimited.
+ *
+ * The order of bounds is the same as the comparison of UUID in PostgreSQL.
+ *
+ * @param index The index of shard(from 0)
+ * @param count The total number of shards
+ */
+public record LandShard(int index, int count) {
+	/**
+	 * The shard covers all of the lands.
+	 */
+	public final static LandShard ALL = new LandShard(0, 1);
+
+	private final static BigInteger SIZE_OF_MOST_SIGNIFICANT_BITS = BigInteger.ONE.shiftLeft(64);
+
+	public LandShard
+	{
+		if (count < 1 || index < 0 || index >= count) {
+			throw new IllegalArgumentException(
+				String.format("Illegal shard: %d/%d", index, count)
+			);
+		}
+	}
+
+	/**
+	 * Splits lands into shards.
+	 *
+	 * @param count The number of shards
+	 */
+	public static List<LandShard> split(int count)
+	{
+		var shards = new ArrayList<LandShard>(count);
+
+		for (var i = 0; i < count; i++) {
+			shards.add(new LandShard(i, count));
+		}
+
+		return shards;
+	}
+
+	/**
+	 * Gets the lower bound(inclusive) of land id.<p>
+	 *
+	 * @return lower bound of land id
+	 */
+	public UUID lowerBound()
+	{
+		return boundOf(index);
+	}
+
+	/**
+	 * Gets the upper bound(exclusive) of land id.<p>
+	 *
+	 * @return upper bound of land id, {@code null} for the last shard
+	 */
+	public UUID upperBound()
+	{
+		return index == count - 1 ? null : boundOf(index + 1);
+	}
+
+	/**
+	 * Checks whether or not the land id is in this shard.
+	 */
+	public boolean contains(UUID landId)
+	{
+		var upperBound = upperBound();
+
+		return compareAsUnsigned(landId, lowerBound()) >= 0 &&
+			(upperBound == null || compareAsUnsigned(landId, upperBound) < 0);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%d/%d", index, count);
+	}
+
+	/**
+	 * {@link UUID#compareTo(UUID)} compares bits as signed numbers, which is different from PostgreSQL.
+	 */
+	private static int compareAsUnsigned(UUID left, UUID right)
+	{
+		var result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+
+		return result != 0 ? result :
+			Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+	}
+
+	private UUID boundOf(int indexOfBound)
+	{
+		var mostSignificantBits = SIZE_OF_MOST_SIGNIFICANT_BITS
+			.multiply(BigInteger.valueOf(indexOfBound))
+			.divide(BigInteger.valueOf(count))
+			.longValue();
+
+		return new UUID(mostSignificantBits, 0);
+	}
+}
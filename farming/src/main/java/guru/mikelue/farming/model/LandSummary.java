@@ -0,0 +1,76 @@
+package guru.mikelue.farming.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import guru.mikelue.farming.model.Block.Status;
+
+/**
+ * The numbers of blocks of a land by status and by crop.
+ *
+ * @param landId The id of land
+ * @param numberOfBlocks The total number of blocks
+ * @param blocksOfStatus The number of blocks for every status
+ * @param blocksOfCrop The number of blocks for every crop, the blocks without crop are not counted
+ * @param reconcileTime The last time the numbers are reconciled with database
+ */
+@DefaultJsonConfig
+@JsonPropertyOrder({ "land_id", "number_of_blocks", "blocks_of_status", "blocks_of_crop", "reconcile_time" })
+public record LandSummary(
+	@JsonProperty("land_id")
+	UUID landId,
+	@JsonProperty("number_of_blocks")
+	int numberOfBlocks,
+	@JsonProperty("blocks_of_status")
+	List<NumberOfStatus> blocksOfStatus,
+	@JsonProperty("blocks_of_crop")
+	List<NumberOfCrop> blocksOfCrop,
+	@JsonProperty("reconcile_time")
+	Instant reconcileTime
+) {
+	/**
+	 * Gets the number of blocks in the status.
+	 */
+	public int getNumberOfBlocks(Status status)
+	{
+		return blocksOfStatus.stream()
+			.filter(number -> number.status() == status)
+			.mapToInt(NumberOfStatus::numberOfBlocks)
+			.findFirst()
+			.orElse(0);
+	}
+
+	/**
+	 * Gets the number of blocks having the crop.
+	 */
+	public int getNumberOfBlocks(Crop crop)
+	{
+		return blocksOfCrop.stream()
+			.filter(number -> number.crop() == crop)
+			.mapToInt(NumberOfCrop::numberOfBlocks)
+			.findFirst()
+			.orElse(0);
+	}
+
+	@DefaultJsonConfig
+	@JsonPropertyOrder({ "status", "number_of_blocks" })
+	public record NumberOfStatus(
+		@JsonProperty("status")
+		Status status,
+		@JsonProperty("number_of_blocks")
+		int numberOfBlocks
+	) {}
+
+	@DefaultJsonConfig
+	@JsonPropertyOrder({ "crop", "number_of_blocks" })
+	public record NumberOfCrop(
+		@JsonProperty("crop")
+		Crop crop,
+		@JsonProperty("number_of_blocks")
+		int numberOfBlocks
+	) {}
+}
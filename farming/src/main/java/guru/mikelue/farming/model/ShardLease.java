@@ -0,0 +1,136 @@
+package guru.mikelue.farming.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The lease of a shard of lands for a task, which is owned by one instance at a time.
+ */
+@Entity
+@Table(name="vc_shard_lease")
+@IdClass(ShardLease.LeaseId.class)
+public class ShardLease {
+	public static class LeaseId implements Serializable {
+		private String task;
+		private Short shard;
+
+		public LeaseId() {}
+		public LeaseId(String newTask, Short newShard)
+		{
+			task = newTask;
+			shard = newShard;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == null) { return false; }
+			if (obj == this) { return true; }
+
+			if (!getClass().isInstance(obj)) {
+				return false;
+			}
+
+			var another = (LeaseId)obj;
+			return new EqualsBuilder()
+				.append(this.task, another.task)
+				.append(this.shard, another.shard)
+				.isEquals();
+		}
+		@Override
+		public int hashCode()
+		{
+			return new HashCodeBuilder(12503, 8681)
+				.append(this.task)
+				.append(this.shard)
+				.toHashCode();
+		}
+	}
+
+	public ShardLease() {}
+
+	@Id
+	@Column(name="sl_task", updatable=false)
+	private String task;
+
+	@Id
+	@Column(name="sl_shard", updatable=false)
+	private Short shard;
+
+	@Column(name="sl_owner", nullable=false)
+	private String owner;
+
+	@Column(name="sl_expire_time", nullable=false)
+	private Instant expireTime;
+
+	@Column(name="sl_next_run_time", nullable=false)
+	private Instant nextRunTime;
+
+	/**
+	 * Gets name of task.<p>
+	 *
+	 * @return name of task
+	 */
+	public String getTask()
+	{
+		return task;
+	}
+
+	/**
+	 * Gets index of shard.<p>
+	 *
+	 * @return index of shard
+	 */
+	public Short getShard()
+	{
+		return shard;
+	}
+
+	/**
+	 * Gets owner(instance) of lease.<p>
+	 *
+	 * @return owner of lease
+	 */
+	public String getOwner()
+	{
+		return owner;
+	}
+
+	/**
+	 * Gets the time the lease is expired.<p>
+	 *
+	 * @return expire time of lease
+	 */
+	public Instant getExpireTime()
+	{
+		return expireTime;
+	}
+
+	/**
+	 * Gets the earliest time the shard could be leased again.<p>
+	 *
+	 * @return next run time of shard
+	 */
+	public Instant getNextRunTime()
+	{
+		return nextRunTime;
+	}
+
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, ToStringStyle.NO_CLASS_NAME_STYLE)
+			.append("task", task)
+			.append("shard", shard)
+			.append("owner", owner)
+			.append("expire-time", expireTime)
+			.append("next-run-time", nextRunTime)
+			.toString();
+	}
+}
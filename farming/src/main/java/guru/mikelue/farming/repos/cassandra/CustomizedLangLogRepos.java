@@ -1,19 +1,68 @@
 package guru.mikelue.farming.repos.cassandra;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 
 import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandLogCursor;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface CustomizedLangLogRepos {
+	/**
+	 * Finds logs of a land by range of time, the partitions(days) in the range are visited one by one
+	 * (ordered by the direction of {@code pk.time} in the pageable, descending by default),
+	 * so the logs are in time order over partitions.<p>
+	 *
+	 * The partitions after the requested page are not visited.
+	 *
+	 * @param startTime The start time(inclusive), {@code null} for the first day having logs
+	 * @param endTime The end time(inclusive), {@code null} for the last day having logs
+	 */
 	Mono<Slice<LandLog>> findByTimeRangeOfLand(
 		UUID landId,
 		Instant startTime, Instant endTime,
 		Pageable pageable
 	);
+
+	/**
+	 * Finds logs of a land by range of time, which are after the cursor(in the direction of {@code pk.time} in the pageable).<p>
+	 *
+	 * Only the logs of this page are read(the number of page is ignored), so the cost doesn't depend on how deep the cursor is.
+	 *
+	 * @param cursor The last log seen by client
+	 *
+	 * @see #findByTimeRangeOfLand
+	 */
+	Mono<Slice<LandLog>> findByTimeRangeOfLandAfter(
+		UUID landId,
+		Instant startTime, Instant endTime,
+		LandLogCursor cursor,
+		Pageable pageable
+	);
+
+	/**
+	 * Inserts logs by one unlogged batch for every partition(land and day),
+	 * the day of partition is registered before its batch.<p>
+	 *
+	 * This method should be used for writing logs, otherwise the logs are not visited by {@link #findByTimeRangeOfLand}.
+	 *
+	 * @param landLogs The logs of lands
+	 *
+	 * @return The number of inserted logs, emitted after every batch is acknowledged
+	 */
+	Mono<Long> insertInBatchesOfLand(List<LandLog> landLogs);
+
+	/**
+	 * Scans the logs of the table partitioned by land only(<em>vc_land_log_by_time</em>),
+	 * which is used to copy the logs to the table partitioned by day.
+	 *
+	 * @param fetchSize The number of rows fetched from Cassandra every time
+	 */
+	Flux<LandLog> scanLogsOfLegacyTable(int fetchSize);
 }
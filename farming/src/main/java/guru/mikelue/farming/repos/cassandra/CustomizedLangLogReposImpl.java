@@ -1,6 +1,8 @@
 package guru.mikelue.farming.repos.cassandra;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +11,23 @@ import org.springframework.data.cassandra.core.query.Query;
 import org.springframework.data.cassandra.core.query.Criteria;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 
 import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandLogBucket;
+import guru.mikelue.farming.model.LandLogCursor;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CustomizedLangLogReposImpl implements CustomizedLangLogRepos {
+	private final static String LEGACY_TABLE = "vc_land_log_by_time";
+
 	@Autowired
 	private ReactiveCassandraTemplate cassandraTemplate;
 
@@ -24,12 +37,178 @@ public class CustomizedLangLogReposImpl implements CustomizedLangLogRepos {
     public Mono<Slice<LandLog>> findByTimeRangeOfLand(
 		UUID landId, Instant startTime, Instant endTime,
 		Pageable pageable
+	) {
+		var direction = directionOf(pageable);
+		var pageSize = pageable.getPageSize();
+		/**
+		 * Every partition is queried with the limit of rows needed by this page(and the probing of next one),
+		 * the partitions are concatenated, so the later ones are queried only if the page is not filled.
+		 */
+		var limitOfRows = pageable.getOffset() + pageSize + 1;
+
+		return findDaysOfLand(
+			landId,
+			startTime != null ? LandLog.dayOf(startTime) : null,
+			endTime != null ? LandLog.dayOf(endTime) : null,
+			direction
+		)
+			.concatMap(
+				day -> findLogsOfDay(landId, day, startTime, endTime, direction, limitOfRows),
+				1
+			)
+			.skip(pageable.getOffset())
+			.as(logs -> toSlice(logs, pageable));
+		// :~)
+    }
+
+	@Override
+	public Mono<Slice<LandLog>> findByTimeRangeOfLandAfter(
+		UUID landId, Instant startTime, Instant endTime,
+		LandLogCursor cursor,
+		Pageable pageable
+	) {
+		var direction = directionOf(pageable);
+		var limitOfRows = pageable.getPageSize() + 1;
+		var dayOfCursor = cursor.day();
+
+		/**
+		 * The logs after the cursor in its own partition:
+		 *
+		 * 1. The logs of the same time, ordered by id of block(ascending for descending time)
+		 * 2. The logs of later time(in the direction)
+		 */
+		var sameTimeAsCursor = Query.query(
+			Criteria.where("pk.landId").is(landId),
+			Criteria.where("pk.day").is(dayOfCursor),
+			Criteria.where("pk.time").is(cursor.time()),
+			direction.isDescending() ?
+				Criteria.where("pk.blockId").gt(cursor.blockId()) :
+				Criteria.where("pk.blockId").lt(cursor.blockId())
+		);
+		var laterTimeThanCursor = Query.query(
+			Criteria.where("pk.landId").is(landId),
+			Criteria.where("pk.day").is(dayOfCursor),
+			direction.isDescending() ?
+				Criteria.where("pk.time").lt(cursor.time()) :
+				Criteria.where("pk.time").gt(cursor.time())
+		);
+		if (direction.isDescending() && startTime != null) {
+			laterTimeThanCursor = laterTimeThanCursor.and(Criteria.where("pk.time").gte(startTime));
+		}
+		if (direction.isAscending() && endTime != null) {
+			laterTimeThanCursor = laterTimeThanCursor.and(Criteria.where("pk.time").lte(endTime));
+		}
+
+		var logsOfCursorDay = Flux.just(sameTimeAsCursor, laterTimeThanCursor)
+			.concatMap(
+				query -> cassandraTemplate.select(
+					query
+						.sort(Sort.by(direction, "pk.time"))
+						.limit(limitOfRows),
+					LandLog.class
+				),
+				1
+			);
+		// :~)
+
+		/**
+		 * The later partitions(in the direction)
+		 */
+		var laterDays = direction.isDescending() ?
+			findDaysOfLand(
+				landId,
+				startTime != null ? LandLog.dayOf(startTime) : null,
+				dayOfCursor.minusDays(1),
+				direction
+			) :
+			findDaysOfLand(
+				landId,
+				dayOfCursor.plusDays(1),
+				endTime != null ? LandLog.dayOf(endTime) : null,
+				direction
+			);
+		// :~)
+
+		return logsOfCursorDay
+			.concatWith(laterDays.concatMap(
+				day -> findLogsOfDay(landId, day, startTime, endTime, direction, limitOfRows),
+				1
+			))
+			.as(logs -> toSlice(logs, pageable));
+	}
+
+	@Override
+	public Mono<Long> insertInBatchesOfLand(List<LandLog> landLogs)
+	{
+		return Flux.fromIterable(landLogs)
+			.groupBy(log -> LandLogBucket.of(log.getLandId(), log.getDay()))
+			.flatMap(logsOfPartition -> logsOfPartition
+				.collectList()
+				.flatMap(logs -> cassandraTemplate.insert(logsOfPartition.key())
+					.then(cassandraTemplate.batchOps(BatchType.UNLOGGED)
+						.insert(logs)
+						.execute()
+					)
+					.thenReturn(logs.size())
+				)
+			)
+			.reduce(0L, Long::sum);
+	}
+
+	@Override
+	public Flux<LandLog> scanLogsOfLegacyTable(int fetchSize)
+	{
+		return cassandraTemplate.select(
+			SimpleStatement.newInstance("SELECT * FROM " + LEGACY_TABLE)
+				.setPageSize(fetchSize),
+			LandLog.class
+		)
+			// The legacy table has no column of day, which is decided by time
+			.doOnNext(log -> log.setTime(log.getTime()));
+	}
+
+	private Flux<LocalDate> findDaysOfLand(
+		UUID landId, LocalDate startDay, LocalDate endDay,
+		Direction direction
 	) {
 		var query = Query.query(
-			Criteria.where("pk.landId")
+			Criteria.where("landId")
 				.is(landId)
 		);
 
+		if (startDay != null) {
+			query = query.and(
+				Criteria.where("day")
+					.gte(startDay)
+			);
+		}
+
+		if (endDay != null) {
+			query = query.and(
+				Criteria.where("day")
+					.lte(endDay)
+			);
+		}
+
+		return cassandraTemplate.select(
+			query.sort(Sort.by(direction, "day")),
+			LandLogBucket.class
+		)
+			.map(LandLogBucket::getDay);
+	}
+
+	private Flux<LandLog> findLogsOfDay(
+		UUID landId, LocalDate day,
+		Instant startTime, Instant endTime,
+		Direction direction, long limitOfRows
+	) {
+		var query = Query.query(
+			Criteria.where("pk.landId")
+				.is(landId),
+			Criteria.where("pk.day")
+				.is(day)
+		);
+
 		if (startTime != null) {
 			query = query.and(
 				Criteria.where("pk.time")
@@ -44,9 +223,37 @@ public class CustomizedLangLogReposImpl implements CustomizedLangLogRepos {
 			);
 		}
 
-        return cassandraTemplate.slice(
-			query.pageRequest(pageable),
+		return cassandraTemplate.select(
+			query
+				.sort(Sort.by(direction, "pk.time"))
+				.limit(limitOfRows),
 			LandLog.class
 		);
-    }
+	}
+
+	/**
+	 * Takes one more log than the size of page to decide whether or not there is next page.
+	 */
+	private static Mono<Slice<LandLog>> toSlice(Flux<LandLog> logs, Pageable pageable)
+	{
+		var pageSize = pageable.getPageSize();
+
+		return logs
+			.take(pageSize + 1)
+			.collectList()
+			.map(logsOfPage -> {
+				var hasNext = logsOfPage.size() > pageSize;
+
+				return new SliceImpl<>(
+					hasNext ? logsOfPage.subList(0, pageSize) : logsOfPage,
+					pageable, hasNext
+				);
+			});
+	}
+
+	private static Direction directionOf(Pageable pageable)
+	{
+		var order = pageable.getSort().getOrderFor("pk.time");
+		return order != null ? order.getDirection() : Direction.DESC;
+	}
 }
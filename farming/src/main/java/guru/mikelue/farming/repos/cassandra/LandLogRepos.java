@@ -1,5 +1,6 @@
 package guru.mikelue.farming.repos.cassandra;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
@@ -14,8 +15,12 @@ import reactor.core.publisher.Mono;
 
 @Repository
 public interface LandLogRepos extends ReactiveCrudRepository<LandLog, LandLog.PK>, CustomizedLangLogRepos {
-	Mono<Slice<LandLog>> findByPk_LandId(
+	/**
+	 * Finds logs of a land in one partition(day).
+	 */
+	Mono<Slice<LandLog>> findByPk_LandIdAndPk_Day(
 		@Param("land_id") UUID landId,
+		@Param("day") LocalDate day,
 		Pageable pageable
 	);
 }
@@ -0,0 +1,269 @@
+package guru.mikelue.farming.repos.cassandra;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.cassandra.core.ReactiveCassandraTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+
+import guru.mikelue.farming.model.ActivityStats;
+import guru.mikelue.farming.model.ActivityStats.Granularity;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LogActivity;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps rollups of logs of lands by hour and by day(UTC), for every activity and crop.<p>
+ *
+ * The number of logs, sum of harvesting amount, and sum of used time are kept by counters(<em>vc_land_rollup</em>).
+ * The maximum of used time is kept by <em>vc_land_rollup_max</em>, which is written with the used time as timestamp of writing,
+ * so the greater value wins without reading.<p>
+ *
+ * A partition holds the rollups of a land in one day, the rollup of whole day uses {@value #HOUR_OF_DAY} as hour.
+ */
+@Repository
+public class LandRollupRepos {
+	/**
+	 * The hour used by rollup of whole day
+	 */
+	final static byte HOUR_OF_DAY = -1;
+	/**
+	 * The crop used by blocks without crop
+	 */
+	private final static byte NO_CROP = -1;
+
+	private final static String CQL_INCREASE = """
+		UPDATE vc_land_rollup
+		SET lr_count = lr_count + ?,
+			lr_harvest_amount = lr_harvest_amount + ?,
+			lr_used_time_second = lr_used_time_second + ?
+		WHERE lr_ld_id = ? AND lr_day = ?
+			AND lr_hour = ? AND lr_activity = ? AND lr_crop = ?
+		""";
+	private final static String CQL_MAX = """
+		UPDATE vc_land_rollup_max
+		USING TIMESTAMP ?
+		SET lr_max_used_time_second = ?
+		WHERE lr_ld_id = ? AND lr_day = ?
+			AND lr_hour = ? AND lr_activity = ? AND lr_crop = ?
+		""";
+	private final static String CQL_SELECT_COUNTERS = """
+		SELECT lr_hour, lr_activity, lr_crop,
+			lr_count, lr_harvest_amount, lr_used_time_second
+		FROM vc_land_rollup
+		WHERE lr_ld_id = ? AND lr_day = ? AND %s
+		""";
+	private final static String CQL_SELECT_MAX = """
+		SELECT lr_hour, lr_activity, lr_crop, lr_max_used_time_second
+		FROM vc_land_rollup_max
+		WHERE lr_ld_id = ? AND lr_day = ? AND %s
+		""";
+
+	@Autowired
+	private ReactiveCassandraTemplate cassandraTemplate;
+
+	public LandRollupRepos() {}
+
+	/**
+	 * Adds logs to rollups, the logs are aggregated in memory first,
+	 * then the rollups of a partition(land and day) are written by one batch of counters and one unlogged batch(maximum).<p>
+	 *
+	 * The counters are not idempotent, the same logs must not be added twice.
+	 *
+	 * @return The number of written rollups
+	 */
+	public Mono<Integer> addLogs(List<LandLog> landLogs)
+	{
+		var rollupsOfPartitions = aggregate(landLogs).entrySet().stream()
+			.collect(Collectors.groupingBy(
+				entry -> new Partition(entry.getKey().landId(), entry.getKey().day()),
+				LinkedHashMap::new,
+				Collectors.toList()
+			));
+
+		var cqlOperations = cassandraTemplate.getReactiveCqlOperations();
+
+		return Flux.fromIterable(rollupsOfPartitions.values())
+			.flatMap(rollups -> {
+				var counters = BatchStatement.builder(BatchType.COUNTER);
+				var maximums = BatchStatement.builder(BatchType.UNLOGGED);
+
+				for (var entry: rollups) {
+					var key = entry.getKey();
+					var rollup = entry.getValue();
+
+					counters.addStatement(SimpleStatement.newInstance(
+						CQL_INCREASE,
+						rollup.count, rollup.harvestAmount, rollup.usedTimeSecond,
+						key.landId(), key.day(), key.hour(), key.activity(), key.crop()
+					));
+					maximums.addStatement(SimpleStatement.newInstance(
+						CQL_MAX,
+						(long)rollup.maxUsedTimeSecond, rollup.maxUsedTimeSecond,
+						key.landId(), key.day(), key.hour(), key.activity(), key.crop()
+					));
+				}
+
+				return cqlOperations.execute(counters.build())
+					.then(cqlOperations.execute(maximums.build()))
+					.thenReturn(rollups.size());
+			})
+			.reduce(0, Integer::sum);
+	}
+
+	/**
+	 * Finds rollups of a land between days(inclusive), ordered by time.
+	 *
+	 * @param granularity By hour or by day
+	 */
+	public Flux<ActivityStats> findStatsOfLand(
+		UUID landId, LocalDate startDay, LocalDate endDay,
+		Granularity granularity
+	) {
+		var conditionOfHour = granularity == Granularity.Day ?
+			"lr_hour = " + HOUR_OF_DAY : "lr_hour >= 0";
+
+		var cqlOperations = cassandraTemplate.getReactiveCqlOperations();
+
+		return Flux.fromStream(startDay.datesUntil(endDay.plusDays(1)))
+			.flatMapSequential(day -> {
+				var maximums = cqlOperations.query(
+					SimpleStatement.newInstance(
+						String.format(CQL_SELECT_MAX, conditionOfHour), landId, day
+					),
+					(row, rowNum) -> Map.entry(
+						RollupKey.from(landId, day, row), row.getShort("lr_max_used_time_second")
+					)
+				)
+					.collectMap(Map.Entry::getKey, Map.Entry::getValue);
+
+				return maximums.flatMapMany(maxOfKeys -> cqlOperations.query(
+					SimpleStatement.newInstance(
+						String.format(CQL_SELECT_COUNTERS, conditionOfHour), landId, day
+					),
+					(row, rowNum) -> {
+						var key = RollupKey.from(landId, day, row);
+						var max = maxOfKeys.get(key);
+
+						return new ActivityStats(
+							key.startTime(),
+							LogActivity.ENUM_MATE.getEnum((int)key.activity()),
+							Crop.ENUM_MATE.getEnum((int)key.crop()),
+							row.getLong("lr_count"),
+							row.getLong("lr_harvest_amount"),
+							row.getLong("lr_used_time_second"),
+							max != null ? max : 0
+						);
+					}
+				));
+			}, 4);
+	}
+
+	/**
+	 * Aggregates logs by hour and by day, for every land, activity and crop.
+	 */
+	static Map<RollupKey, Rollup> aggregate(List<LandLog> landLogs)
+	{
+		var rollups = new HashMap<RollupKey, Rollup>();
+
+		for (var log: landLogs) {
+			var payload = log.getPayload();
+			var crop = payload.getCrop();
+			var harvestAmount = payload.getHarvestAmount();
+
+			var hourKey = new RollupKey(
+				log.getLandId(), log.getDay(),
+				(byte)log.getTime().atOffset(ZoneOffset.UTC).getHour(),
+				log.getActivity().value().byteValue(),
+				crop != null ? crop.value().byteValue() : NO_CROP
+			);
+
+			for (var key: List.of(hourKey, hourKey.ofDay())) {
+				rollups.computeIfAbsent(key, k -> new Rollup())
+					.add(
+						harvestAmount != null && harvestAmount > 0 ? harvestAmount : 0,
+						log.getUsedTimeSecond()
+					);
+			}
+		}
+
+		return rollups;
+	}
+
+	record Partition(UUID landId, LocalDate day) {}
+
+	record RollupKey(UUID landId, LocalDate day, byte hour, byte activity, byte crop) {
+		private static RollupKey from(UUID landId, LocalDate day, Row row)
+		{
+			return new RollupKey(
+				landId, day,
+				row.getByte("lr_hour"), row.getByte("lr_activity"), row.getByte("lr_crop")
+			);
+		}
+
+		private RollupKey ofDay()
+		{
+			return new RollupKey(landId, day, HOUR_OF_DAY, activity, crop);
+		}
+
+		private Instant startTime()
+		{
+			var startOfDay = day.atStartOfDay(ZoneOffset.UTC);
+			return (hour == HOUR_OF_DAY ? startOfDay : startOfDay.plusHours(hour))
+				.toInstant();
+		}
+	}
+
+	static class Rollup {
+		private long count = 0;
+		private long harvestAmount = 0;
+		private long usedTimeSecond = 0;
+		private short maxUsedTimeSecond = 0;
+
+		private void add(int newHarvestAmount, Short newUsedTimeSecond)
+		{
+			var usedTime = newUsedTimeSecond != null ? newUsedTimeSecond : 0;
+
+			count++;
+			harvestAmount += newHarvestAmount;
+			usedTimeSecond += usedTime;
+			maxUsedTimeSecond = (short)Math.max(maxUsedTimeSecond, usedTime);
+		}
+
+		long getCount()
+		{
+			return count;
+		}
+
+		long getHarvestAmount()
+		{
+			return harvestAmount;
+		}
+
+		long getUsedTimeSecond()
+		{
+			return usedTimeSecond;
+		}
+
+		short getMaxUsedTimeSecond()
+		{
+			return maxUsedTimeSecond;
+		}
+	}
+}
@@ -36,7 +36,8 @@ public interface BlockRepos extends JpaRepository<Block, Block.BlockId>, Customi
 	List<Block> findByLandIdOrderById(UUID landId);
 
 	/**
-	 * Updates the block to new status with checking of previous one.
+	 * Updates the block to new status with checking of previous one(status and version),
+	 * the version is increased.
 	 *
 	 * @return Gives 0 if the update is not effective
 	 */
@@ -48,10 +49,12 @@ public interface BlockRepos extends JpaRepository<Block, Block.BlockId>, Customi
 		SET b.status = :new_status,
 			b.updateTime = :#{#source_block.updateTime},
 			b.crop = :#{#source_block.crop},
-			b.comment = :#{#source_block.comment}
+			b.comment = :#{#source_block.comment},
+			b.version = b.version + 1
 		WHERE b.landId = :#{#source_block.landId}
 			AND b.id = :#{#source_block.id}
 			AND b.status = :#{#source_block.status}
+			AND b.version = :#{#source_block.version}
 		"""
 	)
 	int updateStatusByCheckPreviousOne(
@@ -59,57 +62,6 @@ public interface BlockRepos extends JpaRepository<Block, Block.BlockId>, Customi
 		@Param("new_status") Status status
 	);
 
-	/**
-	 * Updates the block to "occupied" with crop and maturing information.
-	 *
-	 * @return Gives 0 if the update is not effective
-	 */
-	@Transactional
-	@Modifying
-	@Query(
-		"""
-		UPDATE Block b
-		SET b.status = 'Occupied',
-			b.crop = :#{#block.crop},
-			b.sowTime = :#{#block.sowTime},
-			b.matureTime = :#{#block.matureTime},
-			b.harvestAmount = :#{#block.harvestAmount},
-			b.updateTime = :#{#block.updateTime},
-			b.comment = :#{#block.comment}
-		WHERE b.landId = :#{#block.landId}
-			AND b.id = :#{#block.id}
-			AND b.status = 'ScheduledSow'
-		"""
-	)
-	int updateToBeSowed(
-		@Param("block") Block block
-	);
-
-	/**
-	 * Updates the block to "available" for cleaning action.
-	 *
-	 * @return Gives 0 if the update is not effective
-	 */
-	@Transactional
-	@Modifying
-	@Query(
-		"""
-		UPDATE Block b
-		SET b.status = 'Available',
-			b.crop = null,
-			b.sowTime = null,
-			b.matureTime = null,
-			b.harvestAmount = null,
-			b.updateTime = :#{#block.updateTime},
-			b.comment = :#{#block.comment}
-		WHERE b.landId = :#{#block.landId}
-			AND b.id = :#{#block.id}
-		"""
-	)
-	int updateForCleaning(
-		@Param("block") Block block
-	);
-
 	/**
 	 * Finds blocks which are ready to be harvested.
 	 *
@@ -0,0 +1,81 @@
+package guru.mikelue.farming.repos.jpa;
+
+import guru.mikelue.farming.model.LandShard;
+
+/**
+ * The native statements of blocks shared by JPA({@link CustomizedBlockReposImpl}) and R2DBC,
+ * so the implementations cannot drift from each other.<p>
+ *
+ * The placeholders("%s") are filled by {@link String#format}, the named parameters(":name") are bound by the implementations.
+ */
+public final class BlockStatements {
+	private BlockStatements() {}
+
+	/**
+	 * Claims blocks(ordered by id) of a land in a status, the locked blocks are skipped.<p>
+	 *
+	 * Placeholder: the returned columns of block(aliased by "b").<br>
+	 * Parameters: new_status, crop(nullable), comment(nullable), update_time, land_id, status, limit
+	 */
+	public final static String CLAIM_BLOCKS_OF_LAND =
+		"""
+		UPDATE vc_block AS b
+		SET bl_status = CAST(:new_status AS enum_block_status),
+			bl_crop = COALESCE(CAST(:crop AS enum_crop), b.bl_crop),
+			bl_comment = :comment,
+			bl_update_time = :update_time,
+			bl_version = b.bl_version + 1
+		FROM (
+			SELECT bl_ld_id, bl_id
+			FROM vc_block
+			WHERE bl_ld_id = :land_id
+				AND bl_status = CAST(:status AS enum_block_status)
+			ORDER BY bl_id ASC
+			LIMIT :limit
+			FOR UPDATE SKIP LOCKED
+		) AS claimed
+		WHERE b.bl_ld_id = claimed.bl_ld_id
+			AND b.bl_id = claimed.bl_id
+		RETURNING %s
+		""";
+
+	/**
+	 * Finds a page of matured(occupied) blocks by keyset of (mature time, land id, id).<p>
+	 *
+	 * Placeholders: the columns of block, {@link #landRangeCondition}, {@link #SEEK_MATURED_BLOCKS}(empty for the first page).<br>
+	 * Parameters: checked_time, fetch_size
+	 */
+	public final static String FIND_MATURED_BLOCKS_AFTER =
+		"""
+		SELECT %s
+		FROM vc_block
+		WHERE bl_status = 'Occupied'
+			AND bl_mature_time <= :checked_time
+			%s
+			%s
+		ORDER BY bl_mature_time ASC, bl_ld_id ASC, bl_id ASC
+		LIMIT :fetch_size
+		""";
+
+	/**
+	 * Parameters: last_time, last_land_id, last_id
+	 */
+	public final static String SEEK_MATURED_BLOCKS =
+		"AND (bl_mature_time, bl_ld_id, bl_id) > (:last_time, :last_land_id, :last_id)";
+
+	/**
+	 * Builds the condition of land range for the shard, nothing for the whole lands.<p>
+	 *
+	 * Parameters: lower_land_id, upper_land_id(only if the shard has upper bound)
+	 */
+	public static String landRangeCondition(LandShard shard)
+	{
+		if (shard.count() == 1) {
+			return "";
+		}
+
+		return shard.upperBound() != null ?
+			"AND bl_ld_id >= :lower_land_id AND bl_ld_id < :upper_land_id" :
+			"AND bl_ld_id >= :lower_land_id";
+	}
+}
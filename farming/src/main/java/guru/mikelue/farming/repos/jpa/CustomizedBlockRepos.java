@@ -1,9 +1,21 @@
 package guru.mikelue.farming.repos.jpa;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.transaction.annotation.Transactional;
+
+import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.BlockCount;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.BlockTransition;
+import guru.mikelue.farming.model.LandShard;
+
+import reactor.core.publisher.Flux;
 
 public interface CustomizedBlockRepos {
 	List<Block> findAvailableByLandId(
@@ -13,4 +25,164 @@ public interface CustomizedBlockRepos {
 	List<Block> findOccupiedByLandId(
 		UUID landId, int askedBlocks
 	);
+
+	/**
+	 * Claims blocks of a land from current status to new one by a single statement.<p>
+	 *
+	 * The blocks locked by other transactions are skipped, so concurrent claiming
+	 * on the same land would get different blocks.
+	 *
+	 * The crop of blocks is kept if the crop of action is {@code null}, the version of claimed blocks is increased.
+	 *
+	 * @param action The land, the number of asked blocks, crop, and comment
+	 * @param currentStatus The status of blocks to be claimed
+	 * @param newStatus The status of claimed blocks
+	 * @param updateTime The update time of claimed blocks
+	 *
+	 * @return The blocks claimed by this call(in new status)
+	 */
+	@Transactional
+	List<Block> claimBlocksOfLand(
+		AskBlockAction action,
+		Status currentStatus, Status newStatus,
+		Instant updateTime
+	);
+
+	/**
+	 * Claims matured blocks to be scheduled for harvesting by a single statement.<p>
+	 *
+	 * The blocks locked by other transactions are skipped.
+	 *
+	 * @param checkedTime The blocks are matured before this time
+	 * @param shard The range of lands
+	 * @param maxBlocks The maximum number of claimed blocks
+	 *
+	 * @return The blocks claimed by this call(in status of {@link Status#ScheduledHarvest})
+	 */
+	@Transactional
+	List<Block> claimMaturedBlocks(
+		Instant checkedTime, LandShard shard, int maxBlocks
+	);
+
+	/**
+	 * Claims the given blocks to be scheduled for harvesting if they are matured(by a single statement).<p>
+	 *
+	 * The blocks which are not occupied any more(e.g. claimed by other instances) or locked
+	 * by other transactions are skipped.
+	 *
+	 * @param checkedTime The blocks are matured before this time
+	 * @param blockIds The ids of blocks
+	 *
+	 * @return The blocks claimed by this call(in status of {@link Status#ScheduledHarvest})
+	 */
+	@Transactional
+	List<Block> claimMaturedBlocksById(
+		Instant checkedTime, List<BlockId> blockIds
+	);
+
+	/**
+	 * Applies completions of activities to blocks in a single transaction,
+	 * one statement(of {@code UPDATE ... RETURNING}) for every kind of completions.<p>
+	 *
+	 * A sowed block is updated only if it is still in status of {@link Status#ScheduledSow},
+	 * a cleaned block is updated only if it is still in status of {@link Status#ScheduledHarvest} or {@link Status#ScheduledClean}.
+	 * The version of block must be the same as the one in database(unless the version is {@code null}),
+	 * so a stale completion doesn't overwrite newer transition. The version is increased by every updated block.
+	 *
+	 * The rows are locked in order of (land id, id), so concurrent applying(by other instances) on the same land
+	 * waits for each other instead of being deadlocked.
+	 *
+	 * @param sowedBlocks The blocks to be occupied, with crop and maturing information
+	 * @param cleanedBlocks The blocks to be available(harvested or cleaned)
+	 *
+	 * @return The blocks(before and after updating) which are updated effectively
+	 */
+	@Transactional
+	List<BlockTransition> applyCompletions(
+		List<Block> sowedBlocks, List<Block> cleanedBlocks
+	);
+
+	/**
+	 * Finds the next page of matured blocks(occupied) by keyset of
+	 * {@code (bl_mature_time, bl_ld_id, bl_id)}.
+	 *
+	 * @param checkedTime The blocks are matured before this time
+	 * @param shard The range of lands
+	 * @param lastBlock The last block of previous page, {@code null} for the first page
+	 * @param fetchSize The maximum number of blocks in the page
+	 *
+	 * @return The blocks after the last one
+	 */
+	List<Block> findMaturedBlocksAfter(
+		Instant checkedTime, LandShard shard,
+		Block lastBlock, int fetchSize
+	);
+
+	/**
+	 * Finds the next page of blocks stay in scheduled activity by keyset of
+	 * {@code (bl_update_time, bl_ld_id, bl_id)}.
+	 *
+	 * @param checkedTime The blocks are updated before this time
+	 * @param shard The range of lands
+	 * @param lastBlock The last block of previous page, {@code null} for the first page
+	 * @param fetchSize The maximum number of blocks in the page
+	 *
+	 * @return The blocks after the last one
+	 */
+	List<Block> findOldScheduledActivitiesAfter(
+		Instant checkedTime, LandShard shard,
+		Block lastBlock, int fetchSize
+	);
+
+	/**
+	 * Finds the next page of blocks of a land by keyset of {@code bl_id}.
+	 *
+	 * @param landId The id of land
+	 * @param lastBlock The last block of previous page, {@code null} for the first page
+	 * @param fetchSize The maximum number of blocks in the page
+	 *
+	 * @return The blocks after the last one
+	 */
+	List<Block> findBlocksOfLandAfter(
+		UUID landId, Block lastBlock, int fetchSize
+	);
+
+	/**
+	 * Scans matured blocks(occupied) by keyset paging.<p>
+	 *
+	 * The pages are fetched on demand of subscriber, at most one page is held in memory.
+	 *
+	 * @param checkedTime The blocks are matured before this time
+	 * @param shard The range of lands
+	 * @param fetchSize The number of blocks fetched from database every time
+	 *
+	 * @see #findMaturedBlocksAfter(Instant, LandShard, Block, int)
+	 */
+	Flux<Block> scanMaturedBlocks(
+		Instant checkedTime, LandShard shard, int fetchSize
+	);
+
+	/**
+	 * Scans blocks stay in scheduled activity by keyset paging.<p>
+	 *
+	 * The pages are fetched on demand of subscriber, at most one page is held in memory.
+	 *
+	 * @param checkedTime The blocks are updated before this time
+	 * @param shard The range of lands
+	 * @param fetchSize The number of blocks fetched from database every time
+	 *
+	 * @see #findOldScheduledActivitiesAfter(Instant, LandShard, Block, int)
+	 */
+	Flux<Block> scanOldScheduledActivities(
+		Instant checkedTime, LandShard shard, int fetchSize
+	);
+
+	/**
+	 * Counts blocks of lands grouped by status and crop.
+	 *
+	 * @param landIds The ids of lands
+	 *
+	 * @return The numbers of blocks, a land without any block(e.g. deleted) has no count
+	 */
+	List<BlockCount> countBlocksOfLands(Collection<UUID> landIds);
 }
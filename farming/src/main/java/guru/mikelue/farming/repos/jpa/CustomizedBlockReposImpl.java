@@ -1,9 +1,34 @@
 package guru.mikelue.farming.repos.jpa;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.Query;
 
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
+
+import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.BlockCount;
+import guru.mikelue.farming.model.BlockTransition;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LandShard;
+
+import reactor.core.publisher.Flux;
 
 public class CustomizedBlockReposImpl extends AbstractReposImplBase implements CustomizedBlockRepos {
 	public CustomizedBlockReposImpl() {}
@@ -22,6 +47,495 @@ public class CustomizedBlockReposImpl extends AbstractReposImplBase implements C
 		return findByLandIdAndStatus(landId, Block.Status.Occupied, askedBlocks);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Block> claimBlocksOfLand(
+		AskBlockAction action,
+		Status currentStatus, Status newStatus,
+		Instant updateTime
+	) {
+		var crop = action.getCrop() != null ?
+			action.getCrop().name() : null;
+
+		var claimedBlocks = getEntityManager()
+			.createNativeQuery(
+				String.format(BlockStatements.CLAIM_BLOCKS_OF_LAND, "b.*"),
+				Block.class
+			)
+			.unwrap(NativeQuery.class)
+			.setParameter("new_status", newStatus.name())
+			.setParameter("crop", crop, StringType.INSTANCE)
+			.setParameter("comment", action.getComment(), StringType.INSTANCE)
+			.setParameter("update_time", updateTime)
+			.setParameter("land_id", action.getLandId())
+			.setParameter("status", currentStatus.name())
+			.setParameter("limit", action.getAskedBlocks().intValue())
+			.getResultList();
+
+		getLogger().debug("Claimed [{}/{}] blocks of land[{}]: {} -> {}",
+			claimedBlocks.size(), action.getAskedBlocks(), action.getLandId(),
+			currentStatus, newStatus
+		);
+
+		return claimedBlocks;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Block> claimMaturedBlocks(
+		Instant checkedTime, LandShard shard, int maxBlocks
+	) {
+		var query = getEntityManager()
+			.createNativeQuery(
+				String.format(
+					"""
+					UPDATE vc_block AS b
+					SET bl_status = 'ScheduledHarvest',
+						bl_update_time = :update_time,
+						bl_version = b.bl_version + 1
+					FROM (
+						SELECT bl_ld_id, bl_id
+						FROM vc_block
+						WHERE bl_status = 'Occupied'
+							AND bl_mature_time <= :checked_time
+							%s
+						ORDER BY bl_mature_time ASC
+						LIMIT :limit
+						FOR UPDATE SKIP LOCKED
+					) AS claimed
+					WHERE b.bl_ld_id = claimed.bl_ld_id
+						AND b.bl_id = claimed.bl_id
+					RETURNING b.*
+					""",
+					BlockStatements.landRangeCondition(shard)
+				),
+				Block.class
+			)
+			.setParameter("update_time", checkedTime)
+			.setParameter("checked_time", checkedTime)
+			.setParameter("limit", maxBlocks);
+
+		bindLandRange(query, shard);
+
+		return query.getResultList();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Block> claimMaturedBlocksById(
+		Instant checkedTime, List<BlockId> blockIds
+	) {
+		if (blockIds.isEmpty()) {
+			return List.of();
+		}
+
+		/**
+		 * Builds the list of keys: (:land_id_0, :id_0), (:land_id_1, :id_1), ...
+		 */
+		var keys = IntStream.range(0, blockIds.size())
+			.mapToObj(i -> String.format("(CAST(:land_id_%d AS uuid), CAST(:id_%<d AS smallint))", i))
+			.collect(Collectors.joining(", "));
+		// :~)
+
+		var query = getEntityManager()
+			.createNativeQuery(
+				String.format(
+					"""
+					UPDATE vc_block AS b
+					SET bl_status = 'ScheduledHarvest',
+						bl_update_time = :update_time,
+						bl_version = b.bl_version + 1
+					FROM (
+						SELECT bl_ld_id, bl_id
+						FROM vc_block
+						WHERE (bl_ld_id, bl_id) IN (%s)
+							AND bl_status = 'Occupied'
+							AND bl_mature_time <= :checked_time
+						FOR UPDATE SKIP LOCKED
+					) AS claimed
+					WHERE b.bl_ld_id = claimed.bl_ld_id
+						AND b.bl_id = claimed.bl_id
+					RETURNING b.*
+					""",
+					keys
+				),
+				Block.class
+			)
+			.setParameter("update_time", checkedTime)
+			.setParameter("checked_time", checkedTime);
+
+		for (var i = 0; i < blockIds.size(); i++) {
+			var blockId = blockIds.get(i);
+
+			query
+				.setParameter("land_id_" + i, blockId.getLandId())
+				.setParameter("id_" + i, blockId.getId());
+		}
+
+		return query.getResultList();
+	}
+
+	@Override
+	public List<BlockTransition> applyCompletions(
+		List<Block> sowedBlocks, List<Block> cleanedBlocks
+	) {
+		var transitions = new ArrayList<BlockTransition>(sowedBlocks.size() + cleanedBlocks.size());
+
+		getEntityManager().unwrap(Session.class)
+			.doWork(connection -> {
+				transitions.addAll(applySowedBlocks(connection, sowedBlocks));
+				transitions.addAll(applyCleanedBlocks(connection, cleanedBlocks));
+			});
+
+		getLogger().debug("Applied completions: [{}/{}] blocks",
+			transitions.size(), sowedBlocks.size() + cleanedBlocks.size()
+		);
+
+		return transitions;
+	}
+
+	@Override
+	public List<Block> findMaturedBlocksAfter(
+		Instant checkedTime, LandShard shard,
+		Block lastBlock, int fetchSize
+	) {
+		return findBlocksByKeyset(
+			BlockStatements.FIND_MATURED_BLOCKS_AFTER,
+			BlockStatements.SEEK_MATURED_BLOCKS,
+			checkedTime, shard,
+			lastBlock != null ? lastBlock.getMatureTime() : null,
+			lastBlock, fetchSize
+		);
+	}
+
+	@Override
+	public List<Block> findOldScheduledActivitiesAfter(
+		Instant checkedTime, LandShard shard,
+		Block lastBlock, int fetchSize
+	) {
+		return findBlocksByKeyset(
+			"""
+			SELECT %s
+			FROM vc_block
+			WHERE bl_status IN ('ScheduledSow', 'ScheduledHarvest', 'ScheduledClean')
+				AND bl_update_time <= :checked_time
+				%s
+				%s
+			ORDER BY bl_update_time ASC, bl_ld_id ASC, bl_id ASC
+			LIMIT :fetch_size
+			""",
+			"AND (bl_update_time, bl_ld_id, bl_id) > (:last_time, :last_land_id, :last_id)",
+			checkedTime, shard,
+			lastBlock != null ? lastBlock.getUpdateTime() : null,
+			lastBlock, fetchSize
+		);
+	}
+
+	@Override
+	public List<Block> findBlocksOfLandAfter(
+		UUID landId, Block lastBlock, int fetchSize
+	) {
+		return getEntityManager()
+			.createNamedQuery("Block.findByLandIdAfter", Block.class)
+			.setParameter("land_id", landId)
+			// The ids of blocks start from 0
+			.setParameter("last_id", lastBlock != null ? lastBlock.getId() : (short)-1)
+			.setMaxResults(fetchSize)
+			.getResultList();
+	}
+
+	@Override
+	public Flux<Block> scanMaturedBlocks(
+		Instant checkedTime, LandShard shard, int fetchSize
+	) {
+		return KeysetScanner.scan(
+			(lastBlock, size) -> findMaturedBlocksAfter(checkedTime, shard, lastBlock, size),
+			fetchSize
+		);
+	}
+
+	@Override
+	public Flux<Block> scanOldScheduledActivities(
+		Instant checkedTime, LandShard shard, int fetchSize
+	) {
+		return KeysetScanner.scan(
+			(lastBlock, size) -> findOldScheduledActivitiesAfter(checkedTime, shard, lastBlock, size),
+			fetchSize
+		);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<BlockCount> countBlocksOfLands(Collection<UUID> landIds)
+	{
+		if (landIds.isEmpty()) {
+			return List.of();
+		}
+
+		List<Object[]> rows = getEntityManager()
+			.createNativeQuery(
+				"""
+				SELECT CAST(bl_ld_id AS text), CAST(bl_status AS text), CAST(bl_crop AS text),
+					COUNT(*)
+				FROM vc_block
+				WHERE bl_ld_id IN (:land_ids)
+				GROUP BY bl_ld_id, bl_status, bl_crop
+				"""
+			)
+			.setParameter("land_ids", landIds)
+			.getResultList();
+
+		return rows.stream()
+			.map(row -> new BlockCount(
+				UUID.fromString((String)row[0]),
+				Status.valueOf((String)row[1]),
+				row[2] != null ? Crop.valueOf((String)row[2]) : null,
+				((Number)row[3]).intValue()
+			))
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Finds blocks with optional seeking of keyset(no seeking for the first page).
+	 *
+	 * @param sqlTemplate The SQL with placeholders("%s") of columns, range of lands and seeking condition
+	 * @param seekCondition The condition of keyset used if there is last block
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Block> findBlocksByKeyset(
+		String sqlTemplate, String seekCondition,
+		Instant checkedTime, LandShard shard,
+		Instant lastTime, Block lastBlock, int fetchSize
+	) {
+		var query = getEntityManager()
+			.createNativeQuery(
+				String.format(
+					sqlTemplate, "*",
+					BlockStatements.landRangeCondition(shard),
+					lastBlock != null ? seekCondition : ""
+				),
+				Block.class
+			)
+			.setParameter("checked_time", checkedTime)
+			.setParameter("fetch_size", fetchSize);
+
+		bindLandRange(query, shard);
+
+		if (lastBlock != null) {
+			query
+				.setParameter("last_time", lastTime)
+				.setParameter("last_land_id", lastBlock.getLandId())
+				.setParameter("last_id", lastBlock.getId());
+		}
+
+		return query.getResultList();
+	}
+
+	private static void bindLandRange(Query query, LandShard shard)
+	{
+		if (shard.count() == 1) {
+			return;
+		}
+
+		query.setParameter("lower_land_id", shard.lowerBound());
+		if (shard.upperBound() != null) {
+			query.setParameter("upper_land_id", shard.upperBound());
+		}
+	}
+
+	/**
+	 * Updates sowed blocks(still in status of {@link Status#ScheduledSow} and of the same version) to be occupied by a single statement.
+	 */
+	private static List<BlockTransition> applySowedBlocks(
+		Connection connection, List<Block> sowedBlocks
+	) throws SQLException {
+		if (sowedBlocks.isEmpty()) {
+			return List.of();
+		}
+
+		try (var statement = connection.prepareStatement(
+			String.format(
+				"""
+				WITH completed AS (
+					SELECT *
+					FROM unnest(
+						CAST(? AS uuid[]), CAST(? AS smallint[]),
+						CAST(? AS text[]), CAST(? AS timestamptz[]), CAST(? AS timestamptz[]),
+						CAST(? AS smallint[]), CAST(? AS timestamptz[]), CAST(? AS text[]),
+						CAST(? AS integer[])
+					) AS c(ld_id, id, crop, sow_time, mature_time, harvest_amount, update_time, comment, version)
+				),
+				previous AS (
+					SELECT b.*
+					FROM vc_block AS b
+						INNER JOIN completed AS c
+						ON b.bl_ld_id = c.ld_id AND b.bl_id = c.id
+					WHERE b.bl_status = 'ScheduledSow'
+						AND (c.version IS NULL OR b.bl_version = c.version)
+					ORDER BY b.bl_ld_id, b.bl_id
+					FOR UPDATE OF b
+				)
+				UPDATE vc_block AS b
+				SET bl_status = 'Occupied',
+					bl_crop = CAST(c.crop AS enum_crop),
+					bl_sow_time = c.sow_time,
+					bl_mature_time = c.mature_time,
+					bl_harvest_amount = c.harvest_amount,
+					bl_update_time = c.update_time,
+					bl_comment = c.comment,
+					bl_version = p.bl_version + 1
+				FROM previous AS p
+					INNER JOIN completed AS c
+					ON p.bl_ld_id = c.ld_id AND p.bl_id = c.id
+				WHERE b.bl_ld_id = p.bl_ld_id
+					AND b.bl_id = p.bl_id
+				RETURNING %s
+				""",
+				RETURNING_TRANSITION
+			)
+		)) {
+			statement.setArray(1, connection.createArrayOf("uuid", columnOf(sowedBlocks, Block::getLandId)));
+			statement.setArray(2, connection.createArrayOf("int2", columnOf(sowedBlocks, Block::getId)));
+			statement.setArray(3, connection.createArrayOf("text", columnOf(sowedBlocks, b -> b.getCrop().name())));
+			statement.setArray(4, connection.createArrayOf("text", columnOf(sowedBlocks, b -> toText(b.getSowTime()))));
+			statement.setArray(5, connection.createArrayOf("text", columnOf(sowedBlocks, b -> toText(b.getMatureTime()))));
+			statement.setArray(6, connection.createArrayOf("int2", columnOf(sowedBlocks, Block::getHarvestAmount)));
+			statement.setArray(7, connection.createArrayOf("text", columnOf(sowedBlocks, b -> toText(b.getUpdateTime()))));
+			statement.setArray(8, connection.createArrayOf("text", columnOf(sowedBlocks, Block::getComment)));
+			statement.setArray(9, connection.createArrayOf("int4", columnOf(sowedBlocks, Block::getVersion)));
+
+			return readTransitions(statement);
+		}
+	}
+
+	/**
+	 * Updates cleaned(or harvested) blocks(still in status of {@link Status#ScheduledHarvest} or {@link Status#ScheduledClean},
+	 * and of the same version) to be available by a single statement.
+	 */
+	private static List<BlockTransition> applyCleanedBlocks(
+		Connection connection, List<Block> cleanedBlocks
+	) throws SQLException {
+		if (cleanedBlocks.isEmpty()) {
+			return List.of();
+		}
+
+		try (var statement = connection.prepareStatement(
+			String.format(
+				"""
+				WITH completed AS (
+					SELECT *
+					FROM unnest(
+						CAST(? AS uuid[]), CAST(? AS smallint[]),
+						CAST(? AS timestamptz[]), CAST(? AS text[]),
+						CAST(? AS integer[])
+					) AS c(ld_id, id, update_time, comment, version)
+				),
+				previous AS (
+					SELECT b.*
+					FROM vc_block AS b
+						INNER JOIN completed AS c
+						ON b.bl_ld_id = c.ld_id AND b.bl_id = c.id
+					WHERE b.bl_status IN ('ScheduledHarvest', 'ScheduledClean')
+						AND (c.version IS NULL OR b.bl_version = c.version)
+					ORDER BY b.bl_ld_id, b.bl_id
+					FOR UPDATE OF b
+				)
+				UPDATE vc_block AS b
+				SET bl_status = 'Available',
+					bl_crop = NULL,
+					bl_sow_time = NULL,
+					bl_mature_time = NULL,
+					bl_harvest_amount = NULL,
+					bl_update_time = c.update_time,
+					bl_comment = c.comment,
+					bl_version = p.bl_version + 1
+				FROM previous AS p
+					INNER JOIN completed AS c
+					ON p.bl_ld_id = c.ld_id AND p.bl_id = c.id
+				WHERE b.bl_ld_id = p.bl_ld_id
+					AND b.bl_id = p.bl_id
+				RETURNING %s
+				""",
+				RETURNING_TRANSITION
+			)
+		)) {
+			statement.setArray(1, connection.createArrayOf("uuid", columnOf(cleanedBlocks, Block::getLandId)));
+			statement.setArray(2, connection.createArrayOf("int2", columnOf(cleanedBlocks, Block::getId)));
+			statement.setArray(3, connection.createArrayOf("text", columnOf(cleanedBlocks, b -> toText(b.getUpdateTime()))));
+			statement.setArray(4, connection.createArrayOf("text", columnOf(cleanedBlocks, Block::getComment)));
+			statement.setArray(5, connection.createArrayOf("int4", columnOf(cleanedBlocks, Block::getVersion)));
+
+			return readTransitions(statement);
+		}
+	}
+
+	/**
+	 * The columns of previous row(by "p") and updated row(by "b").
+	 */
+	private final static String RETURNING_TRANSITION = """
+		b.bl_ld_id, b.bl_id,
+		p.bl_crop AS p_crop, p.bl_sow_time AS p_sow_time, p.bl_mature_time AS p_mature_time,
+		p.bl_harvest_amount AS p_harvest_amount, p.bl_status AS p_status,
+		p.bl_comment AS p_comment, p.bl_update_time AS p_update_time, p.bl_version AS p_version,
+		b.bl_crop AS b_crop, b.bl_sow_time AS b_sow_time, b.bl_mature_time AS b_mature_time,
+		b.bl_harvest_amount AS b_harvest_amount, b.bl_status AS b_status,
+		b.bl_comment AS b_comment, b.bl_update_time AS b_update_time, b.bl_version AS b_version
+		""";
+
+	private static List<BlockTransition> readTransitions(PreparedStatement statement) throws SQLException
+	{
+		var transitions = new ArrayList<BlockTransition>();
+
+		try (var resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				transitions.add(new BlockTransition(
+					readBlock(resultSet, "p_"), readBlock(resultSet, "b_")
+				));
+			}
+		}
+
+		return transitions;
+	}
+
+	private static Block readBlock(ResultSet resultSet, String prefix) throws SQLException
+	{
+		var block = new Block();
+		block.setLandId(resultSet.getObject("bl_ld_id", UUID.class));
+		block.setId(resultSet.getShort("bl_id"));
+
+		var crop = resultSet.getString(prefix + "crop");
+		block.setCrop(crop != null ? Crop.valueOf(crop) : null);
+		block.setSowTime(toInstant(resultSet.getObject(prefix + "sow_time", OffsetDateTime.class)));
+		block.setMatureTime(toInstant(resultSet.getObject(prefix + "mature_time", OffsetDateTime.class)));
+
+		var harvestAmount = resultSet.getShort(prefix + "harvest_amount");
+		block.setHarvestAmount(resultSet.wasNull() ? null : harvestAmount);
+
+		block.setStatus(Status.valueOf(resultSet.getString(prefix + "status")));
+		block.setComment(resultSet.getString(prefix + "comment"));
+		block.setUpdateTime(toInstant(resultSet.getObject(prefix + "update_time", OffsetDateTime.class)));
+		block.setVersion(resultSet.getInt(prefix + "version"));
+
+		return block;
+	}
+
+	private static Object[] columnOf(List<Block> blocks, Function<Block, Object> getter)
+	{
+		return blocks.stream()
+			.map(getter)
+			.toArray();
+	}
+
+	private static String toText(Instant time)
+	{
+		return time != null ? time.toString() : null;
+	}
+
+	private static Instant toInstant(OffsetDateTime time)
+	{
+		return time != null ? time.toInstant() : null;
+	}
+
 	private List<Block> findByLandIdAndStatus(
 		UUID landId, Block.Status status, int askedBlocks
 	) {
@@ -1,18 +1,17 @@
 package guru.mikelue.farming.repos.jpa;
 
-import java.util.Collection;
 import java.util.UUID;
 
 import org.springframework.transaction.annotation.Transactional;
 
-import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Land;
 
 public interface CustomizedLandRepos {
-	Land addNewWithBlocks(Land newLand);
-
+	/**
+	 * Adds a land with its available blocks(as the size of land) in one transaction.
+	 */
 	@Transactional
-	void addNewBlocks(Collection<Block> newBlocks);
+	Land addNewWithBlocks(Land newLand);
 
 	/**
 	 * Deletes a land
@@ -1,63 +1,45 @@
 package guru.mikelue.farming.repos.jpa;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.UUID;
-import javax.persistence.criteria.CriteriaDelete;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 
-import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Land;
 
 public class CustomizedLandReposImpl extends AbstractReposImplBase implements CustomizedLandRepos {
 	@Autowired @Lazy
 	private LandRepos selfRepos;
 
-	public final static int BATCH_SIZE = 128;
-
 	public CustomizedLandReposImpl() {}
 
-    @Override
-    public Land addNewWithBlocks(Land newLand)
+	/**
+	 * The blocks are generated by database(<em>generate_series</em>) in a single statement,
+	 * no entity of block is managed by persistence context.
+	 */
+	@Override
+	public Land addNewWithBlocks(Land newLand)
 	{
 		var now = Instant.now();
 		newLand.setCreationTime(now);
-        newLand = selfRepos.save(newLand);
-
-		List<Block> currentBlocks = new ArrayList<>(BATCH_SIZE);
-		for (var i = 0; i < newLand.getSize(); i++) {
-			if (currentBlocks.size() >= BATCH_SIZE) {
-				selfRepos.addNewBlocks(currentBlocks);
-				currentBlocks.clear();
-			}
-
-			var newBlock = new Block();
-			newBlock.setId((short)i);
-			newBlock.setLand(newLand);
-			newBlock.setStatus(Block.Status.Available);
-			newBlock.setUpdateTime(now);
-
-			currentBlocks.add(newBlock);
-		}
-
-		if (currentBlocks.size() > 0) {
-			selfRepos.addNewBlocks(currentBlocks);
-		}
+		newLand = selfRepos.saveAndFlush(newLand);
+
+		var insertedBlocks = getEntityManager()
+			.createNativeQuery(
+				"""
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_status, bl_update_time)
+				SELECT :land_id, CAST(gs AS smallint), 'Available', :update_time
+				FROM generate_series(0, :size - 1) AS gs
+				"""
+			)
+			.setParameter("land_id", newLand.getId())
+			.setParameter("update_time", now)
+			.setParameter("size", newLand.getSize().intValue())
+			.executeUpdate();
+
+		getLogger().debug("Generated [{}] blocks for land[{}].", insertedBlocks, newLand.getId());
 
 		return newLand;
-    }
-
-	@Override
-	public void addNewBlocks(Collection<Block> newBlocks)
-	{
-		getLogger().debug("Batch insertion for [{}] blocks.", newBlocks.size());
-		var em = getEntityManager();
-		for (var b: newBlocks) {
-			em.persist(b);
-		}
 	}
 
     @Override
@@ -0,0 +1,56 @@
+package guru.mikelue.farming.repos.jpa;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import guru.mikelue.farming.model.Block;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Scans blocks page by page, the next page is sought after the last block of previous one.<p>
+ *
+ * The fetching of page is driven by the demand of subscriber.
+ */
+final class KeysetScanner {
+	private KeysetScanner() {}
+
+	/**
+	 * Builds the scanning of blocks.
+	 *
+	 * @param fetchFunc The function to fetch next page by last block({@code null} for the first page) and fetch size
+	 * @param fetchSize The number of blocks fetched every time, the scanning is finished by a page of smaller size
+	 */
+	static Flux<Block> scan(
+		BiFunction<Block, Integer, List<Block>> fetchFunc,
+		int fetchSize
+	) {
+		return Flux.<List<Block>, ScanState>generate(
+			() -> new ScanState(null, false),
+			(state, sink) -> {
+				if (state.exhausted()) {
+					sink.complete();
+					return state;
+				}
+
+				var blocks = fetchFunc.apply(state.lastBlock(), fetchSize);
+				if (blocks.isEmpty()) {
+					sink.complete();
+					return state;
+				}
+
+				sink.next(blocks);
+
+				return new ScanState(
+					blocks.get(blocks.size() - 1),
+					blocks.size() < fetchSize
+				);
+			}
+		)
+			// Only one page is prefetched
+			.flatMapIterable(Function.identity(), 1);
+	}
+
+	private record ScanState(Block lastBlock, boolean exhausted) {}
+}
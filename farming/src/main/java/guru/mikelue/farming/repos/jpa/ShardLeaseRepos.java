@@ -0,0 +1,108 @@
+package guru.mikelue.farming.repos.jpa;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import guru.mikelue.farming.model.ShardLease;
+
+public interface ShardLeaseRepos extends JpaRepository<ShardLease, ShardLease.LeaseId> {
+	/**
+	 * Acquires the lease of shard for a task.<p>
+	 *
+	 * The lease is acquired only if it is expired and the next run time of shard is passed.
+	 * The time is decided by database, so the clocks of instances are irrelevant.
+	 *
+	 * @param task The name of task
+	 * @param shard The index of shard
+	 * @param owner The owner(instance) of lease
+	 * @param leaseSeconds The lease is expired after these seconds if it is not released
+	 *
+	 * @return Gives 0 if the lease is owned by others or the shard is not ready to run
+	 */
+	@Transactional
+	@Modifying
+	@Query(
+		value="""
+		INSERT INTO vc_shard_lease AS sl(sl_task, sl_shard, sl_owner, sl_expire_time, sl_next_run_time)
+		VALUES(:task, :shard, :owner, NOW() + make_interval(secs => :lease_seconds), NOW())
+		ON CONFLICT (sl_task, sl_shard) DO UPDATE
+		SET sl_owner = EXCLUDED.sl_owner,
+			sl_expire_time = EXCLUDED.sl_expire_time
+		WHERE sl.sl_expire_time <= NOW()
+			AND sl.sl_next_run_time <= NOW()
+		""",
+		nativeQuery=true
+	)
+	int tryAcquire(
+		@Param("task") String task,
+		@Param("shard") short shard,
+		@Param("owner") String owner,
+		@Param("lease_seconds") long leaseSeconds
+	);
+
+	/**
+	 * Releases the lease of shard, the shard cannot be leased until the rest time is passed.
+	 *
+	 * @param task The name of task
+	 * @param shard The index of shard
+	 * @param owner The owner(instance) of lease
+	 * @param restSeconds The seconds between this run and next one of the shard
+	 *
+	 * @return Gives 0 if the lease is not owned by the owner
+	 */
+	@Transactional
+	@Modifying
+	@Query(
+		value="""
+		UPDATE vc_shard_lease
+		SET sl_expire_time = NOW(),
+			sl_next_run_time = NOW() + make_interval(secs => :rest_seconds)
+		WHERE sl_task = :task
+			AND sl_shard = :shard
+			AND sl_owner = :owner
+		""",
+		nativeQuery=true
+	)
+	int release(
+		@Param("task") String task,
+		@Param("shard") short shard,
+		@Param("owner") String owner,
+		@Param("rest_seconds") long restSeconds
+	);
+
+	/**
+	 * Keeps the owner live, the time is decided by database.
+	 *
+	 * @param owner The owner(instance) of leases
+	 */
+	@Transactional
+	@Modifying
+	@Query(
+		value="""
+		INSERT INTO vc_shard_owner AS so(so_owner, so_heartbeat_time)
+		VALUES(:owner, NOW())
+		ON CONFLICT (so_owner) DO UPDATE
+		SET so_heartbeat_time = EXCLUDED.so_heartbeat_time
+		""",
+		nativeQuery=true
+	)
+	int heartbeat(@Param("owner") String owner);
+
+	/**
+	 * Counts the owners whose heartbeat is within the live seconds.
+	 *
+	 * @param liveSeconds An owner without heartbeat over these seconds is not live
+	 */
+	@Query(
+		value="""
+		SELECT COUNT(*)
+		FROM vc_shard_owner
+		WHERE so_heartbeat_time > NOW() - make_interval(secs => :live_seconds)
+		""",
+		nativeQuery=true
+	)
+	int countLiveOwners(@Param("live_seconds") long liveSeconds);
+}
@@ -0,0 +1,158 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs blocking calls(e.g. JPA) on a dedicated scheduler, the threads of event loop are not blocked.<p>
+ *
+ * The number of threads should be the same as the size of connection pool(Hikari),
+ * more threads would only wait for connections.
+ *
+ * At most <em>valor.farming.blocking-bridge.max-queued</em> calls are waiting for threads,
+ * further calls are rejected by {@link BlockingBridgeSaturatedException}(responded as 503)
+ * instead of piling up behind a slow query.
+ *
+ * Meters:
+ * <ul>
+ * 	<li><em>valor.farming.blocking-bridge.queued</em> - The number of calls waiting for threads</li>
+ * 	<li><em>valor.farming.blocking-bridge.active</em> - The number of running calls</li>
+ * 	<li><em>valor.farming.blocking-bridge.saturation</em> - The ratio of queued calls to the maximum one</li>
+ * 	<li><em>valor.farming.blocking-bridge.wait</em> - The time of calls waiting for threads</li>
+ * 	<li><em>valor.farming.blocking-bridge.rejected</em> - The number of rejected calls</li>
+ * </ul>
+ */
+@Component
+public class BlockingBridge {
+	private final static Logger logger = LoggerFactory.getLogger(BlockingBridge.class);
+
+	private final Scheduler scheduler;
+	private final int maxQueued;
+
+	private final AtomicInteger queued = new AtomicInteger(0);
+	private final AtomicInteger active = new AtomicInteger(0);
+
+	private final Timer waitTimer;
+	private final Counter rejectedCounter;
+
+	public BlockingBridge(
+		@Value("${valor.farming.blocking-bridge.threads}")
+		int threads,
+		@Value("${valor.farming.blocking-bridge.max-queued}")
+		int newMaxQueued,
+		MeterRegistry meterRegistry
+	) {
+		scheduler = Schedulers.newBoundedElastic(
+			threads, Integer.MAX_VALUE, "blocking-bridge"
+		);
+		maxQueued = newMaxQueued;
+
+		Gauge.builder("valor.farming.blocking-bridge.queued", queued, AtomicInteger::get)
+			.description("The number of blocking calls waiting for threads")
+			.register(meterRegistry);
+		Gauge.builder("valor.farming.blocking-bridge.active", active, AtomicInteger::get)
+			.description("The number of running blocking calls")
+			.register(meterRegistry);
+		Gauge.builder("valor.farming.blocking-bridge.saturation", queued, q -> (double)q.get() / maxQueued)
+			.description("The ratio of queued blocking calls to the maximum one")
+			.register(meterRegistry);
+
+		waitTimer = Timer.builder("valor.farming.blocking-bridge.wait")
+			.description("The time of blocking calls waiting for threads")
+			.register(meterRegistry);
+		rejectedCounter = Counter.builder("valor.farming.blocking-bridge.rejected")
+			.description("The number of blocking calls rejected by saturation")
+			.register(meterRegistry);
+	}
+
+	@PreDestroy
+	void shutdown()
+	{
+		scheduler.dispose();
+	}
+
+	/**
+	 * Builds a call which is run on the scheduler of this bridge when it is subscribed.
+	 *
+	 * @param blockingCall The call could block the thread, {@code null} result gives empty {@link Mono}
+	 *
+	 * @return The result of call or error of {@link BlockingBridgeSaturatedException}
+	 */
+	public <T> Mono<T> call(Callable<T> blockingCall)
+	{
+		return Mono.defer(() -> {
+			if (queued.incrementAndGet() > maxQueued) {
+				queued.decrementAndGet();
+				rejectedCounter.increment();
+
+				logger.warn("Blocking bridge is saturated. Queued calls: [{}]", maxQueued);
+				return Mono.error(new BlockingBridgeSaturatedException(maxQueued));
+			}
+
+			var submitTime = System.nanoTime();
+			/**
+			 * The queued call is left by starting or cancellation(whichever comes first)
+			 */
+			var leftQueue = new AtomicBoolean(false);
+
+			return Mono.fromCallable(() -> {
+				if (leftQueue.compareAndSet(false, true)) {
+					queued.decrementAndGet();
+				}
+				waitTimer.record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+
+				active.incrementAndGet();
+				try {
+					return blockingCall.call();
+				} finally {
+					active.decrementAndGet();
+				}
+			})
+				.subscribeOn(scheduler)
+				.doFinally(signal -> {
+					if (leftQueue.compareAndSet(false, true)) {
+						queued.decrementAndGet();
+					}
+				});
+			// :~)
+		});
+	}
+
+	/**
+	 * Builds a call(by {@link #call(Callable)}) whose result is emitted element by element.
+	 */
+	public <T> Flux<T> callMany(Callable<? extends Iterable<T>> blockingCall)
+	{
+		return call(blockingCall)
+			.flatMapIterable(Function.identity());
+	}
+
+	/**
+	 * Gets the scheduler of this bridge, which is used by long-lived sequences(e.g. scanning).<p>
+	 *
+	 * The tasks subscribed on this scheduler directly are not limited(by max-queued) nor measured.
+	 */
+	public Scheduler getScheduler()
+	{
+		return scheduler;
+	}
+}
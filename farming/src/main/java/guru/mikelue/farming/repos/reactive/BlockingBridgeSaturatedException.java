@@ -0,0 +1,26 @@
+package guru.mikelue.farming.repos.reactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The calls waiting for threads of {@link BlockingBridge} are reaching the maximum.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BlockingBridgeSaturatedException extends RuntimeException {
+	private final int maxQueued;
+
+	public BlockingBridgeSaturatedException(int newMaxQueued)
+	{
+		super(String.format(
+			"Too many waiting calls of database. Maximum: [%d].", newMaxQueued
+		));
+
+		maxQueued = newMaxQueued;
+	}
+
+	public int getMaxQueued()
+	{
+		return maxQueued;
+	}
+}
@@ -0,0 +1,76 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Function;
+
+import guru.mikelue.farming.model.AskBlockAction;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bridges {@link BlockRepos}(blocking) to {@link ReactiveBlockRepos},
+ * the calls of JPA are run by {@link BlockingBridge} instead of the thread of caller.<p>
+ *
+ * The blocks of a land are fetched page by page(keyset of id), every page is a call of bridge.
+ */
+public class JpaBridgedBlockRepos implements ReactiveBlockRepos {
+	private final BlockRepos blockRepos;
+	private final BlockingBridge blockingBridge;
+	private final int fetchSize;
+
+	/**
+	 * @param newFetchSize The number of blocks fetched every time while listing blocks of a land
+	 */
+	public JpaBridgedBlockRepos(BlockRepos newBlockRepos, BlockingBridge newBlockingBridge, int newFetchSize)
+	{
+		blockRepos = newBlockRepos;
+		blockingBridge = newBlockingBridge;
+		fetchSize = newFetchSize;
+	}
+
+	@Override
+	public Flux<Block> findByLandIdOrderById(UUID landId)
+	{
+		return blockingBridge.call(() -> blockRepos.findBlocksOfLandAfter(landId, null, fetchSize))
+			// The next page is fetched after the last block of previous one
+			.expand(blocks -> blocks.size() < fetchSize ?
+				Mono.empty() :
+				blockingBridge.call(
+					() -> blockRepos.findBlocksOfLandAfter(landId, blocks.get(blocks.size() - 1), fetchSize)
+				)
+			)
+			// Only one page is prefetched
+			.flatMapIterable(Function.identity(), 1);
+	}
+
+	@Override
+	public Mono<Short> countByLandIdAndStatus(UUID landId, Status status, short limit)
+	{
+		return blockingBridge.call(() -> blockRepos.countByLandIdAndStatus(landId, status, limit));
+	}
+
+	@Override
+	public Flux<Block> claimBlocksOfLand(
+		AskBlockAction action,
+		Status currentStatus, Status newStatus,
+		Instant updateTime
+	) {
+		return blockingBridge.callMany(
+			() -> blockRepos.claimBlocksOfLand(action, currentStatus, newStatus, updateTime)
+		);
+	}
+
+	@Override
+	public Flux<Block> scanMaturedBlocks(
+		Instant checkedTime, LandShard shard, int fetchSize
+	) {
+		return blockRepos.scanMaturedBlocks(checkedTime, shard, fetchSize)
+			.subscribeOn(blockingBridge.getScheduler());
+	}
+}
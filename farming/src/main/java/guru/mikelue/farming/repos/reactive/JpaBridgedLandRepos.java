@@ -0,0 +1,39 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.jpa.LandRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bridges {@link LandRepos}(blocking) to {@link ReactiveLandRepos},
+ * the calls of JPA are run by {@link BlockingBridge} instead of the thread of caller.
+ */
+public class JpaBridgedLandRepos implements ReactiveLandRepos {
+	private final LandRepos landRepos;
+	private final BlockingBridge blockingBridge;
+
+	public JpaBridgedLandRepos(LandRepos newLandRepos, BlockingBridge newBlockingBridge)
+	{
+		landRepos = newLandRepos;
+		blockingBridge = newBlockingBridge;
+	}
+
+	@Override
+	public Mono<Land> findById(UUID landId)
+	{
+		return blockingBridge.call(() -> landRepos.findById(landId))
+			.flatMap(Mono::justOrEmpty);
+	}
+
+	@Override
+	public Flux<Land> findAll(Pageable pageable)
+	{
+		return blockingBridge.callMany(() -> landRepos.findAll(pageable));
+	}
+}
@@ -0,0 +1,210 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.r2dbc.spi.Row;
+
+import guru.mikelue.farming.model.AskBlockAction;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.repos.jpa.BlockStatements;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implements {@link ReactiveBlockRepos} by R2DBC, the statements of claiming and scanning are shared with JPA({@link BlockStatements}).<p>
+ *
+ * The columns of PostgreSQL enum are read as text.<p>
+ *
+ * The blocks of a land are read by cursor(fetch size of statement),
+ * so the rows are pulled from database by the demand of subscriber.
+ */
+public class R2dbcBlockRepos implements ReactiveBlockRepos {
+	private final static Logger logger = LoggerFactory.getLogger(R2dbcBlockRepos.class);
+
+	private final DatabaseClient databaseClient;
+	private final int fetchSize;
+
+	/**
+	 * @param newFetchSize The number of rows fetched by cursor every time while listing blocks of a land
+	 */
+	public R2dbcBlockRepos(DatabaseClient newDatabaseClient, int newFetchSize)
+	{
+		databaseClient = newDatabaseClient;
+		fetchSize = newFetchSize;
+	}
+
+	@Override
+	public Flux<Block> findByLandIdOrderById(UUID landId)
+	{
+		return databaseClient.sql(
+			String.format(
+				"""
+				SELECT %s
+				FROM vc_block
+				WHERE bl_ld_id = :land_id
+				ORDER BY bl_id ASC
+				""",
+				columnsOfBlock("")
+			)
+		)
+			.bind("land_id", landId)
+			.filter(statement -> statement.fetchSize(fetchSize))
+			.map(R2dbcBlockRepos::readBlock)
+			.all();
+	}
+
+	@Override
+	public Mono<Short> countByLandIdAndStatus(UUID landId, Status status, short limit)
+	{
+		return databaseClient.sql(
+			"""
+			SELECT COUNT(*) AS number_of_blocks
+			FROM (
+				SELECT bl_ld_id, bl_id
+				FROM vc_block
+				WHERE bl_ld_id = :land_id
+					AND bl_status = CAST(:status AS enum_block_status)
+				LIMIT :limit
+			) AS b
+			"""
+		)
+			.bind("land_id", landId)
+			.bind("status", status.name())
+			.bind("limit", (int)limit)
+			.map(row -> row.get("number_of_blocks", Long.class).shortValue())
+			.one();
+	}
+
+	@Override
+	public Flux<Block> claimBlocksOfLand(
+		AskBlockAction action,
+		Status currentStatus, Status newStatus,
+		Instant updateTime
+	) {
+		var crop = action.getCrop() != null ?
+			action.getCrop().name() : null;
+
+		var spec = databaseClient.sql(
+			String.format(BlockStatements.CLAIM_BLOCKS_OF_LAND, columnsOfBlock("b."))
+		)
+			.bind("new_status", newStatus.name())
+			.bind("update_time", updateTime)
+			.bind("land_id", action.getLandId())
+			.bind("status", currentStatus.name())
+			.bind("limit", action.getAskedBlocks().intValue());
+
+		spec = bindNullable(spec, "crop", crop, String.class);
+		spec = bindNullable(spec, "comment", action.getComment(), String.class);
+
+		return spec
+			.map(R2dbcBlockRepos::readBlock)
+			.all()
+			.doOnComplete(() -> logger.debug("Claimed blocks(asked: {}) of land[{}]: {} -> {}",
+				action.getAskedBlocks(), action.getLandId(),
+				currentStatus, newStatus
+			));
+	}
+
+	@Override
+	public Flux<Block> scanMaturedBlocks(
+		Instant checkedTime, LandShard shard, int fetchSize
+	) {
+		return findMaturedBlocksAfter(checkedTime, shard, null, fetchSize)
+			.collectList()
+			// The next page is fetched after the last block of previous one
+			.expand(blocks -> blocks.size() < fetchSize ?
+				Mono.empty() :
+				findMaturedBlocksAfter(
+					checkedTime, shard,
+					blocks.get(blocks.size() - 1), fetchSize
+				)
+					.collectList()
+			)
+			// Only one page is prefetched
+			.flatMapIterable(Function.identity(), 1);
+	}
+
+	private Flux<Block> findMaturedBlocksAfter(
+		Instant checkedTime, LandShard shard,
+		Block lastBlock, int fetchSize
+	) {
+		var spec = databaseClient.sql(
+			String.format(
+				BlockStatements.FIND_MATURED_BLOCKS_AFTER,
+				columnsOfBlock(""),
+				BlockStatements.landRangeCondition(shard),
+				lastBlock != null ? BlockStatements.SEEK_MATURED_BLOCKS : ""
+			)
+		)
+			.bind("checked_time", checkedTime)
+			.bind("fetch_size", fetchSize);
+
+		if (shard.count() > 1) {
+			spec = spec.bind("lower_land_id", shard.lowerBound());
+			if (shard.upperBound() != null) {
+				spec = spec.bind("upper_land_id", shard.upperBound());
+			}
+		}
+
+		if (lastBlock != null) {
+			spec = spec
+				.bind("last_time", lastBlock.getMatureTime())
+				.bind("last_land_id", lastBlock.getLandId())
+				.bind("last_id", lastBlock.getId());
+		}
+
+		return spec
+			.map(R2dbcBlockRepos::readBlock)
+			.all();
+	}
+
+	private static String columnsOfBlock(String alias)
+	{
+		return String.format(
+			"""
+			%1$sbl_ld_id, %1$sbl_id, CAST(%1$sbl_crop AS text) AS bl_crop,
+			%1$sbl_sow_time, %1$sbl_mature_time, %1$sbl_harvest_amount,
+			CAST(%1$sbl_status AS text) AS bl_status, %1$sbl_comment, %1$sbl_update_time,
+			%1$sbl_version
+			""",
+			alias
+		);
+	}
+
+	private static <T> GenericExecuteSpec bindNullable(
+		GenericExecuteSpec spec, String name, T value, Class<T> type
+	) {
+		return value != null ?
+			spec.bind(name, value) : spec.bindNull(name, type);
+	}
+
+	private static Block readBlock(Row row)
+	{
+		var block = new Block();
+		block.setLandId(row.get("bl_ld_id", UUID.class));
+		block.setId(row.get("bl_id", Short.class));
+
+		var crop = row.get("bl_crop", String.class);
+		block.setCrop(crop != null ? Crop.valueOf(crop) : null);
+		block.setSowTime(row.get("bl_sow_time", Instant.class));
+		block.setMatureTime(row.get("bl_mature_time", Instant.class));
+		block.setHarvestAmount(row.get("bl_harvest_amount", Short.class));
+		block.setStatus(Status.valueOf(row.get("bl_status", String.class)));
+		block.setComment(row.get("bl_comment", String.class));
+		block.setUpdateTime(row.get("bl_update_time", Instant.class));
+		block.setVersion(row.get("bl_version", Integer.class));
+
+		return block;
+	}
+}
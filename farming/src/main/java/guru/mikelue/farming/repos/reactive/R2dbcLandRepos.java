@@ -0,0 +1,122 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.Row;
+
+import guru.mikelue.farming.model.Climate;
+import guru.mikelue.farming.model.Land;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implements {@link ReactiveLandRepos} by R2DBC.<p>
+ *
+ * The sorting of paging is by properties of {@link Land}, which are mapped to columns.
+ */
+public class R2dbcLandRepos implements ReactiveLandRepos {
+	private final static String COLUMNS_OF_LAND =
+		"ld_id, ld_name, ld_size, CAST(ld_climate AS text) AS ld_climate, ld_creation_time";
+
+	private final static Map<String, String> PROPERTY_TO_COLUMN = Map.of(
+		"id", "ld_id",
+		"name", "ld_name",
+		"size", "ld_size",
+		"climate", "ld_climate",
+		"creationTime", "ld_creation_time"
+	);
+
+	private final DatabaseClient databaseClient;
+	private final int fetchSize;
+
+	/**
+	 * @param newFetchSize The number of rows fetched by cursor every time while listing lands
+	 */
+	public R2dbcLandRepos(DatabaseClient newDatabaseClient, int newFetchSize)
+	{
+		databaseClient = newDatabaseClient;
+		fetchSize = newFetchSize;
+	}
+
+	@Override
+	public Mono<Land> findById(UUID landId)
+	{
+		return databaseClient.sql(
+			String.format(
+				"""
+				SELECT %s
+				FROM vc_land
+				WHERE ld_id = :land_id
+				""",
+				COLUMNS_OF_LAND
+			)
+		)
+			.bind("land_id", landId)
+			.map(R2dbcLandRepos::readLand)
+			.one();
+	}
+
+	@Override
+	public Flux<Land> findAll(Pageable pageable)
+	{
+		return databaseClient.sql(
+			String.format(
+				"""
+				SELECT %s
+				FROM vc_land
+				%s
+				LIMIT :limit OFFSET :offset
+				""",
+				COLUMNS_OF_LAND,
+				orderBy(pageable.getSort())
+			)
+		)
+			.bind("limit", pageable.getPageSize())
+			.bind("offset", pageable.getOffset())
+			.filter(statement -> statement.fetchSize(fetchSize))
+			.map(R2dbcLandRepos::readLand)
+			.all();
+	}
+
+	/**
+	 * @throws IllegalArgumentException The property is not sortable
+	 */
+	private static String orderBy(Sort sort)
+	{
+		if (sort.isUnsorted()) {
+			return "";
+		}
+
+		return sort.stream()
+			.map(order -> {
+				var column = PROPERTY_TO_COLUMN.get(order.getProperty());
+				if (column == null) {
+					throw new IllegalArgumentException(
+						String.format("Unknown property of land: [%s]", order.getProperty())
+					);
+				}
+
+				return column + " " + order.getDirection().name();
+			})
+			.collect(Collectors.joining(", ", "ORDER BY ", ""));
+	}
+
+	private static Land readLand(Row row)
+	{
+		var land = new Land(row.get("ld_id", UUID.class));
+		land.setName(row.get("ld_name", String.class));
+		land.setSize(row.get("ld_size", Short.class));
+		land.setClimate(Climate.valueOf(row.get("ld_climate", String.class)));
+		land.setCreationTime(row.get("ld_creation_time", Instant.class));
+
+		return land;
+	}
+}
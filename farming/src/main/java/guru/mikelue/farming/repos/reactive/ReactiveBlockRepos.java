@@ -0,0 +1,57 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import guru.mikelue.farming.model.AskBlockAction;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access of blocks, which has the same queries as {@link BlockRepos}
+ * for paths of serving requests.<p>
+ *
+ * The implementation is selected by <em>valor.farming.repos.reactive</em>.
+ *
+ * @see R2dbcBlockRepos
+ * @see JpaBridgedBlockRepos
+ */
+public interface ReactiveBlockRepos {
+	/**
+	 * Finds blocks of a land, ordered by id of block.<p>
+	 *
+	 * The blocks are pulled from database by the demand of subscriber,
+	 * the whole blocks of a land are never held in memory.
+	 */
+	Flux<Block> findByLandIdOrderById(UUID landId);
+
+	/**
+	 * Counts blocks of a land in certain status, the counting is stopped at the limit.
+	 */
+	Mono<Short> countByLandIdAndStatus(UUID landId, Status status, short limit);
+
+	/**
+	 * Claims blocks of a land from current status to new one by a single statement.
+	 *
+	 * @see BlockRepos#claimBlocksOfLand(AskBlockAction, Status, Status, Instant)
+	 */
+	Flux<Block> claimBlocksOfLand(
+		AskBlockAction action,
+		Status currentStatus, Status newStatus,
+		Instant updateTime
+	);
+
+	/**
+	 * Scans matured blocks(occupied) by keyset paging.
+	 *
+	 * @see BlockRepos#scanMaturedBlocks(Instant, LandShard, int)
+	 */
+	Flux<Block> scanMaturedBlocks(
+		Instant checkedTime, LandShard shard, int fetchSize
+	);
+}
@@ -0,0 +1,32 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.jpa.LandRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access of lands, which has the same queries as {@link LandRepos}
+ * for paths of serving requests.<p>
+ *
+ * The implementation is selected by <em>valor.farming.repos.reactive</em>.
+ *
+ * @see R2dbcLandRepos
+ * @see JpaBridgedLandRepos
+ */
+public interface ReactiveLandRepos {
+	/**
+	 * Finds a land by id, empty if the land is not existing.
+	 */
+	Mono<Land> findById(UUID landId);
+
+	/**
+	 * Finds lands by paging(with sorting by properties of {@link Land}).
+	 */
+	Flux<Land> findAll(Pageable pageable);
+}
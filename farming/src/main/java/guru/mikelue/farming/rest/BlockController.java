@@ -11,12 +11,15 @@ import org.springframework.web.bind.annotation.*;
 
 import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
-import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.model.LandSummary;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
 import guru.mikelue.farming.service.FarmingService;
+import guru.mikelue.farming.service.LandSummaryService;
 import guru.mikelue.farming.service.UnsuitableCropException;
 import guru.mikelue.farming.validate.Groups.ForCleaningBlock;
 import guru.mikelue.farming.web.CodeAndDetail;
 import guru.mikelue.farming.web.CodeAndDetailException;
+import guru.mikelue.farming.web.ExceptionalResponse;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,9 +27,11 @@ import reactor.core.publisher.Mono;
 @RestController
 public class BlockController extends AbstractControllerBase {
 	@Autowired
-	private BlockRepos blockRepos;
+	private ReactiveBlockRepos reactiveBlockRepos;
 	@Autowired
 	private FarmingService farmingService;
+	@Autowired
+	private LandSummaryService landSummaryService;
 
 	public BlockController() {}
 
@@ -34,10 +39,17 @@ public class BlockController extends AbstractControllerBase {
 	Flux<Block> listBlocksByLand(
 		@PathVariable("land_id") UUID landId
 	) {
-		return Mono.just(landId)
-			.flatMapMany(id ->
-				Flux.fromIterable(blockRepos.findByLandIdOrderById(id))
-			);
+		return reactiveBlockRepos.findByLandIdOrderById(landId);
+	}
+
+	@GetMapping("/land/{land_id}/summary")
+	Mono<LandSummary> getSummaryOfLand(
+		@PathVariable("land_id") UUID landId
+	) {
+		return landSummaryService.getSummary(landId)
+			.switchIfEmpty(ExceptionalResponse.notFound(
+				"Unable to find land. Id: [%s]", landId
+			));
 	}
 
 	@PostMapping("/land/{land_id}/sow")
@@ -0,0 +1,43 @@
+package guru.mikelue.farming.rest;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import guru.mikelue.farming.service.CompletionReplayer;
+import guru.mikelue.farming.web.ExceptionalResponse;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+public class CompletionController extends AbstractControllerBase {
+	public final static int MAX_REPLAYED_RECORDS = 10000;
+
+	@Autowired
+	private CompletionReplayer completionReplayer;
+
+	public CompletionController() {}
+
+	@PostMapping("/admin/dead-completions/replay")
+	Mono<Map<String, Object>> replayDeadCompletions(
+		@RequestParam(name="max_records", defaultValue="1000")
+		int maxRecords
+	) {
+		if (maxRecords < 1 || maxRecords > MAX_REPLAYED_RECORDS) {
+			return ExceptionalResponse.badRequest(
+				"\"max_records\" should be between 1 and %d. Got: %d", MAX_REPLAYED_RECORDS, maxRecords
+			);
+		}
+
+		return completionReplayer.replay(maxRecords)
+			.<Map<String, Object>>map(n -> Map.of("replayed_completions", n))
+			.onErrorMap(IllegalStateException.class, e ->
+				new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e)
+			);
+	}
+}
@@ -3,6 +3,9 @@ package guru.mikelue.farming.rest;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
@@ -10,8 +13,12 @@ import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,15 +26,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import guru.mikelue.farming.model.ActivityStats;
+import guru.mikelue.farming.model.ActivityStats.Granularity;
 import guru.mikelue.farming.model.Land;
 import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandLogCursor;
 import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+import guru.mikelue.farming.repos.cassandra.LandRollupRepos;
 import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.farming.repos.reactive.BlockingBridge;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+import guru.mikelue.farming.service.LandCache;
+import guru.mikelue.farming.service.LandSummaryService;
 import guru.mikelue.farming.validate.Groups;
 import guru.mikelue.farming.web.ExceptionalResponse;
 import guru.mikelue.misc.springframework.data.web.PagePropertyChanger;
@@ -40,7 +56,17 @@ public class LandController extends AbstractControllerBase {
 	@Autowired
 	private LandRepos landRepos;
 	@Autowired
+	private ReactiveLandRepos reactiveLandRepos;
+	@Autowired
 	private LandLogRepos landLogRepos;
+	@Autowired
+	private LandRollupRepos landRollupRepos;
+	@Autowired
+	private BlockingBridge blockingBridge;
+	@Autowired
+	private LandSummaryService landSummaryService;
+	@Autowired
+	private LandCache landCache;
 
 	private static final Function<DataIntegrityViolationException, ResponseStatusException> LandIntegrityViolationMapper =
 		ExceptionalResponse.buildMapForDataIntegrityViolation(
@@ -54,9 +80,8 @@ public class LandController extends AbstractControllerBase {
 	Mono<Land> getById(
 		@PathVariable("land_id") UUID landId
 	) {
-		return Mono.just(landId)
-			.map(landRepos::findById)
-			.transform(ExceptionalResponse.transformNotFoundResponse(
+		return landCache.findById(landId)
+			.switchIfEmpty(ExceptionalResponse.notFound(
 				FORMAT_UNABLE_TO_FIND_LAND, landId
 			));
 	}
@@ -67,9 +92,7 @@ public class LandController extends AbstractControllerBase {
 		Pageable pageable
 	) {
 		return safePageable(pageable)
-			.flatMapMany(p -> Flux.fromIterable(
-				landRepos.findAll(p)
-			));
+			.flatMapMany(reactiveLandRepos::findAll);
 	}
 
 	@PostMapping("/land")
@@ -79,7 +102,10 @@ public class LandController extends AbstractControllerBase {
 		Mono<Land> newLand
 	) {
 		return newLand
-			.map(land -> landRepos.addNewWithBlocks(land))
+			.flatMap(land -> blockingBridge.call(
+				() -> landRepos.addNewWithBlocks(land)
+			))
+			.doOnNext(landSummaryService::addLand)
 			.onErrorMap(DataIntegrityViolationException.class, LandIntegrityViolationMapper);
 	}
 
@@ -90,40 +116,130 @@ public class LandController extends AbstractControllerBase {
 		Mono<Land> modifiedContent
 	) {
 		return modifiedContent
-			.doOnNext(land -> {
+			.flatMap(land -> blockingBridge.call(() -> {
 				land.setId(landId);
 				landRepos.save(land);
-			})
+
+				return landRepos.findById(landId);
+			}))
+			.flatMap(modifiedLand -> landCache.invalidate(landId, LandCache.REASON_MODIFIED)
+				.thenReturn(modifiedLand)
+			)
 			.onErrorMap(DataIntegrityViolationException.class, LandIntegrityViolationMapper)
-			.map(savedLand -> landRepos.findById(savedLand.getId()))
 			.transform(ExceptionalResponse.transformNotFoundResponse(
 				FORMAT_UNABLE_TO_FIND_LAND, landId
 			));
 	}
 
+	private final static String PAGE_NEXT = "page-next";
+	private final static int MAX_DAYS_OF_STATS = 92;
+
 	private final static PagePropertyChanger listLogsPropertyMapper =
 		PagePropertyChanger.from(Map.of("time", "pk.time"));
 
+	/**
+	 * Lists logs of a land by page number or by the cursor of previous page(<em>page-next</em>),
+	 * the cursor of next page is responded by the header of <em>page-next</em> if there are more logs.<p>
+	 *
+	 * The header is decided by the slice before the body of logs is written.
+	 */
 	@GetMapping("/land/{land_id}/logs")
-	Flux<LandLog> list(
+	Mono<ResponseEntity<Flux<LandLog>>> list(
 		@PathVariable("land_id")
 		UUID landId,
 		@RequestParam(name="start_time", required=false)
 		Instant startTime,
 		@RequestParam(name="end_time", required=false)
 		Instant endTime,
+		@RequestHeader(name=PAGE_NEXT, required=false)
+		String pageNextOfHeader,
+		@RequestParam(name=PAGE_NEXT, required=false)
+		String pageNextOfQuery,
 		@PageableDefault(sort="time", direction=DESC)
 		Pageable pageable
 	) {
 		var pageInfo = PageableUtils.LimitSizeOfPage(pageable, 1000);
 		pageInfo = listLogsPropertyMapper.mapProperty(pageInfo);
 
-		return landLogRepos.findByTimeRangeOfLand(
-			landId, startTime, endTime, pageInfo
-		)
-			.flatMapMany(
-				slice -> Flux.fromIterable(slice)
+		Mono<Slice<LandLog>> sliceOfLogs;
+
+		var pageNext = pageNextOfHeader != null ? pageNextOfHeader : pageNextOfQuery;
+		if (pageNext != null) {
+			LandLogCursor cursor;
+			try {
+				cursor = LandLogCursor.decode(pageNext);
+			} catch (IllegalArgumentException e) {
+				return ExceptionalResponse.badRequest("Unable to resume logs by \"%s\"", pageNext);
+			}
+
+			sliceOfLogs = landLogRepos.findByTimeRangeOfLandAfter(
+				landId, startTime, endTime, cursor, pageInfo
+			);
+		} else {
+			sliceOfLogs = landLogRepos.findByTimeRangeOfLand(
+				landId, startTime, endTime, pageInfo
 			);
+		}
+
+		return sliceOfLogs
+			.map(slice -> {
+				var responseBuilder = ResponseEntity.ok();
+
+				if (slice.hasNext()) {
+					var lastLog = slice.getContent().get(slice.getNumberOfElements() - 1);
+					responseBuilder.header(
+						PAGE_NEXT, LandLogCursor.of(lastLog).encode()
+					);
+				}
+
+				return responseBuilder.body(Flux.fromIterable(slice));
+			});
+	}
+
+	/**
+	 * Lists the rollups of logs of a land between days(UTC, inclusive), by hour or by day.
+	 */
+	@GetMapping("/land/{land_id}/stats")
+	Flux<ActivityStats> listStats(
+		@PathVariable("land_id")
+		UUID landId,
+		@RequestParam(name="start_day", required=false) @DateTimeFormat(iso=ISO.DATE)
+		LocalDate startDay,
+		@RequestParam(name="end_day", required=false) @DateTimeFormat(iso=ISO.DATE)
+		LocalDate endDay,
+		@RequestParam(name="granularity", defaultValue="day")
+		String granularityText
+	) {
+		var finalEndDay = endDay != null ? endDay : LocalDate.now(ZoneOffset.UTC);
+		var finalStartDay = startDay != null ? startDay : finalEndDay;
+
+		if (finalStartDay.isAfter(finalEndDay) ||
+			ChronoUnit.DAYS.between(finalStartDay, finalEndDay) >= MAX_DAYS_OF_STATS
+		) {
+			return ExceptionalResponse.<ActivityStats>badRequest(
+				"The range of days must be in [1, %d] days: [%s ~ %s]", MAX_DAYS_OF_STATS, finalStartDay, finalEndDay
+			)
+				.flux();
+		}
+
+		Granularity granularity;
+		switch (granularityText) {
+			case "hour":
+				granularity = Granularity.Hour;
+				break;
+			case "day":
+				granularity = Granularity.Day;
+				break;
+			default:
+				return ExceptionalResponse.<ActivityStats>badRequest(
+					"Unknown granularity: \"%s\"", granularityText
+				)
+					.flux();
+		}
+
+		return landRollupRepos.findStatsOfLand(
+			landId, finalStartDay, finalEndDay, granularity
+		);
 	}
 
 	@DeleteMapping("/land/{land_id}")
@@ -131,9 +247,13 @@ public class LandController extends AbstractControllerBase {
 		@PathVariable("land_id")
 		UUID landId
 	) {
-		return Mono.fromSupplier(
+		return blockingBridge.call(
 			() -> landRepos.purge(landId)
 		)
+			.doOnNext(n -> landSummaryService.removeLand(landId))
+			.flatMap(n -> landCache.invalidate(landId, LandCache.REASON_DELETED)
+				.thenReturn(n)
+			)
 			.map(
 				n -> Map.of("number_of_blocks", n)
 			);
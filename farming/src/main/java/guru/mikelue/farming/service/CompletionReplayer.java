@@ -0,0 +1,172 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import guru.mikelue.farming.config.KafkaConfig;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Replays the completions parked in {@value KafkaConfig#TOPIC_FAILED_COMPLETION_DLT}, which are sent back to
+ * {@value KafkaConfig#TOPIC_FAILED_COMPLETION} with a fresh state of retrying(only the headers of completion are kept).<p>
+ *
+ * The replayed offsets are committed by a dedicated group of consumer(<em>valor.farming.completion.replay-group</em>),
+ * so a dead letter is replayed once. The replayed completion of a changed block is discarded by the version of block.<p>
+ *
+ * Only one replaying is running at a time(per instance), the replayed completions are published as meter of
+ * {@code valor.farming.completion.replayed}.
+ */
+@Service
+public class CompletionReplayer {
+	private final static Logger logger = LoggerFactory.getLogger(CompletionReplayer.class);
+
+	private final ConsumerFactory<BlockId, Block> consumerFactory;
+	private final KafkaTemplate<BlockId, Block> kafkaTemplate;
+	private final String replayGroup;
+	private final Duration pollTimeout;
+
+	private final Counter replayedCounter;
+	private final Lock replaying = new ReentrantLock();
+
+	public CompletionReplayer(
+		ConsumerFactory<BlockId, Block> newConsumerFactory,
+		KafkaTemplate<BlockId, Block> newKafkaTemplate,
+		MeterRegistry meterRegistry,
+		@Value("${valor.farming.completion.replay-group}")
+		String newReplayGroup,
+		@Value("${valor.farming.completion.replay-poll-timeout}")
+		Duration newPollTimeout
+	) {
+		consumerFactory = newConsumerFactory;
+		kafkaTemplate = newKafkaTemplate;
+		replayGroup = newReplayGroup;
+		pollTimeout = newPollTimeout;
+
+		replayedCounter = Counter.builder("valor.farming.completion.replayed")
+			.description("The number of dead-lettered completions replayed")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Replays the dead letters which are not replayed yet, the records produced after the replaying is started are
+	 * left to next replaying.
+	 *
+	 * @param maxRecords The maximum number of replayed records
+	 *
+	 * @return The number of replayed completions
+	 *
+	 * @throws IllegalStateException if another replaying is running
+	 */
+	public Mono<Integer> replay(int maxRecords)
+	{
+		return Mono.fromCallable(() -> {
+			if (!replaying.tryLock()) {
+				throw new IllegalStateException("Replaying of dead-lettered completions is running");
+			}
+
+			try {
+				return replayWithLock(maxRecords);
+			} finally {
+				replaying.unlock();
+			}
+		})
+			.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * The partitions are assigned directly(no rebalancing of group),
+	 * the dead letters are polled until the end offsets(got before polling) are reached.
+	 */
+	private int replayWithLock(int maxRecords) throws Exception
+	{
+		var consumerProperties = new Properties();
+		consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+		try (var consumer = consumerFactory.createConsumer(replayGroup, null, null, consumerProperties)) {
+			var partitions = consumer.partitionsFor(KafkaConfig.TOPIC_FAILED_COMPLETION_DLT).stream()
+				.map(info -> new TopicPartition(info.topic(), info.partition()))
+				.toList();
+			consumer.assign(partitions);
+
+			var endOffsets = consumer.endOffsets(partitions);
+			var replayedOffsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+			var sending = new ArrayList<CompletableFuture<?>>();
+
+			while (sending.size() < maxRecords && hasRemaining(consumer, partitions, endOffsets)) {
+				for (var record: consumer.poll(pollTimeout)) {
+					if (sending.size() >= maxRecords) {
+						break;
+					}
+
+					sending.add(kafkaTemplate.send(toReplayedRecord(record)).completable());
+					replayedOffsets.put(
+						new TopicPartition(record.topic(), record.partition()),
+						new OffsetAndMetadata(record.offset() + 1)
+					);
+				}
+			}
+
+			/**
+			 * The offsets are committed after every replayed record is acknowledged
+			 */
+			CompletableFuture.allOf(sending.toArray(CompletableFuture[]::new))
+				.get();
+			consumer.commitSync(replayedOffsets);
+			// :~)
+
+			logger.info("Replayed [{}] dead-lettered completions.", sending.size());
+			replayedCounter.increment(sending.size());
+			return sending.size();
+		}
+	}
+
+	private static boolean hasRemaining(
+		Consumer<?, ?> consumer, List<TopicPartition> partitions, Map<TopicPartition, Long> endOffsets
+	) {
+		return partitions.stream()
+			.anyMatch(partition -> consumer.position(partition) < endOffsets.get(partition));
+	}
+
+	private static ProducerRecord<BlockId, Block> toReplayedRecord(ConsumerRecord<BlockId, Block> deadRecord)
+	{
+		var replayedRecord = new ProducerRecord<>(
+			KafkaConfig.TOPIC_FAILED_COMPLETION, deadRecord.key(), deadRecord.value()
+		);
+
+		for (var header: deadRecord.headers()) {
+			if (header.key().startsWith(FarmingConsumerService.HEADER_PREFIX)) {
+				replayedRecord.headers().add(header);
+			}
+		}
+
+		return replayedRecord;
+	}
+}
@@ -0,0 +1,104 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import guru.mikelue.farming.model.Block.BlockId;
+
+/**
+ * Priority-queue timer for finishing activities of blocks at their due time.<p>
+ *
+ * A listener registers the completion of a block and returns immediately,
+ * the completion would be executed by the worker threads of this timer.
+ *
+ * There would be at most one pending completion for a block.
+ * The pending completions are not persisted, they are rebuilt from the
+ * scheduled status of blocks in database.
+ */
+@Component
+public class CompletionTimer {
+	private final static Logger logger = LoggerFactory.getLogger(CompletionTimer.class);
+
+	private final ScheduledThreadPoolExecutor executor;
+	private final Map<BlockId, ScheduledFuture<?>> pendingCompletions = new ConcurrentHashMap<>(1024);
+
+	public CompletionTimer(
+		@Value("${valor.farming.timer.threads}")
+		int threads
+	) {
+		executor = new ScheduledThreadPoolExecutor(
+			threads, new CustomizableThreadFactory("completion-timer-")
+		);
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Registers the completion of a block at certain time.
+	 *
+	 * @param blockId The id of block
+	 * @param dueTime The time to execute the completion, passed time would be executed immediately
+	 * @param completion The completion of activity
+	 *
+	 * @return false if there is a pending completion for the block
+	 */
+	public boolean schedule(BlockId blockId, Instant dueTime, Runnable completion)
+	{
+		var delay = Math.max(
+			0, Duration.between(Instant.now(), dueTime).toMillis()
+		);
+
+		var newFuture = new ScheduledFuture<?>[1];
+		pendingCompletions.computeIfAbsent(
+			blockId,
+			id -> newFuture[0] = executor.schedule(
+				() -> complete(id, completion),
+				delay, TimeUnit.MILLISECONDS
+			)
+		);
+
+		if (newFuture[0] == null) {
+			logger.debug("Block[{}] has pending completion.", blockId);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the number of pending completions.
+	 */
+	public int getPendingCount()
+	{
+		return pendingCompletions.size();
+	}
+
+	@PreDestroy
+	void shutdown()
+	{
+		logger.info("Shutdown timer with [{}] pending completions.", pendingCompletions.size());
+		executor.shutdownNow();
+	}
+
+	private void complete(BlockId blockId, Runnable completion)
+	{
+		try {
+			completion.run();
+		} catch (Exception e) {
+			logger.error("Completion of block[{}] has error.", blockId, e);
+		} finally {
+			pendingCompletions.remove(blockId);
+		}
+	}
+}
@@ -1,23 +1,50 @@
 package guru.mikelue.farming.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 import guru.mikelue.farming.config.KafkaConfig;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.BlockTransition;
 import guru.mikelue.farming.model.CropProperties;
+import guru.mikelue.farming.model.LandShard;
 import guru.mikelue.farming.model.LandLog;
 import guru.mikelue.farming.model.LogActivity;
 import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+import guru.mikelue.farming.repos.cassandra.LandRollupRepos;
 import guru.mikelue.farming.repos.jpa.BlockRepos;
 
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -31,151 +58,569 @@ public class FarmingConsumerService {
 	private BlockRepos blockRepos;
 	@Autowired
 	private LandLogRepos landLogRepos;
+	@Autowired
+	private LandRollupRepos landRollupRepos;
+	@Autowired
+	private CompletionTimer completionTimer;
+	@Autowired
+	private MaturityIndex maturityIndex;
+	@Autowired
+	private LandSummaryService landSummaryService;
+	@Autowired
+	private TransitionLedger transitionLedger;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private KafkaTemplate<BlockId, Block> kafkaTemplate;
+
+	@Value("${valor.farming.scan.fetch-size}")
+	private int scanFetchSize;
+
+	@Value("${valor.farming.timer.rebuild-on-startup}")
+	private boolean rebuildOnStartup;
+
+	@Value("${valor.farming.completion.batch-size}")
+	private int applyingBatchSize;
+
+	@Value("${valor.farming.completion.batch-max-wait}")
+	private Duration applyingMaxWait;
+
+	@Value("${valor.farming.completion.log-retries}")
+	private int logRetries;
+
+	private final static Duration EMITTING_TIMEOUT = Duration.ofSeconds(5);
+	private final static Duration LOG_RETRY_BACKOFF = Duration.ofMillis(100);
+
+	/**
+	 * The prefix of headers of completions sent to {@value KafkaConfig#TOPIC_FAILED_COMPLETION}
+	 */
+	public final static String HEADER_PREFIX = "valor-completion-";
+	final static String HEADER_ACTIVITY = HEADER_PREFIX + "activity";
+	final static String HEADER_TIME = HEADER_PREFIX + "time";
+	final static String HEADER_USED_TIME = HEADER_PREFIX + "used-time";
+	/**
+	 * Marks the completion whose block has been updated, only the log of it is to be inserted
+	 */
+	final static String HEADER_LOG_ONLY = HEADER_PREFIX + "log-only";
+
+	/**
+	 * The completions(emitted by threads of timer) waiting to be applied to databases
+	 */
+	private final Sinks.Many<Completion> completions = Sinks.many().unicast().onBackpressureBuffer();
+	/**
+	 * The number of completions emitted but not applied yet(including the applying batch)
+	 */
+	private final AtomicInteger pendingCompletions = new AtomicInteger(0);
+	private Counter failedCompletions;
+	private Counter deadCompletions;
+	private Scheduler applyingScheduler;
+	private CompletableFuture<Void> applying;
 
 	public FarmingConsumerService () {}
 
-	@KafkaListener(id="farming-sowing", topics=KafkaConfig.TOPIC_SOWING)
-	public void handleSowing(Block block)
+	/**
+	 * The completed activity of a block.
+	 *
+	 * @param activity The activity
+	 * @param block The block to be updated
+	 * @param time The time of activity(for log of land)
+	 * @param usedTime The used time of activity(for log of land)
+	 */
+	record Completion(LogActivity activity, Block block, Instant time, Duration usedTime) {}
+
+	/**
+	 * Starts the applying of completions, which are applied to databases in batches.
+	 */
+	@PostConstruct
+	void startApplying()
 	{
-		var crop = block.getCrop();
-		var sowingDuration = Duration.ofSeconds(
-			CropProperties.getSowingTime(crop)
-		);
-		var matureDuration = Duration.ofSeconds(
-			CropProperties.getGrowingTime(crop)
+		Gauge.builder("valor.farming.completion.pending", pendingCompletions, AtomicInteger::get)
+			.description("The number of completions waiting to be applied to databases")
+			.register(meterRegistry);
+		failedCompletions = Counter.builder("valor.farming.completion.failed")
+			.description("The number of completions failed to be applied to databases")
+			.register(meterRegistry);
+		deadCompletions = Counter.builder("valor.farming.completion.dead-lettered")
+			.description("The number of failed completions exhausted by retrying")
+			.register(meterRegistry);
+
+		applyingScheduler = Schedulers.newSingle("completion-applier");
+
+		applying = completions.asFlux()
+			.bufferTimeout(applyingBatchSize, applyingMaxWait)
+			.publishOn(applyingScheduler)
+			/**
+			 * An error of a batch(including the one thrown before subscribing) must not terminate the applying,
+			 * or the completions are buffered until restart
+			 */
+			.concatMap(batch -> Mono.defer(() -> applyCompletions(batch))
+				.onErrorResume(e -> {
+					logger.error("Applying of [{}] completions has unexpected error.", batch.size(), e);
+					failedCompletions.increment(batch.size());
+					return Mono.empty();
+				})
+				.doFinally(signal -> pendingCompletions.addAndGet(-batch.size()))
+			)
+			// :~)
+			.then()
+			.toFuture();
+	}
+
+	/**
+	 * Applies the buffered completions before shutdown.
+	 */
+	@PreDestroy
+	void stopApplying()
+	{
+		completions.tryEmitComplete();
+
+		try {
+			applying.get(10, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			logger.warn("Applying of remaining completions is not finished: {}", e.getMessage());
+		} finally {
+			applyingScheduler.dispose();
+		}
+	}
+
+	/**
+	 * Registers completions of sowing for a batch of blocks, the offsets are committed
+	 * after the blocks are registered.<p>
+	 *
+	 * The blocks whose transitions have been applied(by {@link TransitionLedger}) are discarded.<p>
+	 *
+	 * The block stays in scheduled status(in database) until the completion is applied,
+	 * so a lost completion(e.g. crashed instance) is rebuilt from database.
+	 */
+	@KafkaListener(id="farming-sowing", topics=KafkaConfig.TOPIC_SOWING, batch="true")
+	public void handleSowing(List<ConsumerRecord<BlockId, Block>> records)
+	{
+		var now = Instant.now().truncatedTo(SECONDS);
+
+		for (var record: records) {
+			var block = record.value();
+			if (transitionLedger.isApplied(block)) {
+				continue;
+			}
+
+			block.setSowTime(now);
+			block.setUpdateTime(now);
+
+			scheduleSowing(block);
+		}
+	}
+
+	@KafkaListener(id="farming-harvesting", topics=KafkaConfig.TOPIC_HARVESTING, batch="true")
+	public void handleHarvesting(List<ConsumerRecord<BlockId, Block>> records)
+	{
+		records.stream()
+			.map(ConsumerRecord::value)
+			.filter(block -> !transitionLedger.isApplied(block))
+			.forEach(this::scheduleHarvesting);
+	}
+
+	@KafkaListener(id="farming-cleaning", topics=KafkaConfig.TOPIC_CLEANING, batch="true")
+	public void handleCleaning(List<ConsumerRecord<BlockId, Block>> records)
+	{
+		records.stream()
+			.map(ConsumerRecord::value)
+			.filter(block -> !transitionLedger.isApplied(block))
+			.forEach(this::scheduleCleaning);
+	}
+
+	/**
+	 * Registers completions of blocks re-sent for remaining in scheduled status too long,
+	 * the activity is decided by the status of block.<p>
+	 *
+	 * This listener is throttled({@link KafkaConfig#RETRY_LISTENER_FACTORY}),
+	 * so the re-sent blocks don't take the capacity of live topics.
+	 */
+	@KafkaListener(
+		id="farming-retry", topics=KafkaConfig.TOPIC_RETRY,
+		containerFactory=KafkaConfig.RETRY_LISTENER_FACTORY
+	)
+	public void handleRetry(List<ConsumerRecord<BlockId, Block>> records)
+	{
+		records.stream()
+			.map(ConsumerRecord::value)
+			.filter(block -> !transitionLedger.isApplied(block))
+			.forEach(this::scheduleCompletion);
+	}
+
+	/**
+	 * Applies a completion failed to be applied(by {@link #applyCompletions}),
+	 * the error of updating blocks is thrown so the record is forwarded to next topic of retrying(with longer delay).<p>
+	 *
+	 * The completed block keeps the version of the scheduled one, so the completion is not applied
+	 * if the block has been changed(e.g. applied by re-sending of too-long scheduled blocks).<p>
+	 *
+	 * The completion marked by {@value #HEADER_LOG_ONLY} carries the block before updating,
+	 * only the log of it is inserted(the error is thrown for retrying as well).
+	 */
+	@KafkaListener(id="farming-failed-completion", topics=KafkaConfig.TOPIC_FAILED_COMPLETION)
+	public void handleFailedCompletion(ConsumerRecord<BlockId, Block> record)
+	{
+		var completion = fromFailedRecord(record);
+		if (record.headers().lastHeader(HEADER_LOG_ONLY) != null) {
+			insertLogs(List.of(toLandLog(completion)))
+				.block();
+			return;
+		}
+
+		if (transitionLedger.isApplied(completion.block())) {
+			return;
+		}
+
+		var batch = List.of(completion);
+		applyTransitions(batch, updateBlocks(batch))
+			.block();
+	}
+
+	/**
+	 * Handles the completion exhausted by retrying, which is kept in {@value KafkaConfig#TOPIC_FAILED_COMPLETION_DLT}
+	 * until it is replayed({@link CompletionReplayer}).
+	 */
+	public void handleDeadCompletion(ConsumerRecord<BlockId, Block> record)
+	{
+		logger.error("Completion of block is dead-lettered. Activity: {}. Log only: {}. Block: {}",
+			headerValue(record, HEADER_ACTIVITY), record.headers().lastHeader(HEADER_LOG_ONLY) != null,
+			record.value()
 		);
+		deadCompletions.increment();
+	}
 
-		Mono.just(block)
-			.map(b -> {
-				var now = Instant.now().truncatedTo(SECONDS);
-				b.setSowTime(now);
-				b.setUpdateTime(now);
+	/**
+	 * Rebuilds the pending completions from blocks in scheduled status,
+	 * which is triggered when the application gets ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildCompletionsOnStartup()
+	{
+		if (!rebuildOnStartup) {
+			return;
+		}
 
-				return b;
-			})
-			.delayElement(sowingDuration) // Waiting for sowing
-			.map(b -> { // Set-up mature time and status
-				b.setMatureTime(
-					Instant.now()
-						.truncatedTo(SECONDS)
-						.plusSeconds(matureDuration.toSeconds())
-				);
-				b.setHarvestAmount(
-					CropProperties.getHarvestingQuanity(b.getCrop())
-				);
-				b.setStatus(Status.Occupied);
-
-				logger.debug("Sowing: [{}]", b);
-				return b;
-			})
-			.mapNotNull(b -> {
-				var existingBlock = blockRepos.findById(b.getBlockId());
-
-				if (!existingBlock.isPresent()) {
-					logger.warn("[Sowing] The block is not existing in database: [{}]", b.getBlockId());
-					return null;
-				}
-
-				var updatedCount = blockRepos.updateToBeSowed(b);
-
-				if (updatedCount == 1) {
-					/**
-					 * Builds log of land if the updating of block is successful
-					 */
-					var landLog = LandLog.from(existingBlock.get());
-					landLog.setActivity(Sowing);
-					landLog.setUsedTimeSecond((short)sowingDuration.toSeconds());
-					landLog.setTime(b.getSowTime());
-
-					return landLog;
-					// :~)
-				}
-
-				logger.warn("Updating block[{}] to be sowed had nothing updated.", block);
-				return null;
-			})
-			.flatMap(landLogRepos::save)
+		rebuildCompletions(Instant.now());
+	}
+
+	/**
+	 * Registers completions for blocks which are in scheduled status before the checked time.
+	 *
+	 * @return The number of registered completions
+	 */
+	int rebuildCompletions(Instant checkTime)
+	{
+		var numberOfCompletions = blockRepos.scanOldScheduledActivities(checkTime, LandShard.ALL, scanFetchSize)
+			.filter(this::scheduleCompletion)
+			.count()
 			.block();
+
+		logger.info("Rebuilt [{}] completions of scheduled blocks.", numberOfCompletions);
+		return numberOfCompletions.intValue();
 	}
 
-	@KafkaListener(id="farming-harvesting", topics=KafkaConfig.TOPIC_HARVESTING)
-	public void handleHarvesting(Block block)
+	private boolean scheduleCompletion(Block block)
+	{
+		return switch (block.getStatus()) {
+			case ScheduledSow -> {
+				var now = Instant.now().truncatedTo(SECONDS);
+				block.setSowTime(now);
+				block.setUpdateTime(now);
+				yield scheduleSowing(block);
+			}
+			case ScheduledHarvest -> scheduleHarvesting(block);
+			case ScheduledClean -> scheduleCleaning(block);
+			default -> false;
+		};
+	}
+
+	private boolean scheduleSowing(Block block)
+	{
+		var sowingDuration = Duration.ofSeconds(
+			CropProperties.getSowingTime(block.getCrop())
+		);
+
+		return completionTimer.schedule(
+			block.getBlockId(),
+			block.getSowTime().plus(sowingDuration),
+			() -> completeSowing(block, sowingDuration)
+		);
+	}
+
+	private boolean scheduleHarvesting(Block block)
 	{
-		var crop = block.getCrop();
 		var harvestingTime = Instant.now().truncatedTo(SECONDS);
 		var harvestingDuration = Duration.ofSeconds(
-			CropProperties.getHarvestingTime(crop)
+			CropProperties.getHarvestingTime(block.getCrop())
 		);
 
-		Mono.just(block)
-			.delayElement(harvestingDuration)
-			.map(b -> {
-				b = buildCleanBlock(
-					harvestingTime, "Harvesting: [{}] for [{}]",
-					harvestingDuration
-				)
-					.apply(b);
-				b.setComment(null);
-				return b;
-			})
-			.mapNotNull(buildUpdateCleanAndMapToLandLog(
-				Harvesting, harvestingDuration, "Harvesting block[{}] to be cleaned had nothing updated."
-			))
-			.flatMap(landLogRepos::save)
-			.block();
+		return completionTimer.schedule(
+			block.getBlockId(),
+			harvestingTime.plus(harvestingDuration),
+			() -> completeHarvesting(block, harvestingTime, harvestingDuration)
+		);
 	}
 
-	@KafkaListener(id="farming-cleaning", topics=KafkaConfig.TOPIC_CLEANING)
-	public void handleCleaning(Block block)
+	private boolean scheduleCleaning(Block block)
 	{
 		var cleaningTime = Instant.now().truncatedTo(SECONDS);
 		var cleaningDuration = Duration.ofSeconds(
 			RandomUtils.nextInt(2, 10)
 		);
 
-		Mono.just(block)
-			.delayElement(cleaningDuration)
-			.map(buildCleanBlock(
-				cleaningTime,
-				"Cleaning: [{}] for [{}]", cleaningDuration
-			))
-			.mapNotNull(buildUpdateCleanAndMapToLandLog(
-				Cleaning, cleaningDuration, "Cleaning block[{}] had nothing updated."
-			))
-			.flatMap(landLogRepos::save)
-			.block();
+		return completionTimer.schedule(
+			block.getBlockId(),
+			cleaningTime.plus(cleaningDuration),
+			() -> completeCleaning(block, cleaningTime, cleaningDuration)
+		);
 	}
 
-	private Function<Block, LandLog> buildUpdateCleanAndMapToLandLog(
-		LogActivity activity, Duration usedTime, String warningFormat
-	) {
-		return b -> {
-			var existingBlock = blockRepos.findById(b.getBlockId());
-			if (!existingBlock.isPresent()) {
-				logger.warn("[Sowing] The block is not existing in database: [{}]", b.getBlockId());
-				return null;
-			}
+	private void completeSowing(Block block, Duration sowingDuration)
+	{
+		var matureDuration = Duration.ofSeconds(
+			CropProperties.getGrowingTime(block.getCrop())
+		);
+		var sowTime = block.getSowTime();
+
+		// Set-up mature time and status
+		block.setMatureTime(
+			Instant.now()
+				.truncatedTo(SECONDS)
+				.plusSeconds(matureDuration.toSeconds())
+		);
+		block.setHarvestAmount(
+			CropProperties.getHarvestingQuanity(block.getCrop())
+		);
+		block.setStatus(Status.Occupied);
+
+		logger.debug("Sowing: [{}]", block);
+		emitCompletion(new Completion(Sowing, block, sowTime, sowingDuration));
+	}
+
+	private void completeHarvesting(Block block, Instant harvestingTime, Duration harvestingDuration)
+	{
+		buildCleanBlock(
+			harvestingTime, "Harvesting: [{}] for [{}]",
+			harvestingDuration
+		)
+			.apply(block);
+		block.setComment(null);
+
+		emitCompletion(new Completion(Harvesting, block, harvestingTime, harvestingDuration));
+	}
+
+	private void completeCleaning(Block block, Instant cleaningTime, Duration cleaningDuration)
+	{
+		buildCleanBlock(
+			cleaningTime,
+			"Cleaning: [{}] for [{}]", cleaningDuration
+		)
+			.apply(block);
+
+		emitCompletion(new Completion(Cleaning, block, cleaningTime, cleaningDuration));
+	}
+
+	void emitCompletion(Completion completion)
+	{
+		pendingCompletions.incrementAndGet();
+		completions.emitNext(completion, Sinks.EmitFailureHandler.busyLooping(EMITTING_TIMEOUT));
+	}
+
+	/**
+	 * Applies a batch of completions: the blocks are updated by JDBC batches(in one transaction),
+	 * then the logs of updated blocks are inserted by unlogged batches(one for every land),
+	 * and the logs are added to rollups of lands.<p>
+	 *
+	 * If the updating of blocks is failed(e.g. timeout of database), the completions are sent to
+	 * {@value KafkaConfig#TOPIC_FAILED_COMPLETION} for retrying with increasing delays,
+	 * so are the completions of updated blocks whose logs are failed to be inserted(as log only).
+	 *
+	 * @return The number of applied completions
+	 */
+	Mono<Long> applyCompletions(List<Completion> batch)
+	{
+		return Mono.fromCallable(() -> updateBlocks(batch))
+			.onErrorResume(e -> {
+				logger.error("Updating blocks of [{}] completions has error, which are sent to retrying.", batch.size(), e);
+				failedCompletions.increment(batch.size());
+				return sendFailedCompletions(batch, false)
+					.then(Mono.empty());
+			})
+			.flatMap(transitions -> applyTransitions(batch, transitions))
+			.doOnNext(numberOfLogs ->
+				logger.debug("Applied [{}/{}] completions.", numberOfLogs, batch.size())
+			);
+	}
+
+	private List<BlockTransition> updateBlocks(List<Completion> batch)
+	{
+		var sowedBlocks = new ArrayList<Block>(batch.size());
+		var cleanedBlocks = new ArrayList<Block>(batch.size());
+
+		for (var completion: batch) {
+			(completion.activity() == Sowing ? sowedBlocks : cleanedBlocks)
+				.add(completion.block());
+		}
 
-			var updatedCount = blockRepos.updateForCleaning(b);
+		return blockRepos.applyCompletions(sowedBlocks, cleanedBlocks);
+	}
+
+	/**
+	 * Applies the transitions of updated blocks to memory and inserts the logs of them.<p>
+	 *
+	 * The inserting of logs is retried(with backoff) since the blocks have been updated,
+	 * the inserting is idempotent for the logs are keyed by land, time and block.
+	 * If the retries are exhausted, the completions(with blocks before updating) are sent to
+	 * {@value KafkaConfig#TOPIC_FAILED_COMPLETION} with {@value #HEADER_LOG_ONLY}, so the logs are retried by topics
+	 * instead of being lost.
+	 */
+	private Mono<Long> applyTransitions(List<Completion> batch, List<BlockTransition> transitions)
+	{
+		var transitionsById = transitions.stream()
+			.collect(Collectors.toMap(
+				BlockTransition::blockId, Function.identity(),
+				(previous, current) -> current
+			));
 
-			if (updatedCount == 1) {
-				logger.debug("Have cleaned block[{}].", b);
+		var landLogs = new ArrayList<LandLog>(transitions.size());
+		var loggedCompletions = new ArrayList<Completion>(transitions.size());
 
-				/**
-				 * Builds log of land if the updating of block is successful
-				 */
-				var landLog = LandLog.from(existingBlock.get());
-				landLog.setActivity(activity);
-				landLog.setUsedTimeSecond((short)usedTime.toSeconds());
-				landLog.setTime(b.getUpdateTime());
+		for (var completion: batch) {
+			var block = completion.block();
+			var transition = transitionsById.get(block.getBlockId());
 
-				return landLog;
-				// :~)
+			if (transition == null) {
+				logger.warn("[{}] Block[{}] had nothing updated.", completion.activity(), block);
+				continue;
 			}
 
-			logger.warn("Cleaning block[{}] had nothing updated.", b);
-			return null;
-		};
+			transitionLedger.record(transition.previous());
+			landSummaryService.transit(transition.previous(), transition.current());
+
+			// The harvesting would be scheduled right after the block is matured
+			if (completion.activity() == Sowing) {
+				maturityIndex.add(block.getBlockId(), transition.current().getMatureTime());
+			}
+
+			// Builds log of land by the block before updating
+			var loggedCompletion = new Completion(
+				completion.activity(), transition.previous(), completion.time(), completion.usedTime()
+			);
+			landLogs.add(toLandLog(loggedCompletion));
+			loggedCompletions.add(loggedCompletion);
+		}
+
+		return insertLogs(landLogs)
+			.onErrorResume(e -> {
+				logger.error("Inserting logs of [{}] completions has error, which are sent to retrying.", landLogs.size(), e);
+				failedCompletions.increment(loggedCompletions.size());
+				return sendFailedCompletions(loggedCompletions, true)
+					.then(Mono.empty());
+			});
+	}
+
+	/**
+	 * Inserts logs(retried with backoff), then adds them to rollups of lands.<p>
+	 *
+	 * The error of rolling up is ignored, the error of exhausted inserting is emitted.
+	 *
+	 * @return The number of inserted logs
+	 */
+	private Mono<Long> insertLogs(List<LandLog> landLogs)
+	{
+		return landLogRepos.insertInBatchesOfLand(landLogs)
+			.retryWhen(Retry.backoff(logRetries, LOG_RETRY_BACKOFF)
+				.doBeforeRetry(signal -> logger.warn(
+					"Inserting [{}] logs has error(retry: {}): {}",
+					landLogs.size(), signal.totalRetries() + 1, signal.failure().getMessage()
+				))
+			)
+			.flatMap(numberOfLogs -> landRollupRepos.addLogs(landLogs)
+				.onErrorResume(e -> {
+					logger.warn("Rolling up [{}] logs has error: {}", landLogs.size(), e.getMessage());
+					return Mono.empty();
+				})
+				.thenReturn(numberOfLogs)
+			);
+	}
+
+	/**
+	 * Builds the log of land for a completion, whose block is the one before updating.
+	 */
+	private static LandLog toLandLog(Completion completion)
+	{
+		var landLog = LandLog.from(completion.block());
+		landLog.setActivity(completion.activity());
+		landLog.setUsedTimeSecond((short)completion.usedTime().toSeconds());
+		landLog.setTime(completion.time());
+
+		return landLog;
+	}
+
+	/**
+	 * Sends completions to {@value KafkaConfig#TOPIC_FAILED_COMPLETION}, the activity and times are kept by headers.<p>
+	 *
+	 * A completion failed to be sent is left to the re-sending of too-long scheduled blocks,
+	 * except the one of log only(the log is lost, which is logged with the block).
+	 *
+	 * @param logOnly Whether or not only the logs of completions are to be inserted({@value #HEADER_LOG_ONLY})
+	 *
+	 * @return The number of sent completions
+	 */
+	private Mono<Long> sendFailedCompletions(List<Completion> batch, boolean logOnly)
+	{
+		return Flux.fromIterable(batch)
+			.flatMap(completion -> Mono.fromCompletionStage(
+				() -> kafkaTemplate.send(toFailedRecord(completion, logOnly)).completable()
+			)
+				.onErrorResume(e -> {
+					logger.error("Unable to send failed completion. Message: {}. Log only: {}. Block: {}",
+						e.getMessage(), logOnly, completion.block()
+					);
+					return Mono.empty();
+				})
+			)
+			.count();
+	}
+
+	private static ProducerRecord<BlockId, Block> toFailedRecord(Completion completion, boolean logOnly)
+	{
+		var block = completion.block();
+		var record = new ProducerRecord<>(
+			KafkaConfig.TOPIC_FAILED_COMPLETION, block.getBlockId(), block
+		);
+
+		var headers = record.headers();
+		headers.add(HEADER_ACTIVITY, completion.activity().name().getBytes(StandardCharsets.UTF_8));
+		headers.add(HEADER_TIME, completion.time().toString().getBytes(StandardCharsets.UTF_8));
+		headers.add(HEADER_USED_TIME, completion.usedTime().toString().getBytes(StandardCharsets.UTF_8));
+		if (logOnly) {
+			headers.add(HEADER_LOG_ONLY, Boolean.TRUE.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		return record;
+	}
+
+	private static Completion fromFailedRecord(ConsumerRecord<BlockId, Block> record)
+	{
+		return new Completion(
+			LogActivity.valueOf(headerValue(record, HEADER_ACTIVITY)),
+			record.value(),
+			Instant.parse(headerValue(record, HEADER_TIME)),
+			Duration.parse(headerValue(record, HEADER_USED_TIME))
+		);
+	}
+
+	private static String headerValue(ConsumerRecord<?, ?> record, String name)
+	{
+		var header = record.headers().lastHeader(name);
+		if (header == null) {
+			throw new IllegalArgumentException(
+				String.format("Header \"%s\" is missed in record of topic[%s]", name, record.topic())
+			);
+		}
+
+		return new String(header.value(), StandardCharsets.UTF_8);
 	}
 
 	private Function<Block, Block> buildCleanBlock(Instant time, String loggingFormat, Object... formatArgs)
@@ -1,20 +1,30 @@
 package guru.mikelue.farming.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import guru.mikelue.farming.config.KafkaConfig;
 import guru.mikelue.farming.model.Block;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class FarmingProducerService {
+	private final static Logger logger = LoggerFactory.getLogger(FarmingProducerService.class);
+
 	@Autowired
 	private KafkaTemplate<Block.BlockId, Block> kafkaTemplate;
 
+	@Value("${valor.farming.kafka.max-in-flight}")
+	private int maxInFlight;
+
 	public FarmingProducerService () {}
 
 	public Mono<SendResult<Block.BlockId, Block>> sendSowing(Block block)
@@ -41,6 +51,41 @@ public class FarmingProducerService {
 		);
 	}
 
+	/**
+	 * Sends a batch of blocks to the topic through the pipeline of producer.<p>
+	 *
+	 * At most <em>valor.farming.kafka.max-in-flight</em> blocks are waiting for
+	 * acknowledgements, the records are batched by producer(see <em>linger.ms</em> and <em>batch.size</em>).
+	 *
+	 * The acknowledgements are published on bounded-elastic scheduler(once for the whole batch),
+	 * the blocks failed to be sent are logged and skipped.
+	 *
+	 * @param blocks The blocks to be sent
+	 * @param topicName The name of topic
+	 *
+	 * @return The acknowledgements of sent blocks(not in sent order)
+	 */
+	public Flux<SendResult<Block.BlockId, Block>> sendBatch(Flux<Block> blocks, String topicName)
+	{
+		return blocks
+			.flatMap(
+				block -> Mono.fromCompletionStage(
+					() -> kafkaTemplate.send(
+						topicName,
+						block.getBlockId(), block
+					).completable()
+				)
+				.onErrorResume(e -> {
+					logger.error("Unable to send block to [{}]. Message: {}. Block: {}",
+						topicName, e.getMessage(), block
+					);
+					return Mono.empty();
+				}),
+				maxInFlight
+			)
+			.publishOn(Schedulers.boundedElastic());
+	}
+
 	private Mono<SendResult<Block.BlockId, Block>> sendBlockToTopic(
 		Block block,
 		String topicName, String messageForError
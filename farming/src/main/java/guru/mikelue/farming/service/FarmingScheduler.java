@@ -0,0 +1,392 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.repos.jpa.ShardLeaseRepos;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Schedules periodical tasks over shards of lands.<p>
+ *
+ * Lands are split into shards by range of land id, every shard is processed by
+ * the instance which acquires the lease of shard(in database).
+ * A released shard cannot be leased again for a half of the interval of task,
+ * so running instances share the shards of every round instead of processing the same blocks.<p>
+ *
+ * Every instance beats its heart(in database) before a round, and leases at most
+ * {@code ceil(count of shards / live owners)} shards in the round. An owner is live if its heartbeat is within
+ * two intervals of the task, so the shards of a crashed instance are delayed by at most two intervals.
+ *
+ * The shards are processed in parallel on a dedicated scheduler,
+ * the thread of Spring scheduling is not blocked.
+ */
+@Component
+public class FarmingScheduler {
+	private final static Logger logger = LoggerFactory.getLogger(FarmingScheduler.class);
+
+	final static String TASK_HARVESTING = "harvesting";
+	final static String TASK_TOO_LONG_SCHEDULED = "too-long-scheduled";
+	final static String TASK_INDEXED_HARVESTING = "indexed-harvesting";
+
+	@Autowired
+	private FarmingService farmingService;
+
+	@Autowired
+	private LandSummaryService landSummaryService;
+
+	@Autowired
+	private ShardLeaseRepos shardLeaseRepos;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${valor.farming.shard.count}")
+	private int shardCount;
+
+	@Value("${valor.farming.shard.parallelism}")
+	private int parallelism;
+
+	@Value("${valor.farming.shard.owner}")
+	private String owner;
+
+	@Value("${valor.farming.shard.lease-duration}")
+	private Duration leaseDuration;
+
+	@Value("${schedule.harvesting.fixed-delay}")
+	private Duration intervalOfHarvesting;
+
+	@Value("${schedule.too-long-scheduled-activities.fixed-delay}")
+	private Duration intervalOfTooLongScheduled;
+
+	@Value("${valor.farming.duration.too-long-scheduled-activities}")
+	private Duration durationForTooLongScheduledBlocks;
+
+	@Value("${valor.farming.maturity.rebuild-on-startup}")
+	private boolean rebuildMaturityIndexOnStartup;
+
+	private final AtomicBoolean runningOfHarvesting = new AtomicBoolean(false);
+	private final AtomicBoolean runningOfIndexedHarvesting = new AtomicBoolean(false);
+	private final AtomicBoolean runningOfTooLongScheduled = new AtomicBoolean(false);
+	private final AtomicBoolean runningOfSummaryReconciling = new AtomicBoolean(false);
+
+	private Scheduler shardScheduler;
+
+	public FarmingScheduler() {}
+
+	@PostConstruct
+	void init()
+	{
+		shardScheduler = Schedulers.newBoundedElastic(
+			parallelism, Integer.MAX_VALUE, "farming-shard"
+		);
+	}
+
+	@PreDestroy
+	void shutdown()
+	{
+		shardScheduler.dispose();
+	}
+
+	/**
+	 * Beats the heart of this owner when the application gets ready,
+	 * so the shards of first round are shared with others.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void heartbeatOnStartup()
+	{
+		Mono.fromCallable(() -> shardLeaseRepos.heartbeat(owner))
+			.subscribeOn(shardScheduler)
+			.subscribe(
+				n -> logger.debug("Heartbeat of owner: {}", owner),
+				e -> logger.error("Heartbeat of owner has error.", e)
+			);
+	}
+
+	/**
+	 * Rebuilds the maturity index when the application gets ready.<p>
+	 *
+	 * The blocks matured before next round of reconciliation(by database) are indexed,
+	 * others would be collected by the reconciliation.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildMaturityIndexOnStartup()
+	{
+		if (!rebuildMaturityIndexOnStartup) {
+			return;
+		}
+
+		var horizonTime = Instant.now().plus(intervalOfHarvesting);
+
+		farmingService.buildRebuildMaturityIndex(horizonTime)
+			.subscribeOn(shardScheduler)
+			.subscribe(
+				n -> logger.info("Rebuilt maturity index with [{}] blocks.", n),
+				e -> logger.error("Rebuilding of maturity index has error.", e)
+			);
+	}
+
+	/**
+	 * Schedules harvesting for blocks matured by the maturity index, which is ticked every second(by default).
+	 */
+	@Scheduled(
+		initialDelayString="${valor.farming.maturity.tick}",
+		fixedDelayString="${valor.farming.maturity.tick}"
+	)
+	public void processIndexedMaturedBlocks()
+	{
+		if (!runningOfIndexedHarvesting.compareAndSet(false, true)) {
+			return;
+		}
+
+		var checkTime = Instant.now();
+
+		farmingService.buildProcessIndexedMaturedBlocks(checkTime)
+			.count()
+			.subscribeOn(shardScheduler)
+			.doFinally(signal -> runningOfIndexedHarvesting.set(false))
+			.subscribe(
+				n -> {
+					if (n > 0) {
+						logger.info("[{}] Processed [{}] blocks", TASK_INDEXED_HARVESTING, n);
+					}
+				},
+				e -> logger.error("[{}] Processing has error.", TASK_INDEXED_HARVESTING, e)
+			);
+	}
+
+	/**
+	 * Reconciles matured blocks by database periodically(in low frequency),
+	 * which collects the blocks missed by the maturity index(e.g. indexed by a crashed instance).
+	 */
+	@Scheduled(
+		initialDelayString="${schedule.harvesting.initial-delay}",
+		fixedDelayString="${schedule.harvesting.fixed-delay}"
+	)
+	public void processMaturedBlocks()
+	{
+		var checkTime = Instant.now();
+
+		runOnce(
+			TASK_HARVESTING, runningOfHarvesting,
+			buildProcessShards(
+				TASK_HARVESTING, intervalOfHarvesting,
+				shard -> farmingService.buildProcessMaturedBlocks(checkTime, shard)
+			)
+		);
+	}
+
+	/**
+	 * Collects out-dated blocks which remain in scheduled status(sowing, harvesting, or cleaning).
+	 */
+	@Scheduled(
+		initialDelayString="${schedule.too-long-scheduled-activities.initial-delay}",
+		fixedDelayString="${schedule.too-long-scheduled-activities.fixed-delay}"
+	)
+	public void processTooLongScheduledBlocks()
+	{
+		var checkTime = Instant.now().truncatedTo(ChronoUnit.SECONDS)
+			.minusSeconds(durationForTooLongScheduledBlocks.toSeconds());
+
+		runOnce(
+			TASK_TOO_LONG_SCHEDULED, runningOfTooLongScheduled,
+			buildProcessShards(
+				TASK_TOO_LONG_SCHEDULED, intervalOfTooLongScheduled,
+				shard -> farmingService.buildProcessTooLongBlocks(checkTime, shard)
+			)
+		);
+	}
+
+	/**
+	 * Reconciles the summaries(numbers of blocks) of loaded lands with database,
+	 * which catches up the transitions made by other instances.<p>
+	 *
+	 * Every instance reconciles its own summaries, no lease of shard is needed.
+	 */
+	@Scheduled(
+		initialDelayString="${valor.farming.summary.reconcile-interval}",
+		fixedDelayString="${valor.farming.summary.reconcile-interval}"
+	)
+	public void reconcileLandSummaries()
+	{
+		if (!runningOfSummaryReconciling.compareAndSet(false, true)) {
+			return;
+		}
+
+		landSummaryService.buildReconcile()
+			.subscribeOn(shardScheduler)
+			.doFinally(signal -> runningOfSummaryReconciling.set(false))
+			.subscribe(
+				n -> logger.debug("Reconciled summaries of [{}] lands.", n),
+				e -> logger.error("Reconciling of land summaries has error.", e)
+			);
+	}
+
+	/**
+	 * Processes every shard(in random order) which could be leased by this instance,
+	 * bounded by the share of this instance among live owners.
+	 *
+	 * @return The total number of processed blocks
+	 */
+	Mono<Long> buildProcessShards(
+		String task, Duration interval,
+		Function<LandShard, Flux<Block>> processFunc
+	) {
+		var shards = LandShard.split(shardCount);
+		// Instances start with different shards
+		Collections.shuffle(shards);
+
+		var leasedShards = new LeasedShards();
+
+		return Mono.fromCallable(() -> {
+			shardLeaseRepos.heartbeat(owner);
+
+			var liveOwners = Math.max(
+				1, shardLeaseRepos.countLiveOwners(interval.multipliedBy(2).toSeconds())
+			);
+			return (shardCount + liveOwners - 1) / liveOwners;
+		})
+			.subscribeOn(shardScheduler)
+			.doOnNext(maxShards -> logger.debug("[{}] Maximum number of leased shards: {}", task, maxShards))
+			.flatMapMany(maxShards -> Flux.fromIterable(shards)
+				.flatMap(
+					shard -> processShard(task, shard, interval, processFunc, leasedShards, maxShards),
+					parallelism
+				)
+			)
+			.reduce(0L, Long::sum);
+	}
+
+	private Mono<Long> processShard(
+		String task, LandShard shard, Duration interval,
+		Function<LandShard, Flux<Block>> processFunc,
+		LeasedShards leasedShards, int maxShards
+	) {
+		var indexOfShard = (short)shard.index();
+
+		return Mono.fromCallable(() -> leasedShards.tryAcquire(
+			maxShards,
+			() -> shardLeaseRepos.tryAcquire(
+				task, indexOfShard, owner, leaseDuration.toSeconds()
+			) == 1
+		))
+			.filter(Boolean::booleanValue)
+			/**
+			 * The lease is released before the result of shard is emitted
+			 */
+			.flatMap(acquired -> Mono.usingWhen(
+				Mono.fromCallable(() -> {
+					logger.debug("[{}] Leased shard: {}", task, shard);
+					return Timer.start(meterRegistry);
+				}),
+				sample -> Flux.defer(() -> processFunc.apply(shard))
+					.count()
+					.doOnNext(numberOfBlocks -> {
+						processedBlocksOf(task, shard).increment(numberOfBlocks);
+						logger.info("[{}] Shard {} has processed [{}] blocks", task, shard, numberOfBlocks);
+					}),
+				sample -> Mono.fromRunnable(() -> {
+					sample.stop(durationOf(task, shard));
+
+					shardLeaseRepos.release(
+						task, indexOfShard, owner, interval.dividedBy(2).toSeconds()
+					);
+				})
+			))
+			// :~)
+			.subscribeOn(shardScheduler)
+			.onErrorResume(e -> {
+				logger.error("[{}] Shard {} has error.", task, shard, e);
+				return Mono.just(0L);
+			});
+	}
+
+	/**
+	 * Counts the leased shards of a round, the acquiring of leases is serialized(the processing is not),
+	 * so a failed or erroneous acquiring never takes the share of other shards.
+	 */
+	private static class LeasedShards {
+		private final Lock acquiring = new ReentrantLock();
+		private int numberOfLeased = 0;
+
+		boolean tryAcquire(int maxShards, BooleanSupplier acquireFunc)
+		{
+			acquiring.lock();
+			try {
+				if (numberOfLeased >= maxShards || !acquireFunc.getAsBoolean()) {
+					return false;
+				}
+
+				numberOfLeased++;
+				return true;
+			} finally {
+				acquiring.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Runs the task if there is no running one(of previous round).
+	 */
+	private void runOnce(String task, AtomicBoolean running, Mono<Long> processShards)
+	{
+		if (!running.compareAndSet(false, true)) {
+			logger.warn("[{}] Previous round is still running.", task);
+			return;
+		}
+
+		processShards
+			.doFirst(() -> logger.info("[{}] Start processing shards", task))
+			.doFinally(signal -> running.set(false))
+			.subscribe(
+				n -> logger.info("[{}] [Complete] Processed [{}] blocks", task, n),
+				e -> logger.error("[{}] Processing of shards has error.", task, e)
+			);
+	}
+
+	private Counter processedBlocksOf(String task, LandShard shard)
+	{
+		return Counter.builder("valor.farming.shard.blocks")
+			.description("The number of processed blocks of a shard")
+			.tag("task", task)
+			.tag("shard", String.valueOf(shard.index()))
+			.register(meterRegistry);
+	}
+
+	private Timer durationOf(String task, LandShard shard)
+	{
+		return Timer.builder("valor.farming.shard.duration")
+			.description("The duration of processing a shard")
+			.tag("task", task)
+			.tag("shard", String.valueOf(shard.index()))
+			.register(meterRegistry);
+	}
+}
@@ -1,33 +1,31 @@
 package guru.mikelue.farming.service;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.function.Consumer;
-import java.util.function.BiFunction;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import guru.mikelue.farming.config.KafkaConfig;
 import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.farming.model.Block.Status;
 import guru.mikelue.farming.model.Climate;
+import guru.mikelue.farming.model.LandShard;
 import guru.mikelue.farming.repos.jpa.BlockRepos;
-import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
 
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 public class FarmingService {
@@ -40,7 +38,16 @@ public class FarmingService {
 	private BlockRepos blockRepos;
 
 	@Autowired
-	private LandRepos landRepos;
+	private ReactiveBlockRepos reactiveBlockRepos;
+
+	@Autowired
+	private LandCache landCache;
+
+	@Autowired
+	private MaturityIndex maturityIndex;
+
+	@Autowired
+	private LandSummaryService landSummaryService;
 
 	public FarmingService () {}
 
@@ -48,58 +55,38 @@ public class FarmingService {
 	{
 		var changeTime = Instant.now();
 
-		return Mono.just(sowingInfo)
+		// The climate of land is immutable, so the cached land is checked
+		return landCache.findById(sowingInfo.getLandId())
 			// Checks the if the crop fits the climate of land
-			.doOnNext(info -> {
-				var land = landRepos.findById(info.getLandId())
-					.orElseThrow();
-
+			.doOnNext(land -> {
 				var suitableCrops = Climate.SuitableCrops.get(land.getClimate());
-				if (!suitableCrops.contains(info.getCrop())) {
+				if (!suitableCrops.contains(sowingInfo.getCrop())) {
 					throw new UnsuitableCropException(land, sowingInfo.getCrop());
 				}
 			})
-			// Looks for available blocks
-			.flatMapMany(info ->
-				Flux.fromIterable(
-					blockRepos.findAvailableByLandId(
-						info.getLandId(), info.getAskedBlocks()
-					)
+			// Claims available blocks
+			.flatMapMany(land ->
+				reactiveBlockRepos.claimBlocksOfLand(
+					sowingInfo, Status.Available, Status.ScheduledSow,
+					changeTime
 				)
+				.doOnNext(block -> landSummaryService.transit(
+					block.getLandId(),
+					Status.Available, null,
+					Status.ScheduledSow, block.getCrop()
+				))
 				.doOnError(e ->
 					logger.warn(
-						"Looking for avaialbe blocks has error. [{} <-> {}(blocks)]. {}",
-						info.getLandId(), info.getAskedBlocks(), e.getMessage()
+						"Claiming avaialbe blocks has error. [{} <-> {}(blocks)]. {}",
+						sowingInfo.getLandId(), sowingInfo.getAskedBlocks(), e.getMessage()
 					)
 				)
-				.map(block -> {
-					block.setCrop(info.getCrop());
-					block.setComment(info.getComment());
-					block.setUpdateTime(changeTime);
-					return block;
-				})
 			)
-			.mapNotNull(block -> {
-				var haveUpdated = blockRepos.updateStatusByCheckPreviousOne(
-					block, Status.ScheduledSow
-				) == 1;
-
-				return haveUpdated ? block : null;
-			})
-			.onErrorContinue(
-				e -> !UnsuitableCropException.class.isInstance(e),
-				(e, b) -> {
-					logger.error("The status of block[{}] cannot be updated. Exception: {}", b, e);
-				}
-			)
-			.flatMap(block -> {
-				logger.debug("[Send Scheduled Sowing] --> {}.", block);
-
-				block.setStatus(Status.ScheduledSow);
-				return queueService.sendSowing(block)
-					.publishOn(Schedulers.boundedElastic())
-					.thenReturn(block);
-			})
+			.transform(blocks -> queueService.sendBatch(
+				blocks.doOnNext(block -> logger.debug("[Send Scheduled Sowing] --> {}.", block)),
+				KafkaConfig.TOPIC_SOWING
+			))
+			.map(FarmingService::sentBlock)
 			.onErrorContinue(
 				e -> !UnsuitableCropException.class.isInstance(e),
 				(e, b) -> {
@@ -117,207 +104,181 @@ public class FarmingService {
 		var changeTime = Instant.now();
 
 		return Mono.just(new AskBlockAction(cleaningInfo))
+			// The crop of blocks is kept while cleaning
+			.doOnNext(info -> info.setCrop(null))
 			// Gets current avaialbe blocks and substracts from the number of requested
-			.mapNotNull(info -> {
-				var countOfAvailables = blockRepos.countByLandIdAndStatus(
+			.flatMap(info -> reactiveBlockRepos
+				.countByLandIdAndStatus(
 					info.getLandId(), Status.Available, info.getAskedBlocks()
-				);
-
-				info.setAskedBlocks(
-					(short)(info.getAskedBlocks() - countOfAvailables)
-				);
+				)
+				.mapNotNull(countOfAvailables -> {
+					info.setAskedBlocks(
+						(short)(info.getAskedBlocks() - countOfAvailables)
+					);
 
-				return info.getAskedBlocks() > 0 ? info : null;
-			})
-			// Looks for occupied blocks
+					return info.getAskedBlocks() > 0 ? info : null;
+				})
+			)
+			// Claims occupied blocks
 			.flatMapMany(info ->
-				Flux.fromIterable(
-					blockRepos.findOccupiedByLandId(
-						info.getLandId(), info.getAskedBlocks()
-					)
+				reactiveBlockRepos.claimBlocksOfLand(
+					info, Status.Occupied, Status.ScheduledClean,
+					changeTime
 				)
+				.doOnNext(block -> landSummaryService.transit(
+					block.getLandId(),
+					Status.Occupied, block.getCrop(),
+					Status.ScheduledClean, block.getCrop()
+				))
 				.doOnError(e ->
 					logger.warn(
-						"[Clean] Looking for occupied blocks has error. [{} <-> {}(blocks)]. {}",
+						"[Clean] Claiming occupied blocks has error. [{} <-> {}(blocks)]. {}",
 						info.getLandId(), info.getAskedBlocks(), e.getMessage()
 					)
 				)
-				.map(b -> {
-					b.setUpdateTime(changeTime);
-					b.setComment(info.getComment());
-					return b;
-				})
 			)
-			.mapNotNull(block -> {
-				var haveUpdated = blockRepos.updateStatusByCheckPreviousOne(
-					block, Status.ScheduledClean
-				) == 1;
-
-				return haveUpdated ? block : null;
-			})
-			.onErrorContinue((e, b) -> {
-				logger.error("The status of block[{}] cannot be updated: {}", b, e);
-			})
-			.flatMap(block -> {
-				logger.debug("[Send Scheduled Cleaning] --> {}.", block);
-
-				block.setStatus(Status.ScheduledClean);
-
-				return queueService.sendCleaning(block)
-					.publishOn(Schedulers.boundedElastic())
-					.thenReturn(block);
-			})
+			.transform(blocks -> queueService.sendBatch(
+				blocks.doOnNext(block -> logger.debug("[Send Scheduled Cleaning] --> {}.", block)),
+				KafkaConfig.TOPIC_CLEANING
+			))
+			.map(FarmingService::sentBlock)
 			.onErrorContinue((e, b) -> {
 				logger.error("Block[{}] cannot be put into queue: {}", b, e);
 			});
 	}
 
-	private final static int TOO_LONG_PAGE_SIZE = 32;
+	@Value("${valor.farming.scan.fetch-size}")
+	private int scanFetchSize;
 
-	@Value("${valor.farming.duration.too-long-scheduled-activities}")
-	private Duration durationForTooLongScheduledBlocks;
-
-	/**
-	 * Collects out-dated blocks which remain in scheduled status(sowing, harvesting, or cleaning).
-	 */
 	/**
-	 * Collects matured blocks periodically.
+	 * Re-sends blocks of the shard which remain in scheduled status(sowing, harvesting, or cleaning) for too long.<p>
+	 *
+	 * The blocks are sent to the topic of retrying({@value KafkaConfig#TOPIC_RETRY}) by one batch,
+	 * which is consumed by a throttled lane, so the live requests of sowing and cleaning are not delayed.
+	 *
+	 * @param checkTime The blocks are updated before this time
+	 * @param shard The range of lands
 	 */
-	@Scheduled(
-		initialDelayString="${schedule.too-long-scheduled-activities.initial-delay}",
-		fixedDelayString="${schedule.too-long-scheduled-activities.fixed-delay}"
-	)
-	public void processTooLongScheduledBlocks()
+	Flux<Block> buildProcessTooLongBlocks(Instant checkTime, LandShard shard)
 	{
-		var checkTime = Instant.now().truncatedTo(ChronoUnit.SECONDS)
-			.minusSeconds(durationForTooLongScheduledBlocks.toSeconds());
-
-		buildProcessTooLongBlocks(checkTime)
-			.doFirst(() -> {
-				logger.info("Start finding scheduled blocks of too long");
-			})
-			.count()
-			.doOnNext(n -> {
-				logger.info("[Complete] Fetch [{}] blocks of too long", n);
-			})
-			.block();
-	}
+		var scheduledBlocks = blockRepos.scanOldScheduledActivities(checkTime, shard, scanFetchSize)
+			.filter(block -> {
+				if (!SCHEDULED_STATUSES.contains(block.getStatus())) {
+					logger.error("Unable to process non-scheduled block: [{}]", block);
+					return false;
+				}
 
-	Flux<Block> buildProcessTooLongBlocks(Instant checkTime)
-	{
-		return Flux
-			.push(
-				buildSinkerForFindingBlocks(
-					checkTime, TOO_LONG_PAGE_SIZE,
-					blockRepos::findOldScheduledActivities,
-					"Too-Long Scheduled"
-				)
-			)
-			.flatMap(block -> {
 				logger.debug("Re-send scheduled blocks: [{}]. Status: {}", block, block.getStatus());
+				return true;
+			});
 
-				var sendResult = switch (block.getStatus()) {
-					case ScheduledSow -> queueService.sendSowing(block);
-					case ScheduledHarvest -> queueService.sendHarvesting(block);
-					case ScheduledClean -> queueService.sendCleaning(block);
-					default -> {
-						throw new RuntimeException("Unable to process non-scheduled block.");
-					}
-				};
-
-				return sendResult
-					.publishOn(Schedulers.boundedElastic())
-					.thenReturn(block);
-			})
+		return queueService.sendBatch(scheduledBlocks, KafkaConfig.TOPIC_RETRY)
+			.map(FarmingService::sentBlock)
 			.onErrorContinue((e, b) -> {
 				logger.error("Unable to re-send block: [{}]. Exception: {}", b, e);
 			});
 	}
 
+	private final static Set<Status> SCHEDULED_STATUSES = EnumSet.of(
+		Status.ScheduledSow, Status.ScheduledHarvest, Status.ScheduledClean
+	);
+
 	private final static int MATURED_PAGE_SIZE = 32;
 
 	/**
-	 * Collects matured blocks periodically.
+	 * Claims matured blocks of the shard and sends them for harvesting.
+	 *
+	 * @param checkTime The blocks are matured before this time
+	 * @param shard The range of lands
 	 */
-	@Scheduled(
-		initialDelayString="${schedule.harvesting.initial-delay}",
-		fixedDelayString="${schedule.harvesting.fixed-delay}"
-	)
-	public void processMaturedBlocks()
+	Flux<Block> buildProcessMaturedBlocks(Instant checkTime, LandShard shard)
 	{
-		var now = Instant.now();
-
-		buildProcessMaturedBlocks(now)
-			.doFirst(() -> {
-				logger.info("Start finding matured blocks");
-			})
-			.count()
-			.doOnNext(n -> {
-				logger.info("[Complete] Fetch [{}] blocks of matured", n);
-			})
-			.block();
+		return Mono
+			.fromCallable(
+				() -> blockRepos.claimMaturedBlocks(checkTime, shard, MATURED_PAGE_SIZE)
+			)
+			// Claims next batch until there is no more matured blocks
+			.repeat()
+			.takeUntil(blocks -> blocks.size() < MATURED_PAGE_SIZE)
+			.transform(FarmingService::flatClaimedBlocks)
+			.transform(this::sendForHarvesting);
 	}
 
-	Flux<Block> buildProcessMaturedBlocks(Instant checkTime)
+	/**
+	 * Claims blocks matured(by the maturity index) and sends them for harvesting.<p>
+	 *
+	 * If the claiming is failed, the polled blocks are put back to the index(as matured at the checked time),
+	 * so they are claimed by next tick instead of the reconciliation by database.
+	 *
+	 * @param checkTime The blocks are matured before this time
+	 *
+	 * @see MaturityIndex
+	 */
+	Flux<Block> buildProcessIndexedMaturedBlocks(Instant checkTime)
 	{
-		return Flux
-			.push(
-				buildSinkerForFindingBlocks(
-					checkTime, MATURED_PAGE_SIZE,
-					blockRepos::findMaturedBlocksByTime,
-					"Matured"
-				)
+		return Mono
+			.fromCallable(
+				() -> maturityIndex.pollMatured(checkTime, MATURED_PAGE_SIZE)
 			)
-			.mapNotNull(block -> {
-				block.setUpdateTime(checkTime);
+			// Polls next batch until there is no more matured blocks in index
+			.repeat()
+			.takeUntil(blockIds -> blockIds.size() < MATURED_PAGE_SIZE)
+			.filter(blockIds -> !blockIds.isEmpty())
+			.concatMap(blockIds -> Mono.fromCallable(
+				() -> blockRepos.claimMaturedBlocksById(checkTime, blockIds)
+			)
+				.doOnError(e -> {
+					logger.warn("[Matured] Claiming of indexed blocks has error, [{}] blocks are put back to index.", blockIds.size());
+					blockIds.forEach(blockId -> maturityIndex.add(blockId, checkTime));
+				})
+			)
+			.transform(FarmingService::flatClaimedBlocks)
+			.transform(this::sendForHarvesting);
+	}
 
-				var haveUpdated = blockRepos.updateStatusByCheckPreviousOne(
-					block, Status.ScheduledHarvest
-				) == 1;
+	/**
+	 * Rebuilds the maturity index by occupied blocks which would be matured before the time.
+	 *
+	 * @param horizonTime The blocks are matured before this time
+	 *
+	 * @return The number of indexed blocks
+	 */
+	Mono<Long> buildRebuildMaturityIndex(Instant horizonTime)
+	{
+		return reactiveBlockRepos.scanMaturedBlocks(horizonTime, LandShard.ALL, scanFetchSize)
+			.filter(block -> maturityIndex.add(block.getBlockId(), block.getMatureTime()))
+			.count();
+	}
 
-				return haveUpdated ? block : null;
-			})
-			.onErrorContinue((e, b) -> {
-				logger.error("Unable to schedule matured block: [{}]. Exception: {}", b, e);
-			})
-			.flatMap(block -> {
-				logger.debug("[Send Scheduled Harvesting] --> {}.", block);
+	private static Flux<Block> flatClaimedBlocks(Flux<List<Block>> claimedBlocks)
+	{
+		return claimedBlocks
+			.doOnNext(blocks ->
+				logger.debug("[Matured] Claimed blocks: [{}]", blocks.size())
+			)
+			.flatMapIterable(Function.identity());
+	}
 
-				block.setStatus(Status.ScheduledHarvest);
-				return queueService.sendHarvesting(block)
-					.publishOn(Schedulers.boundedElastic())
-					.thenReturn(block);
-			})
+	private Flux<Block> sendForHarvesting(Flux<Block> maturedBlocks)
+	{
+		return queueService.sendBatch(
+			maturedBlocks
+				.doOnNext(block -> landSummaryService.transit(
+					block.getLandId(),
+					Status.Occupied, block.getCrop(),
+					Status.ScheduledHarvest, block.getCrop()
+				))
+				.doOnNext(block -> logger.debug("[Send Scheduled Harvesting] --> {}.", block)),
+			KafkaConfig.TOPIC_HARVESTING
+		)
+			.map(FarmingService::sentBlock)
 			.onErrorContinue((e, b) -> {
 				logger.error("Unable to send message for matured block: [{}]. Exception: {}", b, e);
 			});
 	}
 
-	private static Consumer<FluxSink<Block>> buildSinkerForFindingBlocks(
-		Instant checkTime, int pageSize,
-		BiFunction<Instant, Pageable, Slice<Block>> loadDataFunc,
-		String message
-	) {
-		return (sinker) -> {
-			var page = 0;
-
-			Slice<Block> foundBlocks = null;
-
-			do {
-				var pageable = PageRequest.of(page, pageSize);
-
-				foundBlocks = loadDataFunc.apply(checkTime, pageable);
-
-				logger.debug("[{}] Found blocks: [{}]", message, foundBlocks.getNumberOfElements());
-
-				for (var b: foundBlocks) {
-					sinker.next(b);
-				}
-
-				page++;
-			} while (foundBlocks.hasNext());
-
-			sinker.complete();
-		};
+	private static Block sentBlock(SendResult<BlockId, Block> sendResult)
+	{
+		return sendResult.getProducerRecord().value();
 	}
 }
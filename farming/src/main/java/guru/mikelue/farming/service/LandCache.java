@@ -0,0 +1,144 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.util.UUID;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import guru.mikelue.farming.config.KafkaConfig;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches lands by id, the cache is bounded by size and time to live.<p>
+ *
+ * Concurrent misses of the same land are loaded once(by {@link ReactiveLandRepos}),
+ * a not-existing land is not cached.<p>
+ *
+ * A modified or deleted land is invalidated locally, then the id of land is published to
+ * the compacted topic({@value KafkaConfig#TOPIC_LAND_INVALIDATION}), which is consumed by every instance
+ * (with its own group of consumer). The time to live bounds the staleness if the publishing is lost.<p>
+ *
+ * The statistics are published as meters of {@code cache.*}(tag {@code cache=land}).
+ */
+@Component
+public class LandCache {
+	private final static Logger logger = LoggerFactory.getLogger(LandCache.class);
+
+	public final static String REASON_MODIFIED = "modified";
+	public final static String REASON_DELETED = "deleted";
+
+	private final AsyncCache<UUID, Land> cache;
+	private final ReactiveLandRepos reactiveLandRepos;
+
+	private final DefaultKafkaProducerFactory<String, String> invalidationProducerFactory;
+	private final KafkaTemplate<String, String> invalidationTemplate;
+
+	/**
+	 * The producer of invalidation is not exposed as bean,
+	 * so the ones of Spring Boot(for blocks) are kept.
+	 */
+	public LandCache(
+		ReactiveLandRepos newReactiveLandRepos,
+		KafkaProperties kafkaProperties,
+		MeterRegistry meterRegistry,
+		@Value("${valor.farming.land-cache.max-size}")
+		long maxSize,
+		@Value("${valor.farming.land-cache.ttl}")
+		Duration ttl
+	) {
+		reactiveLandRepos = newReactiveLandRepos;
+
+		cache = CaffeineCacheMetrics.monitor(
+			meterRegistry,
+			Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.<UUID, Land>buildAsync(),
+			"land"
+		);
+
+		invalidationProducerFactory = new DefaultKafkaProducerFactory<>(
+			kafkaProperties.buildProducerProperties(),
+			new StringSerializer(), new StringSerializer()
+		);
+		invalidationTemplate = new KafkaTemplate<>(invalidationProducerFactory);
+	}
+
+	@PreDestroy
+	void shutdown()
+	{
+		invalidationProducerFactory.destroy();
+	}
+
+	/**
+	 * Finds a land by id, the database is accessed only if the land is not cached.
+	 *
+	 * @return empty if the land is not existing
+	 */
+	public Mono<Land> findById(UUID landId)
+	{
+		return Mono.fromFuture(
+			() -> cache.get(
+				landId,
+				(id, executor) -> reactiveLandRepos.findById(id).toFuture()
+			)
+		);
+	}
+
+	/**
+	 * Invalidates a land of this instance and publishes the invalidation to other instances.<p>
+	 *
+	 * An error of publishing is logged only, the land of other instances would be expired by time to live.
+	 *
+	 * @param reason The reason of invalidation, {@link #REASON_MODIFIED} or {@link #REASON_DELETED}
+	 */
+	public Mono<Void> invalidate(UUID landId, String reason)
+	{
+		return Mono.fromRunnable(() -> cache.synchronous().invalidate(landId))
+			.then(Mono.defer(
+				() -> Mono.fromFuture(
+					invalidationTemplate.send(
+						KafkaConfig.TOPIC_LAND_INVALIDATION, landId.toString(), reason
+					)
+						.completable()
+				)
+			))
+			.doOnError(e -> logger.warn("Publishing invalidation of land[{}] has error: {}", landId, e.getMessage()))
+			.onErrorResume(e -> Mono.empty())
+			.then();
+	}
+
+	/**
+	 * Invalidates the land published by any instance(including this one).
+	 */
+	@KafkaListener(
+		id="farming-land-invalidation",
+		topics=KafkaConfig.TOPIC_LAND_INVALIDATION,
+		groupId="${valor.farming.land-cache.invalidation-group}",
+		containerFactory=KafkaConfig.LAND_INVALIDATION_LISTENER_FACTORY
+	)
+	public void handleInvalidation(ConsumerRecord<String, String> record)
+	{
+		logger.debug("Invalidates land[{}]: {}", record.key(), record.value());
+		cache.synchronous().invalidate(UUID.fromString(record.key()));
+	}
+}
@@ -0,0 +1,65 @@
+package guru.mikelue.farming.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Copies the logs of <em>vc_land_log_by_time</em>(partitioned by land only) to
+ * <em>vc_land_log_by_day</em>(partitioned by land and day).<p>
+ *
+ * The copying is enabled by <em>valor.farming.land-log.migrate-on-startup</em>, which should be
+ * turned on by one instance only, once. Running it again is harmless since the inserting of logs is idempotent.
+ */
+@Component
+public class LandLogMigrator {
+	private final Logger logger = LoggerFactory.getLogger(LandLogMigrator.class);
+
+	@Autowired
+	private LandLogRepos landLogRepos;
+
+	@Value("${valor.farming.land-log.migrate-on-startup}")
+	private boolean migrateOnStartup;
+
+	@Value("${valor.farming.scan.fetch-size}")
+	private int fetchSize;
+
+	public LandLogMigrator() {}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrateOnStartup()
+	{
+		if (!migrateOnStartup) {
+			return;
+		}
+
+		logger.info("Copying logs of lands to the table partitioned by day...");
+
+		buildMigrate()
+			.subscribe(
+				n -> logger.info("Copied [{}] logs of lands.", n),
+				e -> logger.error("Copying logs of lands has error.", e)
+			);
+	}
+
+	/**
+	 * Copies logs in batches of fetch size, the batches are inserted one by one.
+	 *
+	 * @return The number of copied logs
+	 */
+	Mono<Long> buildMigrate()
+	{
+		return landLogRepos.scanLogsOfLegacyTable(fetchSize)
+			.buffer(fetchSize)
+			.concatMap(landLogRepos::insertInBatchesOfLand)
+			.reduce(0L, Long::sum);
+	}
+}
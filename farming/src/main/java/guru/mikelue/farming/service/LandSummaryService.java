@@ -0,0 +1,238 @@
+package guru.mikelue.farming.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.BlockCount;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.model.LandSummary;
+import guru.mikelue.farming.model.LandSummary.NumberOfCrop;
+import guru.mikelue.farming.model.LandSummary.NumberOfStatus;
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.repos.reactive.BlockingBridge;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the numbers of blocks(by status and by crop) of lands in memory.<p>
+ *
+ * The numbers of a land are loaded from database when the summary of land is read the first time,
+ * then they are updated incrementally by the transitions of blocks made by this instance.
+ * The transitions made by other instances are caught up by the periodical reconciliation(by database),
+ * so the summary is eventually consistent.
+ */
+@Service
+public class LandSummaryService {
+	private final static Logger logger = LoggerFactory.getLogger(LandSummaryService.class);
+
+	private final static Status[] STATUSES = Status.values();
+	private final static Crop[] CROPS = Crop.values();
+
+	/**
+	 * The number of lands counted by one statement while reconciling
+	 */
+	private final static int RECONCILE_BATCH_SIZE = 256;
+
+	@Autowired
+	private BlockRepos blockRepos;
+
+	@Autowired
+	private BlockingBridge blockingBridge;
+
+	private final Map<UUID, Counters> countersOfLands = new ConcurrentHashMap<>();
+
+	public LandSummaryService() {}
+
+	/**
+	 * Gets the summary of a land, the database is accessed only if the land has not been loaded.
+	 *
+	 * @return empty if the land is not existing
+	 */
+	public Mono<LandSummary> getSummary(UUID landId)
+	{
+		var counters = countersOfLands.get(landId);
+		if (counters != null) {
+			return Mono.just(counters.toSummary(landId));
+		}
+
+		return blockingBridge.call(() -> blockRepos.countBlocksOfLands(List.of(landId)))
+			.filter(counts -> !counts.isEmpty())
+			.map(counts -> countersOfLands
+				.computeIfAbsent(landId, id -> Counters.from(counts, Instant.now()))
+				.toSummary(landId)
+			);
+	}
+
+	/**
+	 * Puts a new land, whose blocks are all available.
+	 */
+	public void addLand(Land land)
+	{
+		var counters = new Counters(Instant.now());
+		counters.ofStatus.set(Status.Available.ordinal(), land.getSize());
+
+		countersOfLands.put(land.getId(), counters);
+	}
+
+	/**
+	 * Removes a deleted land.
+	 */
+	public void removeLand(UUID landId)
+	{
+		countersOfLands.remove(landId);
+	}
+
+	/**
+	 * Moves a block from previous status(and crop) to the current one,
+	 * nothing is changed if the land has not been loaded.
+	 */
+	public void transit(Block previous, Block current)
+	{
+		transit(
+			current.getLandId(),
+			previous.getStatus(), previous.getCrop(),
+			current.getStatus(), current.getCrop()
+		);
+	}
+
+	/**
+	 * Moves a block from previous status(and crop) to the current one,
+	 * nothing is changed if the land has not been loaded.
+	 *
+	 * @param previousCrop The crop before changing, {@code null} for no crop
+	 * @param currentCrop The crop after changing, {@code null} for no crop
+	 */
+	public void transit(
+		UUID landId,
+		Status previousStatus, Crop previousCrop,
+		Status currentStatus, Crop currentCrop
+	) {
+		var counters = countersOfLands.get(landId);
+		if (counters == null) {
+			return;
+		}
+
+		if (previousStatus != currentStatus) {
+			counters.ofStatus.decrementAndGet(previousStatus.ordinal());
+			counters.ofStatus.incrementAndGet(currentStatus.ordinal());
+		}
+
+		if (previousCrop != currentCrop) {
+			if (previousCrop != null) {
+				counters.ofCrop.decrementAndGet(previousCrop.ordinal());
+			}
+			if (currentCrop != null) {
+				counters.ofCrop.incrementAndGet(currentCrop.ordinal());
+			}
+		}
+	}
+
+	/**
+	 * Reconciles the numbers of loaded lands with database, the lands having no block(deleted) are removed.<p>
+	 *
+	 * The transitions applied between the counting and the replacing are overwritten,
+	 * they would be caught up by the next round.
+	 *
+	 * @return The number of reconciled lands
+	 */
+	Mono<Integer> buildReconcile()
+	{
+		return Flux.fromIterable(new ArrayList<>(countersOfLands.keySet()))
+			.buffer(RECONCILE_BATCH_SIZE)
+			.concatMap(landIds -> Mono.fromCallable(() -> {
+				var reconcileTime = Instant.now();
+
+				var countsOfLands = blockRepos.countBlocksOfLands(landIds).stream()
+					.collect(Collectors.groupingBy(BlockCount::landId));
+
+				for (var landId: landIds) {
+					var counts = countsOfLands.get(landId);
+
+					if (counts == null) {
+						logger.debug("Land[{}] has no block, removed from summaries.", landId);
+						countersOfLands.remove(landId);
+						continue;
+					}
+
+					countersOfLands.put(landId, Counters.from(counts, reconcileTime));
+				}
+
+				return countsOfLands.size();
+			}))
+			.reduce(0, Integer::sum);
+	}
+
+	/**
+	 * Gets the number of loaded lands.
+	 */
+	public int getSize()
+	{
+		return countersOfLands.size();
+	}
+
+	private static class Counters {
+		private final AtomicIntegerArray ofStatus = new AtomicIntegerArray(STATUSES.length);
+		private final AtomicIntegerArray ofCrop = new AtomicIntegerArray(CROPS.length);
+		private final Instant reconcileTime;
+
+		private Counters(Instant newReconcileTime)
+		{
+			reconcileTime = newReconcileTime;
+		}
+
+		private static Counters from(List<BlockCount> counts, Instant reconcileTime)
+		{
+			var counters = new Counters(reconcileTime);
+
+			for (var count: counts) {
+				counters.ofStatus.addAndGet(count.status().ordinal(), count.numberOfBlocks());
+
+				if (count.crop() != null) {
+					counters.ofCrop.addAndGet(count.crop().ordinal(), count.numberOfBlocks());
+				}
+			}
+
+			return counters;
+		}
+
+		private LandSummary toSummary(UUID landId)
+		{
+			var blocksOfStatus = new ArrayList<NumberOfStatus>(STATUSES.length);
+			var numberOfBlocks = 0;
+			for (var status: STATUSES) {
+				var number = ofStatus.get(status.ordinal());
+				numberOfBlocks += number;
+				blocksOfStatus.add(new NumberOfStatus(status, number));
+			}
+
+			var blocksOfCrop = new ArrayList<NumberOfCrop>(CROPS.length);
+			for (var crop: CROPS) {
+				var number = ofCrop.get(crop.ordinal());
+				if (number > 0) {
+					blocksOfCrop.add(new NumberOfCrop(crop, number));
+				}
+			}
+
+			return new LandSummary(
+				landId, numberOfBlocks,
+				blocksOfStatus, blocksOfCrop,
+				reconcileTime
+			);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package guru.mikelue.farming.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import guru.mikelue.farming.model.Block.BlockId;
+
+/**
+ * Time-ordered index of occupied blocks by their mature time.<p>
+ *
+ * The index is filled when the sowing of a block is completed,
+ * and the matured blocks are polled(removed) from the head of index every tick of harvesting.
+ *
+ * The index is not persisted, it is rebuilt from occupied blocks in database on startup.
+ * A block could be indexed by more than one instance, the claiming in database decides
+ * which one would schedule the harvesting.
+ */
+@Component
+public class MaturityIndex {
+	private final static Logger logger = LoggerFactory.getLogger(MaturityIndex.class);
+
+	private final static Comparator<Entry> ORDER_OF_ENTRY = Comparator
+		.comparing(Entry::matureTime)
+		.thenComparing(entry -> entry.blockId().getLandId())
+		.thenComparing(entry -> entry.blockId().getId());
+
+	private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER_OF_ENTRY);
+
+	public MaturityIndex() {}
+
+	/**
+	 * Adds a block with its mature time.
+	 *
+	 * @return false if the block has been indexed with the same mature time
+	 */
+	public boolean add(BlockId blockId, Instant matureTime)
+	{
+		var added = entries.add(new Entry(matureTime, blockId));
+
+		if (!added) {
+			logger.debug("Block[{}] has been indexed for maturity.", blockId);
+		}
+
+		return added;
+	}
+
+	/**
+	 * Polls(removes) the blocks which are matured before the checked time, ordered by mature time.
+	 *
+	 * @param checkedTime The blocks are matured before(inclusive) this time
+	 * @param maxBlocks The maximum number of polled blocks
+	 *
+	 * @return The ids of matured blocks
+	 */
+	public List<BlockId> pollMatured(Instant checkedTime, int maxBlocks)
+	{
+		var maturedBlocks = new ArrayList<BlockId>(Math.min(maxBlocks, 64));
+
+		var iterator = entries.iterator();
+
+		while (maturedBlocks.size() < maxBlocks && iterator.hasNext()) {
+			var entry = iterator.next();
+
+			if (entry.matureTime().isAfter(checkedTime)) {
+				break;
+			}
+
+			// The entry could be polled by other thread
+			if (entries.remove(entry)) {
+				maturedBlocks.add(entry.blockId());
+			}
+		}
+
+		return maturedBlocks;
+	}
+
+	/**
+	 * Gets the number of indexed blocks.
+	 */
+	public int getSize()
+	{
+		return entries.size();
+	}
+
+	private record Entry(Instant matureTime, BlockId blockId) {}
+}
@@ -0,0 +1,104 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+
+/**
+ * Keeps the versions of blocks applied by this instance, so the stale deliveries of blocks
+ * (re-sent by sweeping of too-long scheduled blocks, or redelivered by rebalancing of Kafka) are discarded
+ * before any completion is scheduled.<p>
+ *
+ * The version of block is increased by every transition, a delivered block is stale if its version is
+ * not greater than the applied one. A block without version(sent by older instances) is never discarded.<p>
+ *
+ * The ledger is bounded by size and time to live, a stale delivery missed by the ledger(e.g. applied by other instance)
+ * is still discarded by database: a completion is applied only if the version of block is not changed.<p>
+ *
+ * The discarded deliveries are published as meter of {@code valor.farming.transition-ledger.discarded}.
+ */
+@Component
+public class TransitionLedger {
+	private final static Logger logger = LoggerFactory.getLogger(TransitionLedger.class);
+
+	private final Cache<BlockId, Integer> appliedVersions;
+	private final Counter discardedCounter;
+
+	public TransitionLedger(
+		@Value("${valor.farming.transition-ledger.max-size}")
+		long maxSize,
+		@Value("${valor.farming.transition-ledger.ttl}")
+		Duration ttl,
+		MeterRegistry meterRegistry
+	) {
+		appliedVersions = Caffeine.newBuilder()
+			.maximumSize(maxSize)
+			.expireAfterWrite(ttl)
+			.build();
+
+		discardedCounter = Counter.builder("valor.farming.transition-ledger.discarded")
+			.description("The number of stale deliveries of blocks discarded by the ledger")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Records the version of a block, which is applied to database.
+	 *
+	 * @param scheduledBlock The block before applying(in scheduled status)
+	 */
+	public void record(Block scheduledBlock)
+	{
+		if (scheduledBlock.getVersion() == null) {
+			return;
+		}
+
+		appliedVersions.asMap().merge(
+			scheduledBlock.getBlockId(), scheduledBlock.getVersion(), Math::max
+		);
+	}
+
+	/**
+	 * Checks whether or not the transition of delivered block has been applied.
+	 *
+	 * @param deliveredBlock The block received from Kafka
+	 *
+	 * @return true if the delivery should be discarded
+	 */
+	public boolean isApplied(Block deliveredBlock)
+	{
+		var version = deliveredBlock.getVersion();
+		if (version == null) {
+			return false;
+		}
+
+		var appliedVersion = appliedVersions.getIfPresent(deliveredBlock.getBlockId());
+		if (appliedVersion == null || version > appliedVersion) {
+			return false;
+		}
+
+		logger.debug("Block[{}] of version[{}] is stale, applied version: {}",
+			deliveredBlock.getBlockId(), version, appliedVersion
+		);
+		discardedCounter.increment();
+		return true;
+	}
+
+	/**
+	 * Gets the number of recorded blocks.
+	 */
+	public long getSize()
+	{
+		return appliedVersions.estimatedSize();
+	}
+}
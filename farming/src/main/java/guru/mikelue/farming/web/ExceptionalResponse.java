@@ -31,6 +31,16 @@ public interface ExceptionalResponse {
 		);
 	}
 
+	public static <T> Mono<T> badRequest(String format, Object... args)
+	{
+		return Mono.error(
+			() -> new ResponseStatusException(
+				HttpStatus.BAD_REQUEST,
+				String.format(format, args)
+			)
+		);
+	}
+
 	/**
 	 * Builds a function for converting {@link DataIntegrityViolationException} to integral code.
 	 *
@@ -0,0 +1,77 @@
+package guru.mikelue.farming.web;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import org.reactivestreams.Publisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes a {@link Flux} as JSON array element by element.<p>
+ *
+ * The default encoder collects the whole elements into a list before writing an array,
+ * this one writes "[", the elements(separated by ","), and "]" as they are emitted,
+ * so the demand of HTTP client is propagated to the publisher(e.g. cursor of database).<p>
+ *
+ * Streaming media types(e.g. {@code application/x-ndjson}) and {@link Mono} are encoded by {@link Jackson2JsonEncoder}.<p>
+ *
+ * Nothing is written until the first element(with "[") or the completion(as "[]") is emitted,
+ * so an error before any element(e.g. bad request checked by the publisher) is responded with its own status.
+ * Since the status of response has been committed while writing elements,
+ * an error in the middle of the array terminates the connection(the client gets an incomplete array).
+ */
+public class StreamingJsonArrayEncoder extends Jackson2JsonEncoder {
+	private final static byte[] START_ARRAY = { '[' };
+	private final static byte[] SEPARATOR = { ',' };
+	private final static byte[] END_ARRAY = { ']' };
+
+	public StreamingJsonArrayEncoder(ObjectMapper mapper)
+	{
+		super(mapper);
+	}
+
+	@Override
+	public Flux<DataBuffer> encode(
+		Publisher<?> inputStream, DataBufferFactory bufferFactory,
+		ResolvableType elementType, @Nullable MimeType mimeType,
+		@Nullable Map<String, Object> hints
+	) {
+		if (inputStream instanceof Mono ||
+			getStreamingMediaTypeSeparator(mimeType) != null
+		) {
+			return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+		}
+
+		var elements = Flux.from(inputStream)
+			.index()
+			.map(indexAndValue -> {
+				var encodedValue = encodeValue(
+					indexAndValue.getT2(), bufferFactory,
+					elementType, mimeType, hints
+				);
+
+				return bufferFactory.join(List.of(
+					bufferFactory.wrap(indexAndValue.getT1() == 0 ? START_ARRAY : SEPARATOR),
+					encodedValue
+				));
+			})
+			// The "[" of empty array is written after the completion
+			.switchIfEmpty(Mono.fromSupplier(() -> bufferFactory.wrap(START_ARRAY)));
+
+		return elements
+			.concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(END_ARRAY)))
+			.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+}
@@ -59,7 +59,7 @@ import guru.mikelue.misc.testlib.AbstractTestBase;
 @Import({KafkaTestConfig.class, CassandraTestConfig.class})
 @ImportAutoConfiguration(JsonTestersAutoConfiguration.class)
 @TestExecutionListeners(listeners={KafkaTopicListener.class, CassandraDataListener.class}, mergeMode=MERGE_WITH_DEFAULTS)
-@KafkaTopicAction(topics={ KafkaConfig.TOPIC_CLEANING, KafkaConfig.TOPIC_HARVESTING, KafkaConfig.TOPIC_SOWING })
+@KafkaTopicAction(topics={ KafkaConfig.TOPIC_CLEANING, KafkaConfig.TOPIC_HARVESTING, KafkaConfig.TOPIC_SOWING, KafkaConfig.TOPIC_RETRY, KafkaConfig.TOPIC_FAILED_COMPLETION })
 public abstract class AbstractITBase extends AbstractTestBase {
 	@Autowired
 	private WebTestClient webClient;
@@ -0,0 +1,24 @@
+package guru.mikelue.farming.base;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import guru.mikelue.farming.config.ReactiveReposConfig;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+/**
+ * The repositories by R2DBC, the data source(JDBC) is used by {@code @Sql} only.<p>
+ *
+ * Since the R2DBC connections are not in the transaction of test,
+ * the data must be committed before testing and deleted after testing.
+ */
+@SpringBootTest(
+	classes={
+		DataSourceAutoConfiguration.class,
+		ReactiveReposConfig.class
+	},
+	properties="valor.farming.repos.reactive=" + ReactiveReposConfig.REPOS_R2DBC
+)
+public abstract class AbstractR2dbcTestBase extends AbstractTestBase {
+	protected AbstractR2dbcTestBase() {}
+}
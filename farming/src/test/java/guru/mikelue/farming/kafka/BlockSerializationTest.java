@@ -1,11 +1,25 @@
 package guru.mikelue.farming.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serializer;
 import org.junit.jupiter.api.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 
+import guru.mikelue.farming.json.InstantJsonComponent;
+import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.RandomModels;
 import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.Block.Status;
 import guru.mikelue.misc.testlib.AbstractTestBase;
 
 import static org.assertj.core.api.Assertions.*;
@@ -64,6 +78,144 @@ public class BlockSerializationTest extends AbstractTestBase {
 			.isEqualTo(sampleBlockId);
 	}
 
+	/**
+	 * Tests the serialization/deserialization for binary {@link Block}.
+	 */
+	@Test
+	void serializeAndDeserializeValue()
+	{
+		var sampleBlock = RandomModels.randomBlock();
+		sampleBlock.setComment("Wax gourd(冬瓜)");
+		var sampleHeaders = new RecordHeaders();
+
+		var testedBytes = new ValueSerializerImpl()
+			.serialize(null, sampleHeaders, sampleBlock);
+
+		assertThat(sampleHeaders.lastHeader(HEADER_VALUE_FORMAT).value())
+			.asString(StandardCharsets.US_ASCII)
+			.isEqualTo(FORMAT_BINARY_BLOCK);
+		assertThat(testedBytes[0])
+			.isEqualTo(BINARY_VERSION);
+
+		var testedResult = new ValueDeserializerImpl(failedDeserializer())
+			.deserialize(null, sampleHeaders, testedBytes);
+
+		/**
+		 * The time is kept in seconds
+		 */
+		sampleBlock.setSowTime(sampleBlock.getSowTime().truncatedTo(ChronoUnit.SECONDS));
+		sampleBlock.setMatureTime(sampleBlock.getMatureTime().truncatedTo(ChronoUnit.SECONDS));
+		sampleBlock.setUpdateTime(sampleBlock.getUpdateTime().truncatedTo(ChronoUnit.SECONDS));
+		// :~)
+
+		assertThat(testedResult)
+			.usingRecursiveComparison()
+			.isEqualTo(sampleBlock);
+	}
+
+	/**
+	 * Tests the serialization/deserialization for binary {@link Block}(with absent properties).
+	 */
+	@Test
+	void serializeAndDeserializeValueOfAbsentProperties()
+	{
+		var sampleBlock = new Block();
+		sampleBlock.setLandId(UUID.randomUUID());
+		sampleBlock.setId((short)33);
+		sampleBlock.setStatus(Status.Available);
+
+		var sampleHeaders = new RecordHeaders();
+		var testedBytes = new ValueSerializerImpl()
+			.serialize(null, sampleHeaders, sampleBlock);
+
+		var testedResult = new ValueDeserializerImpl(failedDeserializer())
+			.deserialize(null, sampleHeaders, testedBytes);
+
+		assertThat(testedResult)
+			.usingRecursiveComparison()
+			.isEqualTo(sampleBlock);
+	}
+
+	/**
+	 * Tests the size of binary {@link Block}, which is smaller than the JSON one.
+	 */
+	@Test
+	void valueSmallerThanJson()
+	{
+		var sampleBlock = RandomModels.randomBlock();
+		sampleBlock.setComment("Honduras apricot");
+
+		var objectMapper = new ObjectMapper()
+			.registerModule(
+				new SimpleModule()
+					.addSerializer(Instant.class, new InstantJsonComponent.Serializer())
+			);
+
+		try (var jsonSerializer = new JsonSerializer<Block>(objectMapper)) {
+			var jsonBytes = jsonSerializer.serialize(null, new RecordHeaders(), sampleBlock);
+			var binaryBytes = new ValueSerializerImpl()
+				.serialize(null, new RecordHeaders(), sampleBlock);
+
+			assertThat(binaryBytes.length)
+				.isLessThan(jsonBytes.length);
+		}
+	}
+
+	/**
+	 * Tests the deserialization of value without header of format.
+	 */
+	@Test
+	void deserializeValueByFallback()
+	{
+		var sampleBlock = RandomModels.randomBlock();
+
+		var testedResult = new ValueDeserializerImpl((topic, data) -> sampleBlock)
+			.deserialize(null, new RecordHeaders(), new byte[] { '{', '}' });
+
+		assertThat(testedResult)
+			.isSameAs(sampleBlock);
+	}
+
+	/**
+	 * Tests the deserialization of unsupported binary.
+	 */
+	@Test
+	void deserializeValueOfUnsupportedBinary()
+	{
+		var sampleHeaders = new RecordHeaders();
+		var sampleBytes = new ValueSerializerImpl()
+			.serialize(null, sampleHeaders, RandomModels.randomBlock());
+
+		var testedDeserializer = new ValueDeserializerImpl(failedDeserializer());
+
+		/**
+		 * Truncated bytes
+		 */
+		assertThatThrownBy(() -> testedDeserializer.deserialize(
+			null, sampleHeaders, Arrays.copyOf(sampleBytes, sampleBytes.length - 3)
+		))
+			.isInstanceOf(SerializationException.class);
+		// :~)
+
+		/**
+		 * Unknown version
+		 */
+		sampleBytes[0] = BINARY_VERSION + 1;
+		assertThatThrownBy(() -> testedDeserializer.deserialize(
+			null, sampleHeaders, sampleBytes
+		))
+			.isInstanceOf(SerializationException.class)
+			.hasMessageContaining("version");
+		// :~)
+	}
+
+	private static Deserializer<Block> failedDeserializer()
+	{
+		return (topic, data) -> {
+			throw new IllegalStateException("Fallback deserializer should not be used");
+		};
+	}
+
 	private static BlockId randomTestId()
 	{
 		return RandomModels.randomBlock()
@@ -0,0 +1,89 @@
+package guru.mikelue.farming.kafka;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.*;
+
+import guru.mikelue.farming.kafka.BlockSerialization.KeySerializerImpl;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LandAffinityPartitionerTest extends AbstractTestBase {
+	private final static String SAMPLE_TOPIC = "sowing";
+	private final static int NUMBER_OF_PARTITIONS = 8;
+
+	private final LandAffinityPartitioner testedPartitioner = new LandAffinityPartitioner();
+	private final KeySerializerImpl keySerializer = new KeySerializerImpl();
+
+	public LandAffinityPartitionerTest() {}
+
+	/**
+	 * Tests the partitioning of blocks, the blocks of the same land are put to the same partition.
+	 */
+	@Test
+	void partition()
+	{
+		var sampleCluster = sampleCluster();
+
+		var landId = UUID.randomUUID();
+		var partitionsOfLand = IntStream.range(0, 32)
+			.mapToObj(id -> partitionOf(new BlockId(landId, (short)id), sampleCluster))
+			.collect(Collectors.toSet());
+
+		assertThat(partitionsOfLand)
+			.hasSize(1);
+
+		/**
+		 * The lands are spread over partitions
+		 */
+		var partitionsOfLands = IntStream.range(0, 256)
+			.mapToObj(i -> partitionOf(new BlockId(UUID.randomUUID(), (short)0), sampleCluster))
+			.collect(Collectors.toSet());
+
+		assertThat(partitionsOfLands)
+			.hasSize(NUMBER_OF_PARTITIONS);
+		// :~)
+	}
+
+	/**
+	 * Tests the partitioning of key without land id.
+	 */
+	@Test
+	void partitionWithoutKey()
+	{
+		assertThat(
+			testedPartitioner.partition(SAMPLE_TOPIC, null, null, null, null, sampleCluster())
+		)
+			.isBetween(0, NUMBER_OF_PARTITIONS - 1);
+	}
+
+	private int partitionOf(BlockId blockId, Cluster cluster)
+	{
+		return testedPartitioner.partition(
+			SAMPLE_TOPIC,
+			blockId, keySerializer.serialize(SAMPLE_TOPIC, blockId),
+			null, null, cluster
+		);
+	}
+
+	private static Cluster sampleCluster()
+	{
+		var node = new Node(0, "localhost", 9092);
+		var partitions = IntStream.range(0, NUMBER_OF_PARTITIONS)
+			.mapToObj(partition -> new PartitionInfo(
+				SAMPLE_TOPIC, partition, node, new Node[] { node }, new Node[] { node }
+			))
+			.toList();
+
+		return new Cluster("sample-cluster", List.of(node), partitions, Set.of(), Set.of());
+	}
+}
@@ -27,6 +27,7 @@ public class BlockTest extends AbstractJsonTestBase {
 		sampleBlock.setStatus(Block.Status.ScheduledClean);
 		sampleBlock.setComment("hydrant penguin");
 		sampleBlock.setUpdateTime(now);
+		sampleBlock.setVersion(9);
 
 		getLogger().info("JSON of Block: {}", valueToTree(sampleBlock));
 
@@ -38,6 +39,7 @@ public class BlockTest extends AbstractJsonTestBase {
 			.hasJsonPathValue("[?(@.harvest_amount == %d)]", sampleBlock.getHarvestAmount())
 			.hasJsonPathValue("[?(@.status == %d)]", sampleBlock.getStatus().value())
 			.hasJsonPathValue("[?(@.comment == '%s')]", sampleBlock.getComment())
-			.hasJsonPathValue("[?(@.update_time == %d)]", nowAsEpochSeconds);
+			.hasJsonPathValue("[?(@.update_time == %d)]", nowAsEpochSeconds)
+			.hasJsonPathValue("[?(@.version == %d)]", sampleBlock.getVersion());
 	}
 }
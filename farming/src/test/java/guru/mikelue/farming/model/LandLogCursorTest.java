@@ -0,0 +1,42 @@
+package guru.mikelue.farming.model;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LandLogCursorTest extends AbstractTestBase {
+	public LandLogCursorTest() {}
+
+	/**
+	 * Tests the encoding and decoding of cursor.
+	 */
+	@Test
+	void encode()
+	{
+		var sampleCursor = new LandLogCursor(Instant.parse("2020-05-10T23:59:59.123Z"), (short)291);
+
+		var testedText = sampleCursor.encode();
+
+		assertThat(testedText)
+			.matches("[A-Za-z0-9_-]+");
+		assertThat(LandLogCursor.decode(testedText))
+			.isEqualTo(sampleCursor);
+	}
+
+	/**
+	 * Tests the decoding of malformed text.
+	 */
+	@ParameterizedTest
+	@ValueSource(strings={ "!!", "MTIz", "YWJjOjE" })
+	void decodeMalformed(String sampleText)
+	{
+		assertThatThrownBy(() -> LandLogCursor.decode(sampleText))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
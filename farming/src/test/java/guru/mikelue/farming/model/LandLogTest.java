@@ -0,0 +1,43 @@
+package guru.mikelue.farming.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import guru.mikelue.farming.base.AbstractJsonTestBase;
+
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.assertj.core.api.Assertions.*;
+
+public class LandLogTest extends AbstractJsonTestBase {
+	public LandLogTest() {}
+
+	/**
+	 * Tests the day of partition decided by time of log(UTC), which is not a property of JSON.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void setTime(
+		String sampleTime, String expectedDay
+	) {
+		var sampleLog = LandLog.from(RandomModels.randomBlock());
+		sampleLog.setActivity(LogActivity.Sowing);
+		sampleLog.setTime(Instant.parse(sampleTime));
+
+		assertThat(sampleLog.getDay())
+			.isEqualTo(LocalDate.parse(expectedDay));
+		assertAsJsonContent(sampleLog)
+			.doesNotHaveJsonPath("day");
+	}
+	static Arguments[] setTime()
+	{
+		return new Arguments[] {
+			arguments("2020-05-10T00:00:00Z", "2020-05-10"),
+			arguments("2020-05-10T23:59:59.999Z", "2020-05-10"),
+			arguments("2020-05-11T00:00:00Z", "2020-05-11"),
+		};
+	}
+}
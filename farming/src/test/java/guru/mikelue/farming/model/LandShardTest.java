@@ -0,0 +1,73 @@
+package guru.mikelue.farming.model;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LandShardTest extends AbstractTestBase {
+	public LandShardTest() {}
+
+	/**
+	 * Tests the bounds of shards.
+	 */
+	@Test
+	void bounds()
+	{
+		var testedShards = LandShard.split(4);
+
+		assertThat(testedShards)
+			.extracting(LandShard::lowerBound)
+			.containsExactly(
+				UUID.fromString("00000000-0000-0000-0000-000000000000"),
+				UUID.fromString("40000000-0000-0000-0000-000000000000"),
+				UUID.fromString("80000000-0000-0000-0000-000000000000"),
+				UUID.fromString("c0000000-0000-0000-0000-000000000000")
+			);
+
+		assertThat(testedShards.get(2).upperBound())
+			.isEqualTo(UUID.fromString("c0000000-0000-0000-0000-000000000000"));
+		assertThat(testedShards.get(3).upperBound())
+			.isNull();
+	}
+
+	/**
+	 * Tests the checking of land id in shard(compared as unsigned).
+	 */
+	@ParameterizedTest
+	@CsvSource({
+		"00000000-0000-0000-0000-000000000000,0",
+		"7fffffff-ffff-ffff-ffff-ffffffffffff,0",
+		"80000000-0000-0000-0000-000000000000,1",
+		"ffffffff-ffff-ffff-ffff-ffffffffffff,1",
+	})
+	void contains(UUID sampleLandId, int expectedShard)
+	{
+		var testedShards = LandShard.split(2);
+
+		assertThat(testedShards.get(expectedShard).contains(sampleLandId))
+			.isTrue();
+		assertThat(testedShards.get(1 - expectedShard).contains(sampleLandId))
+			.isFalse();
+		assertThat(LandShard.ALL.contains(sampleLandId))
+			.isTrue();
+	}
+
+	/**
+	 * Tests illegal shards.
+	 */
+	@ParameterizedTest
+	@CsvSource({
+		"0,0", "-1,2", "2,2"
+	})
+	void illegalShard(int index, int count)
+	{
+		assertThatThrownBy(() -> new LandShard(index, count))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -92,6 +92,7 @@ public final class RandomModels {
 			faker.date().past(5, 2, MINUTES)
 				.toInstant()
 		);
+		newBlock.setVersion(faker.number().numberBetween(0, 100));
 
 		return newBlock;
 	}
@@ -2,6 +2,7 @@ package guru.mikelue.farming.repos.cassandra;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,8 @@ import guru.mikelue.farming.junit.cassandra.CassandraDataExecutor;
 import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Crop;
 import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandLogBucket;
+import guru.mikelue.farming.model.LandLogCursor;
 import guru.mikelue.farming.model.LogActivity;
 import guru.mikelue.farming.model.RandomModels;
 
@@ -46,8 +49,10 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 	@CassandraData(
 		cqls={
 			"""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = d62e176d-a04c-4710-9ef5-cdf4db1781d5
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
 			"""
 		},
 		phase=AFTER
@@ -107,7 +112,73 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 	}
 
 	/**
-	 * Tests the listing of logs by land(paging).
+	 * Tests the inserting of logs by batches of lands.
+	 */
+	@Test
+	@CassandraData(
+		cqls={
+			"""
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
+			"""
+		},
+		phase=AFTER
+	)
+	void insertInBatchesOfLand()
+	{
+		var landIds = new UUID[] {
+			UUID.fromString("5c0f4a42-1f0e-4d6c-8d67-6a2e1f3c9b10"),
+			UUID.fromString("8e4d3b6a-2c1f-4b7e-9a0d-3f5e6c7b8a91")
+		};
+		var sampleTime = Instant.now().truncatedTo(SECONDS);
+
+		var sampleLogs = Flux.range(0, 5)
+			.map(i -> {
+				var sampleBlock = RandomModels.randomBlock();
+				sampleBlock.setLandId(landIds[i % 2]);
+				sampleBlock.setId(i.shortValue());
+
+				var newLog = LandLog.from(sampleBlock);
+				newLog.setTime(sampleTime);
+				newLog.setUsedTimeSecond((short)5);
+				newLog.setActivity(LogActivity.Cleaning);
+
+				return newLog;
+			})
+			.collectList()
+			.block();
+
+		StepVerifier.create(testedRepos.insertInBatchesOfLand(sampleLogs))
+			.expectNext(5L)
+			.verifyComplete();
+
+		StepVerifier.create(
+			testedRepos.findByPk_LandIdAndPk_Day(
+				landIds[0], LandLog.dayOf(sampleTime),
+				CassandraPageRequest.first(10)
+			)
+		)
+			.assertNext(slice -> assertThat(slice).hasSize(3))
+			.verifyComplete();
+
+		/**
+		 * Asserts the registered day of partition
+		 */
+		StepVerifier.create(
+			testedRepos.findByTimeRangeOfLand(
+				landIds[1], null, null,
+				CassandraPageRequest.first(10)
+			)
+		)
+			.assertNext(slice -> assertThat(slice).hasSize(2))
+			.verifyComplete();
+		// :~)
+	}
+
+	/**
+	 * Tests the listing of logs by land and day(paging).
 	 */
 	@Test
 	@CassandraData(
@@ -117,19 +188,21 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 	@CassandraData(
 		cqls={
 			"""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = 417f4362-10d1-11ed-875f-00155d8fd4c9
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
 			"""
 		},
 		phase=AFTER
 	)
-	void findByLandId()
+	void findByLandIdAndDay()
 	{
 		final var sampleLandId = UUID.fromString("417f4362-10d1-11ed-875f-00155d8fd4c9");
 		final var askedSize = 6;
 
-		var testedResult = testedRepos.findByPk_LandId(
-			sampleLandId,
+		var testedResult = testedRepos.findByPk_LandIdAndPk_Day(
+			sampleLandId, LandLog.dayOf(RandomDataOfLandLog.baseTime),
 			CassandraPageRequest.first(askedSize)
 		);
 		StepVerifier.create(testedResult)
@@ -147,8 +220,10 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 	@CassandraData(
 		cqls={
 			"""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = 417f4362-10d1-11ed-875f-00155d8fd4c9
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
 			"""
 		},
 		phase=AFTER
@@ -199,6 +274,133 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 		};
 	}
 
+	/**
+	 * Tests the listing of logs over partitions of days, the logs are in time order.
+	 */
+	@Test
+	@CassandraData(
+		cqls={
+			"""
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
+			"""
+		},
+		phase=AFTER
+	)
+	void findByTimeRangeOfLandOverDays()
+	{
+		var landId = UUID.fromString("0b6f3c1e-4d2a-4f7b-9c5e-8a1d2e3f4b50");
+
+		/**
+		 * 3 logs for each day of 2020-05-10 ~ 2020-05-13, at 00:00, 08:00, and 16:00
+		 */
+		var sampleLogs = RandomModels.randomLandLogs(
+			12, Instant.parse("2020-05-10T00:00:00Z"), Duration.ofHours(8)
+		);
+		sampleLogs.forEach(log -> log.setLandId(landId));
+
+		StepVerifier.create(testedRepos.insertInBatchesOfLand(sampleLogs))
+			.expectNext(12L)
+			.verifyComplete();
+		// :~)
+
+		/**
+		 * Descending(default), the second page crosses 2020-05-12 and 2020-05-11
+		 */
+		StepVerifier.create(
+			testedRepos.findByTimeRangeOfLand(
+				landId,
+				Instant.parse("2020-05-10T08:00:00Z"), Instant.parse("2020-05-13T08:00:00Z"),
+				CassandraPageRequest.of(1, 4)
+			)
+		)
+			.assertNext(slice -> {
+				assertThat(slice.hasNext()).isTrue();
+				assertThat(slice.getContent())
+					.extracting(LandLog::getBlockId)
+					.containsExactly((short)6, (short)5, (short)4, (short)3);
+			})
+			.verifyComplete();
+		// :~)
+
+		/**
+		 * Ascending, the last page
+		 */
+		StepVerifier.create(
+			testedRepos.findByTimeRangeOfLand(
+				landId, Instant.parse("2020-05-12T00:00:00Z"), null,
+				CassandraPageRequest.of(1, 4, Sort.by(Sort.Direction.ASC, "pk.time"))
+			)
+		)
+			.assertNext(slice -> {
+				assertThat(slice.hasNext()).isFalse();
+				assertThat(slice.getContent())
+					.extracting(LandLog::getBlockId)
+					.containsExactly((short)10, (short)11);
+			})
+			.verifyComplete();
+		// :~)
+	}
+
+	/**
+	 * Tests the listing of logs by cursor, the logs of the same time are resumed by id of block.
+	 */
+	@Test
+	@CassandraData(
+		cqls={
+			"""
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
+			"""
+		},
+		phase=AFTER
+	)
+	void findByTimeRangeOfLandAfter()
+	{
+		var landId = UUID.fromString("6a3e9d2c-7b1f-4e8a-b5c4-2d9f0e1a3b67");
+
+		/**
+		 * Every two logs have the same time, which are from 2020-05-10 ~ 2020-05-13
+		 */
+		var sampleLogs = RandomModels.randomLandLogs(
+			12, Instant.parse("2020-05-10T00:00:00Z"), Duration.ofHours(8)
+		);
+		for (var i = 0; i < sampleLogs.size(); i++) {
+			var log = sampleLogs.get(i);
+			log.setLandId(landId);
+			if (i % 2 == 1) {
+				log.setTime(sampleLogs.get(i - 1).getTime());
+			}
+		}
+
+		StepVerifier.create(testedRepos.insertInBatchesOfLand(sampleLogs))
+			.expectNext(12L)
+			.verifyComplete();
+		// :~)
+
+		var pageable = CassandraPageRequest.first(3);
+		var testedBlockIds = new ArrayList<Short>();
+
+		var slice = testedRepos.findByTimeRangeOfLand(landId, null, null, pageable).block();
+		slice.forEach(log -> testedBlockIds.add(log.getBlockId()));
+
+		while (slice.hasNext()) {
+			var cursor = LandLogCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1));
+			slice = testedRepos.findByTimeRangeOfLandAfter(landId, null, null, cursor, pageable).block();
+			slice.forEach(log -> testedBlockIds.add(log.getBlockId()));
+		}
+
+		assertThat(testedBlockIds)
+			.containsExactly(
+				(short)10, (short)11, (short)8, (short)9, (short)6, (short)7,
+				(short)4, (short)5, (short)2, (short)3, (short)0, (short)1
+			);
+	}
+
 	static class RandomDataOfLandLog implements CassandraDataExecutor {
 		final static UUID LAND_ID = UUID.fromString("417f4362-10d1-11ed-875f-00155d8fd4c9");
 
@@ -223,6 +425,9 @@ public class LandLogReposTest extends AbstractCassandraTestBase {
 					return log;
 				})
 				.flatMap(cassandraTemplate::insert)
+				.then(cassandraTemplate.insert(
+					LandLogBucket.of(LAND_ID, LandLog.dayOf(baseTime))
+				))
 				.then();
 		}
 	}
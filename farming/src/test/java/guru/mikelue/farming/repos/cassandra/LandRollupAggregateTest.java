@@ -0,0 +1,72 @@
+package guru.mikelue.farming.repos.cassandra;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LogActivity;
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.farming.repos.cassandra.LandRollupRepos.RollupKey;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests the aggregation of logs(in memory) before they are written to rollups.
+ */
+public class LandRollupAggregateTest extends AbstractTestBase {
+	public LandRollupAggregateTest() {}
+
+	/**
+	 * Tests the aggregation by hour and by day.
+	 */
+	@Test
+	void aggregate()
+	{
+		var landId = UUID.randomUUID();
+		var day = LocalDate.parse("2020-05-10");
+
+		/**
+		 * 6 logs from 2020-05-10T10:30:00Z ~ 2020-05-10T11:20:00Z
+		 */
+		var sampleLogs = RandomModels.randomLandLogs(
+			6, Instant.parse("2020-05-10T10:30:00Z"), Duration.ofMinutes(10)
+		);
+		for (var log: sampleLogs) {
+			log.setLandId(landId);
+			log.setActivity(LogActivity.Harvesting);
+		}
+		// :~)
+
+		var testedRollups = LandRollupRepos.aggregate(sampleLogs);
+
+		assertThat(testedRollups)
+			.hasSize(3);
+
+		var activity = LogActivity.Harvesting.value().byteValue();
+		var crop = Crop.Lettuce.value().byteValue();
+
+		/**
+		 * Harvest amounts are 11 ~ 16, used times are 7 ~ 12
+		 */
+		var rollupOfHour10 = testedRollups.get(new RollupKey(landId, day, (byte)10, activity, crop));
+		assertThat(rollupOfHour10)
+			.extracting("count", "harvestAmount", "usedTimeSecond", "maxUsedTimeSecond")
+			.containsExactly(3L, 36L, 24L, (short)9);
+
+		var rollupOfHour11 = testedRollups.get(new RollupKey(landId, day, (byte)11, activity, crop));
+		assertThat(rollupOfHour11)
+			.extracting("count", "harvestAmount", "usedTimeSecond", "maxUsedTimeSecond")
+			.containsExactly(3L, 45L, 33L, (short)12);
+
+		var rollupOfDay = testedRollups.get(new RollupKey(landId, day, LandRollupRepos.HOUR_OF_DAY, activity, crop));
+		assertThat(rollupOfDay)
+			.extracting("count", "harvestAmount", "usedTimeSecond", "maxUsedTimeSecond")
+			.containsExactly(6L, 81L, 57L, (short)12);
+		// :~)
+	}
+}
@@ -0,0 +1,92 @@
+package guru.mikelue.farming.repos.cassandra;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import guru.mikelue.farming.base.AbstractCassandraTestBase;
+import guru.mikelue.farming.junit.cassandra.CassandraData;
+import guru.mikelue.farming.model.ActivityStats;
+import guru.mikelue.farming.model.ActivityStats.Granularity;
+import guru.mikelue.farming.model.LogActivity;
+import guru.mikelue.farming.model.RandomModels;
+
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.*;
+import static guru.mikelue.farming.junit.cassandra.CassandraData.Phase.*;
+
+@Import(LandRollupRepos.class)
+public class LandRollupReposTest extends AbstractCassandraTestBase {
+	@Autowired
+	private LandRollupRepos testedRepos;
+
+	public LandRollupReposTest() {}
+
+	/**
+	 * Tests the adding of logs twice, the counters are accumulated and the maximum is kept.
+	 */
+	@Test
+	@CassandraData(
+		cqls={
+			"""
+			TRUNCATE vc_land_rollup
+			""",
+			"""
+			TRUNCATE vc_land_rollup_max
+			"""
+		},
+		phase=AFTER
+	)
+	void addLogs()
+	{
+		var landId = UUID.fromString("c3f1b2a4-5d6e-4f70-8a9b-0c1d2e3f4a5b");
+
+		/**
+		 * 4 logs(2 in every hour), the used times are 7 ~ 10
+		 */
+		var sampleLogs = RandomModels.randomLandLogs(
+			4, Instant.parse("2020-05-10T10:30:00Z"), Duration.ofMinutes(20)
+		);
+		for (var log: sampleLogs) {
+			log.setLandId(landId);
+			log.setActivity(LogActivity.Sowing);
+		}
+		// :~)
+
+		StepVerifier.create(testedRepos.addLogs(sampleLogs))
+			.expectNext(3)
+			.verifyComplete();
+		StepVerifier.create(testedRepos.addLogs(sampleLogs.subList(0, 1)))
+			.expectNext(2)
+			.verifyComplete();
+
+		var day = LocalDate.parse("2020-05-10");
+
+		StepVerifier.create(testedRepos.findStatsOfLand(landId, day, day, Granularity.Day))
+			.assertNext(stats -> assertThat(stats)
+				.hasFieldOrPropertyWithValue("startTime", Instant.parse("2020-05-10T00:00:00Z"))
+				.hasFieldOrPropertyWithValue("numberOfActivities", 5L)
+				.hasFieldOrPropertyWithValue("usedTimeSecond", 41L)
+				.hasFieldOrPropertyWithValue("maxUsedTimeSecond", 10)
+			)
+			.verifyComplete();
+
+		StepVerifier.create(testedRepos.findStatsOfLand(landId, day, day, Granularity.Hour))
+			.assertNext(stats -> assertThat(stats)
+				.hasFieldOrPropertyWithValue("startTime", Instant.parse("2020-05-10T10:00:00Z"))
+				.hasFieldOrPropertyWithValue("numberOfActivities", 3L)
+			)
+			.assertNext(stats -> assertThat(stats)
+				.hasFieldOrPropertyWithValue("startTime", Instant.parse("2020-05-10T11:00:00Z"))
+				.extracting(ActivityStats::maxUsedTimeSecond)
+				.isEqualTo(10)
+			)
+			.verifyComplete();
+	}
+}
@@ -1,6 +1,7 @@
 package guru.mikelue.farming.repos.jpa;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
@@ -9,14 +10,18 @@ import org.springframework.test.context.jdbc.SqlGroup;
 import org.junit.jupiter.api.Test;
 
 import guru.mikelue.farming.base.AbstractJpaTestBase;
+import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.BlockCount;
 import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LandShard;
 import guru.mikelue.farming.model.RandomModels;
 import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.farming.model.Block.Status;
 
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class BlockReposTest extends AbstractJpaTestBase {
 	@Autowired
@@ -127,6 +132,83 @@ public class BlockReposTest extends AbstractJpaTestBase {
 		// :~)
 	}
 
+	/**
+	 * Tests the finding of blocks of a land by keyset.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('8f6ad0a2-4e7b-11ed-9a55-00155da861c9', 'white mulberry', 10, 'Dry'),
+					('9a1cd3f4-4e7b-11ed-8c2e-00155da861c9', 'Archeologist', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_status)
+				VALUES
+					('8f6ad0a2-4e7b-11ed-9a55-00155da861c9', 3, 'Available'),
+					('8f6ad0a2-4e7b-11ed-9a55-00155da861c9', 0, 'Occupied'),
+					('9a1cd3f4-4e7b-11ed-8c2e-00155da861c9', 1, 'Available'), /* Other land */
+					('8f6ad0a2-4e7b-11ed-9a55-00155da861c9', 2, 'Available'),
+					('8f6ad0a2-4e7b-11ed-9a55-00155da861c9', 1, 'Available');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void findBlocksOfLandAfter()
+	{
+		var sampleLandId = UUID.fromString("8f6ad0a2-4e7b-11ed-9a55-00155da861c9");
+
+		var firstPage = testedRepos.findBlocksOfLandAfter(sampleLandId, null, 3);
+		assertThat(firstPage)
+			.extracting("id")
+			.containsExactly((short)0, (short)1, (short)2);
+
+		assertThat(testedRepos.findBlocksOfLandAfter(sampleLandId, firstPage.get(2), 3))
+			.extracting("id")
+			.containsExactly((short)3);
+	}
+
+	/**
+	 * Tests the counting of blocks grouped by land, status and crop.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 'white mulberry', 10, 'Dry'),
+					('d2b7a36c-4e9a-11ed-a8b4-00155da861c9', 'Archeologist', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_status, bl_crop)
+				VALUES
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 0, 'Available', NULL),
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 1, 'Available', NULL),
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 2, 'Occupied', 'Grape'),
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 3, 'Occupied', 'Grape'),
+					('c61d0f7e-4e9a-11ed-8f1b-00155da861c9', 4, 'Occupied', 'Tomato'),
+					('d2b7a36c-4e9a-11ed-a8b4-00155da861c9', 0, 'Available', NULL); /* Other land */
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void countBlocksOfLands()
+	{
+		var sampleLandId = UUID.fromString("c61d0f7e-4e9a-11ed-8f1b-00155da861c9");
+
+		var testedCounts = testedRepos.countBlocksOfLands(List.of(sampleLandId));
+
+		assertThat(testedCounts)
+			.containsExactlyInAnyOrder(
+				new BlockCount(sampleLandId, Status.Available, null, 2),
+				new BlockCount(sampleLandId, Status.Occupied, Crop.Grape, 2),
+				new BlockCount(sampleLandId, Status.Occupied, Crop.Tomato, 1)
+			);
+	}
+
 	/**
 	 * Tests the finding of available blocks by land.
 	 */
@@ -199,6 +281,124 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			.containsExactly((short)2, (short)5,(short)6);
 	}
 
+	/**
+	 * Tests the claiming of blocks(by status) in a land.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate) VALUES('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 'white mulberry', 10, 'Dry')",
+				"""
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_status)
+				VALUES
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 0, null, 'Available'),
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 1, 'Yams', 'Occupied'),
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 2, null, 'Available'),
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 3, 'Yams', 'Occupied'),
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 4, null, 'Available'),
+					('a5c1f0b2-1e0c-11ed-9a0e-00155da861c9', 5, 'Yams', 'ScheduledHarvest');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void claimBlocksOfLand()
+	{
+		final var sampleLandId = UUID.fromString("a5c1f0b2-1e0c-11ed-9a0e-00155da861c9");
+		final var sampleTime = Instant.parse("2018-05-04T10:10:30Z");
+
+		/**
+		 * Claims available blocks with crop
+		 */
+		var sampleAction = new AskBlockAction();
+		sampleAction.setLandId(sampleLandId);
+		sampleAction.setCrop(Crop.Rice);
+		sampleAction.setAskedBlocks((short)2);
+		sampleAction.setComment("bok choy");
+
+		var testedResult = testedRepos.claimBlocksOfLand(
+			sampleAction, Status.Available, Status.ScheduledSow, sampleTime
+		);
+
+		assertThat(testedResult)
+			.hasSize(2)
+			.extracting("id", "status", "crop", "comment", "updateTime")
+			.containsOnly(
+				tuple((short)0, Status.ScheduledSow, Crop.Rice, "bok choy", sampleTime),
+				tuple((short)2, Status.ScheduledSow, Crop.Rice, "bok choy", sampleTime)
+			);
+		// :~)
+
+		/**
+		 * Claims occupied blocks without crop(kept)
+		 */
+		sampleAction.setCrop(null);
+		sampleAction.setAskedBlocks((short)5);
+
+		testedResult = testedRepos.claimBlocksOfLand(
+			sampleAction, Status.Occupied, Status.ScheduledClean, sampleTime
+		);
+
+		assertThat(testedResult)
+			.hasSize(2)
+			.extracting("id", "status", "crop")
+			.containsOnly(
+				tuple((short)1, Status.ScheduledClean, Crop.Yams),
+				tuple((short)3, Status.ScheduledClean, Crop.Yams)
+			);
+		// :~)
+	}
+
+	/**
+	 * Tests the claiming of matured blocks by time.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 0, null, 'Available'),
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 1, '2018-05-04T10:10:32Z', 'ScheduledHarvest'),
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 2, '2018-05-04T10:15:07Z', 'Occupied'), /* Not matured */
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 3, '2018-05-04T10:10:34Z', 'Occupied'),
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 4, '2018-05-04T10:10:30Z', 'Occupied'),
+					('c7a2be2c-1e0c-11ed-a41f-00155da861c9', 5, '2018-05-04T10:10:32Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void claimMaturedBlocks()
+	{
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+
+		/**
+		 * The earlier matured blocks are claimed first
+		 */
+		assertThat(testedRepos.claimMaturedBlocks(sampleTime, LandShard.ALL, 2))
+			.hasSize(2)
+			.extracting("id", "status", "updateTime")
+			.containsOnly(
+				tuple((short)4, Status.ScheduledHarvest, sampleTime),
+				tuple((short)5, Status.ScheduledHarvest, sampleTime)
+			);
+		// :~)
+
+		assertThat(testedRepos.claimMaturedBlocks(sampleTime, LandShard.ALL, 2))
+			.hasSize(1)
+			.extracting("id")
+			.containsExactly((short)3);
+
+		assertThat(testedRepos.claimMaturedBlocks(sampleTime, LandShard.ALL, 2))
+			.isEmpty();
+	}
+
 	/**
 	 * Tests the find of matured(occupied) blocks by time.
 	 */
@@ -241,6 +441,221 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			.containsExactly((short)2, (short)3, (short)6);
 	}
 
+	/**
+	 * Tests the finding of matured(occupied) blocks by keyset.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 'white mulberry', 10, 'Dry'),
+					('4f0c6f5c-1e31-11ed-9b52-00155da861c9', 'Archeologist', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 0, '2018-05-04T10:10:30Z', 'ScheduledHarvest'),
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 1, '2018-05-04T10:15:07Z', 'Occupied'), /* Not matured */
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 2, '2018-05-04T10:10:30Z', 'Occupied'),
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 3, '2018-05-04T10:10:30Z', 'Occupied'),
+					('4f0c6f5c-1e31-11ed-9b52-00155da861c9', 4, '2018-05-04T10:10:30Z', 'Occupied'),
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 5, '2018-05-04T10:10:34Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void findMaturedBlocksAfter()
+	{
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+
+		var firstPage = testedRepos.findMaturedBlocksAfter(sampleTime, LandShard.ALL, null, 2);
+		assertThat(firstPage)
+			.extracting("id")
+			.containsExactly((short)2, (short)3);
+
+		/**
+		 * Blocks of same mature time are sought by land id and id
+		 */
+		var secondPage = testedRepos.findMaturedBlocksAfter(sampleTime, LandShard.ALL, firstPage.get(1), 2);
+		assertThat(secondPage)
+			.extracting("id")
+			.containsExactly((short)4, (short)5);
+		// :~)
+
+		assertThat(testedRepos.findMaturedBlocksAfter(sampleTime, LandShard.ALL, secondPage.get(1), 2))
+			.isEmpty();
+	}
+
+	/**
+	 * Tests the claiming of matured blocks by ids.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('5a2d9c4e-1e31-11ed-8d3a-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('5a2d9c4e-1e31-11ed-8d3a-00155da861c9', 0, '2018-05-04T10:10:30Z', 'Occupied'),
+					('5a2d9c4e-1e31-11ed-8d3a-00155da861c9', 1, '2018-05-04T10:15:07Z', 'Occupied'), /* Not matured */
+					('5a2d9c4e-1e31-11ed-8d3a-00155da861c9', 2, '2018-05-04T10:10:30Z', 'ScheduledHarvest'), /* Claimed */
+					('5a2d9c4e-1e31-11ed-8d3a-00155da861c9', 3, '2018-05-04T10:10:30Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void claimMaturedBlocksById()
+	{
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+		var landId = UUID.fromString("5a2d9c4e-1e31-11ed-8d3a-00155da861c9");
+
+		var blockIds = List.of(
+			new BlockId(landId, (short)0), new BlockId(landId, (short)1),
+			new BlockId(landId, (short)2)
+		);
+
+		assertThat(testedRepos.claimMaturedBlocksById(sampleTime, blockIds))
+			.extracting("id", "status")
+			.containsExactly(tuple((short)0, Status.ScheduledHarvest));
+
+		// Claimed blocks cannot be claimed again
+		assertThat(testedRepos.claimMaturedBlocksById(sampleTime, blockIds))
+			.isEmpty();
+	}
+
+	/**
+	 * Tests the applying of completions by JDBC batches.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('7c3e1a5b-1e31-11ed-8d3a-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_status)
+				VALUES
+					('7c3e1a5b-1e31-11ed-8d3a-00155da861c9', 0, 'Grape', 'ScheduledSow'),
+					('7c3e1a5b-1e31-11ed-8d3a-00155da861c9', 1, 'Grape', 'Available'), /* Not scheduled */
+					('7c3e1a5b-1e31-11ed-8d3a-00155da861c9', 2, 'Grape', 'ScheduledHarvest');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void applyCompletions()
+	{
+		var landId = UUID.fromString("7c3e1a5b-1e31-11ed-8d3a-00155da861c9");
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+
+		var sowedBlocks = List.of(
+			sowedBlock(landId, (short)0, sampleTime),
+			sowedBlock(landId, (short)1, sampleTime)
+		);
+
+		var cleanedBlock = new Block();
+		cleanedBlock.setLandId(landId);
+		cleanedBlock.setId((short)2);
+		cleanedBlock.setUpdateTime(sampleTime);
+
+		/**
+		 * Asserts the blocks before and after updating
+		 */
+		assertThat(testedRepos.applyCompletions(sowedBlocks, List.of(cleanedBlock)))
+			.extracting("current.id", "previous.status", "previous.crop", "current.status")
+			.containsExactly(
+				tuple((short)0, Status.ScheduledSow, Crop.Grape, Status.Occupied),
+				tuple((short)2, Status.ScheduledHarvest, Crop.Grape, Status.Available)
+			);
+		// :~)
+
+		assertThat(testedRepos.findByLandIdOrderById(landId))
+			.extracting("id", "status", "matureTime")
+			.containsExactly(
+				tuple((short)0, Status.Occupied, sampleTime.plusSeconds(20)),
+				tuple((short)1, Status.Available, null),
+				tuple((short)2, Status.Available, null)
+			);
+	}
+
+	/**
+	 * Tests the finding of matured blocks in a shard of lands.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 'white mulberry', 10, 'Dry'),
+					('cf0c6f5c-1e31-11ed-9b52-00155da861c9', 'black mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 0, '2018-05-04T10:10:30Z', 'Occupied'),
+					('2b6f7a0e-1e31-11ed-8d3a-00155da861c9', 1, '2018-05-04T10:10:31Z', 'Occupied'),
+					('cf0c6f5c-1e31-11ed-9b52-00155da861c9', 2, '2018-05-04T10:10:30Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void findMaturedBlocksAfterOfShard()
+	{
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+
+		assertThat(testedRepos.findMaturedBlocksAfter(sampleTime, new LandShard(0, 2), null, 4))
+			.extracting("id")
+			.containsExactly((short)0, (short)1);
+		assertThat(testedRepos.findMaturedBlocksAfter(sampleTime, new LandShard(1, 2), null, 4))
+			.extracting("id")
+			.containsExactly((short)2);
+	}
+
+	/**
+	 * Tests the finding of blocks stay in scheduled activities by keyset.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_status, bl_update_time)
+				VALUES
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 0, 'ScheduledSow', '2018-05-04T10:10:30Z'),
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 1, 'Occupied', '2018-05-04T10:10:30Z'),
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 2, 'ScheduledClean', '2018-05-04T10:10:20Z'),
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 3, 'ScheduledHarvest', '2018-05-04T10:10:30Z'),
+					('6e8a1c9a-1e31-11ed-a0d6-00155da861c9', 4, 'ScheduledSow', '2018-05-04T10:30:00Z'); /* Not too old */
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void findOldScheduledActivitiesAfter()
+	{
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+
+		var firstPage = testedRepos.findOldScheduledActivitiesAfter(sampleTime, LandShard.ALL, null, 2);
+		assertThat(firstPage)
+			.extracting("id")
+			.containsExactly((short)2, (short)0);
+
+		assertThat(testedRepos.findOldScheduledActivitiesAfter(sampleTime, LandShard.ALL, firstPage.get(1), 2))
+			.extracting("id")
+			.containsExactly((short)3);
+	}
+
 	/**
 	 * Tests the counting by status in a land.
 	 */
@@ -287,7 +702,7 @@ public class BlockReposTest extends AbstractJpaTestBase {
 	}
 
 	/**
-	 * Tests the updating for sowed block.
+	 * Tests the applying of completion for sowed block.
 	 */
 	@Test
 	@SqlGroup({
@@ -306,13 +721,14 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			executionPhase=BEFORE_TEST_METHOD
 		),
 	})
-	void updateToBeSowed()
+	void applyCompletionsOfSowing()
 	{
 		var sampleBlock = RandomModels.randomBlock();
 		sampleBlock.setLandId(UUID.fromString("f2c008f0-1c52-11ed-b00f-00155da861c9"));
 		sampleBlock.setId((short)0);
+		sampleBlock.setVersion(0);
 
-		testedRepos.updateToBeSowed(sampleBlock);
+		testedRepos.applyCompletions(List.of(sampleBlock), List.of());
 
 		var testedBlock = testedRepos.getReferenceById(sampleBlock.getBlockId());
 		assertThat(testedBlock)
@@ -322,11 +738,12 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			.hasFieldOrPropertyWithValue("matureTime", sampleBlock.getMatureTime())
 			.hasFieldOrPropertyWithValue("harvestAmount", sampleBlock.getHarvestAmount())
 			.hasFieldOrPropertyWithValue("updateTime", sampleBlock.getUpdateTime())
-			.hasFieldOrPropertyWithValue("comment", sampleBlock.getComment());
+			.hasFieldOrPropertyWithValue("comment", sampleBlock.getComment())
+			.hasFieldOrPropertyWithValue("version", 1);
 	}
 
 	/**
-	 * Tests the updating for cleaned block.
+	 * Tests the applying of completion for cleaned block.
 	 */
 	@Test
 	@SqlGroup({
@@ -338,20 +755,21 @@ public class BlockReposTest extends AbstractJpaTestBase {
 					('690af39c-1c73-11ed-8d6e-00155da861c9', 'white mulberry', 10, 'Dry');
 				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_sow_time, bl_mature_time, bl_harvest_amount, bl_status)
 				VALUES
-					('690af39c-1c73-11ed-8d6e-00155da861c9', 0, 'Yams', NOW(), NOW(), 3, 'Occupied'),
+					('690af39c-1c73-11ed-8d6e-00155da861c9', 0, 'Yams', NOW(), NOW(), 3, 'ScheduledClean'),
 					('690af39c-1c73-11ed-8d6e-00155da861c9', 1, 'Yams', NOW(), NOW(), 4, 'Occupied');
 				"""
 			},
 			executionPhase=BEFORE_TEST_METHOD
 		),
 	})
-	void updateForCleaning()
+	void applyCompletionsOfCleaning()
 	{
 		var sampleBlock = RandomModels.randomBlock();
 		sampleBlock.setLandId(UUID.fromString("690af39c-1c73-11ed-8d6e-00155da861c9"));
 		sampleBlock.setId((short)0);
+		sampleBlock.setVersion(0);
 
-		testedRepos.updateForCleaning(sampleBlock);
+		testedRepos.applyCompletions(List.of(), List.of(sampleBlock));
 
 		/**
 		 * Asserts the cleaned block
@@ -364,7 +782,8 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			.hasFieldOrPropertyWithValue("matureTime", null)
 			.hasFieldOrPropertyWithValue("harvestAmount", null)
 			.hasFieldOrPropertyWithValue("updateTime", sampleBlock.getUpdateTime())
-			.hasFieldOrPropertyWithValue("comment", sampleBlock.getComment());
+			.hasFieldOrPropertyWithValue("comment", sampleBlock.getComment())
+			.hasFieldOrPropertyWithValue("version", 1);
 		// :~)
 
 		/**
@@ -383,6 +802,59 @@ public class BlockReposTest extends AbstractJpaTestBase {
 		// :~)
 	}
 
+	/**
+	 * Tests the applying of stale completions, the blocks of different version(or not scheduled) are not updated.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('4be0c3d6-2c1e-11ed-9f1a-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_sow_time, bl_mature_time, bl_harvest_amount, bl_status, bl_version)
+				VALUES
+					('4be0c3d6-2c1e-11ed-9f1a-00155da861c9', 0, 'Yams', NULL, NULL, NULL, 'ScheduledSow', 4),
+					('4be0c3d6-2c1e-11ed-9f1a-00155da861c9', 1, 'Yams', NOW(), NOW(), 3, 'ScheduledHarvest', 4),
+					('4be0c3d6-2c1e-11ed-9f1a-00155da861c9', 2, 'Yams', NOW(), NOW(), 3, 'Occupied', 2);
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+	})
+	void applyCompletionsWithStaleVersion()
+	{
+		var landId = UUID.fromString("4be0c3d6-2c1e-11ed-9f1a-00155da861c9");
+
+		var sowedBlock = RandomModels.randomBlock();
+		sowedBlock.setLandId(landId);
+		sowedBlock.setId((short)0);
+		sowedBlock.setVersion(3);
+
+		var harvestedBlock = RandomModels.randomBlock();
+		harvestedBlock.setLandId(landId);
+		harvestedBlock.setId((short)1);
+		harvestedBlock.setVersion(2);
+
+		// A late cleaning doesn't wipe out the occupied block
+		var cleanedBlock = RandomModels.randomBlock();
+		cleanedBlock.setLandId(landId);
+		cleanedBlock.setId((short)2);
+		cleanedBlock.setVersion(2);
+
+		assertThat(testedRepos.applyCompletions(List.of(sowedBlock), List.of(harvestedBlock, cleanedBlock)))
+			.isEmpty();
+
+		assertThat(testedRepos.findByLandIdOrderById(landId))
+			.extracting("id", "status", "version")
+			.containsExactly(
+				tuple((short)0, Status.ScheduledSow, 4),
+				tuple((short)1, Status.ScheduledHarvest, 4),
+				tuple((short)2, Status.Occupied, 2)
+			);
+	}
+
 	/**
 	 * Tests the updating for cleaned block.
 	 */
@@ -421,4 +893,18 @@ public class BlockReposTest extends AbstractJpaTestBase {
 			.extracting("id")
 			.containsExactly((short) 2, (short) 1, (short) 0);
 	}
+
+	private static Block sowedBlock(UUID landId, short id, Instant sowTime)
+	{
+		var block = new Block();
+		block.setLandId(landId);
+		block.setId(id);
+		block.setCrop(Crop.Grape);
+		block.setSowTime(sowTime);
+		block.setMatureTime(sowTime.plusSeconds(20));
+		block.setHarvestAmount((short)10);
+		block.setUpdateTime(sowTime);
+
+		return block;
+	}
 }
@@ -0,0 +1,99 @@
+package guru.mikelue.farming.repos.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeysetScannerTest extends AbstractTestBase {
+	public KeysetScannerTest() {}
+
+	/**
+	 * Tests the scanning of pages sought by last block.
+	 */
+	@Test
+	void scan()
+	{
+		final var totalBlocks = 25;
+		final var fetchSize = 10;
+
+		var sampleBlocks = randomBlocks(totalBlocks);
+		var lastBlocks = new ArrayList<Block>();
+
+		var testedResult = KeysetScanner.scan(
+			(lastBlock, size) -> {
+				lastBlocks.add(lastBlock);
+
+				var from = lastBlock == null ? 0 : lastBlock.getId() + 1;
+				return sampleBlocks.subList(from, Math.min(from + size, totalBlocks));
+			},
+			fetchSize
+		);
+
+		StepVerifier.create(testedResult)
+			.expectNextSequence(sampleBlocks)
+			.verifyComplete();
+
+		/**
+		 * Asserts the seeking(the last page is smaller than fetch size)
+		 */
+		assertThat(lastBlocks)
+			.containsExactly(null, sampleBlocks.get(9), sampleBlocks.get(19));
+		// :~)
+	}
+
+	/**
+	 * Tests the fetching of pages driven by demand.
+	 */
+	@Test
+	void scanByDemand()
+	{
+		final var fetchSize = 10;
+
+		var sampleBlocks = randomBlocks(fetchSize);
+		var numberOfFetches = new int[1];
+
+		var testedResult = KeysetScanner.scan(
+			(lastBlock, size) -> {
+				numberOfFetches[0]++;
+				return sampleBlocks;
+			},
+			fetchSize
+		);
+
+		StepVerifier.create(testedResult, 15)
+			.expectNextCount(15)
+			.thenCancel()
+			.verify();
+
+		/**
+		 * The scanning is infinite, but only needed pages are fetched
+		 */
+		assertThat(numberOfFetches[0])
+			.isLessThanOrEqualTo(3);
+		// :~)
+	}
+
+	private static List<Block> randomBlocks(int number)
+	{
+		var landId = UUID.randomUUID();
+		var result = new ArrayList<Block>(number);
+
+		for (var i = 0; i < number; i++) {
+			var newBlock = new Block();
+			newBlock.setLandId(landId);
+			newBlock.setId((short)i);
+			result.add(newBlock);
+		}
+
+		return result;
+	}
+}
@@ -91,7 +91,7 @@ public class LandReposTest extends AbstractJpaTestBase {
 	{
 		var newLand = new Land();
 		newLand.setName("panda");
-		newLand.setSize((short)(CustomizedLandReposImpl.BATCH_SIZE + 77));
+		newLand.setSize((short)2077);
 		newLand.setClimate(Climate.Polar);
 		testedRepos.addNewWithBlocks(newLand);
 
@@ -103,6 +103,7 @@ public class LandReposTest extends AbstractJpaTestBase {
 		assertThat(blocks).hasSize(newLand.getSize());
 
 		assertThat(blocks.get(5).getStatus()).isEqualTo(Block.Status.Available);
+		assertThat(blocks.get(2076).getId()).isEqualTo((short)2076);
 		// :~)
 	}
 
@@ -0,0 +1,118 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlockingBridgeTest extends AbstractTestBase {
+	private SimpleMeterRegistry meterRegistry;
+	private BlockingBridge testedBridge;
+
+	public BlockingBridgeTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		meterRegistry = new SimpleMeterRegistry();
+		testedBridge = new BlockingBridge(1, 1, meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		testedBridge.shutdown();
+	}
+
+	/**
+	 * Tests the rejection of calls while the queue is full.
+	 */
+	@Test
+	void callWithSaturation() throws InterruptedException
+	{
+		var startedLatch = new CountDownLatch(1);
+		var releaseLatch = new CountDownLatch(1);
+
+		/**
+		 * The only thread is occupied, the second call is queued
+		 */
+		var runningCall = testedBridge.call(() -> {
+			startedLatch.countDown();
+			releaseLatch.await();
+			return 1;
+		})
+			.toFuture();
+		assertThat(startedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+		var queuedCall = testedBridge.call(() -> 2).toFuture();
+		// :~)
+
+		StepVerifier.create(testedBridge.call(() -> 3))
+			.expectError(BlockingBridgeSaturatedException.class)
+			.verify();
+
+		assertThat(meterRegistry.get("valor.farming.blocking-bridge.queued").gauge().value())
+			.isEqualTo(1d);
+		assertThat(meterRegistry.get("valor.farming.blocking-bridge.rejected").counter().count())
+			.isEqualTo(1d);
+
+		/**
+		 * The queued call is run after the running one is finished
+		 */
+		releaseLatch.countDown();
+
+		StepVerifier.create(Mono.fromFuture(runningCall).then(Mono.fromFuture(queuedCall)))
+			.expectNext(2)
+			.expectComplete()
+			.verify(Duration.ofSeconds(5));
+
+		assertThat(meterRegistry.get("valor.farming.blocking-bridge.queued").gauge().value())
+			.isEqualTo(0d);
+		assertThat(meterRegistry.get("valor.farming.blocking-bridge.wait").timer().count())
+			.isEqualTo(2);
+		// :~)
+	}
+
+	/**
+	 * Tests the cancellation of queued call, which leaves the queue.
+	 */
+	@Test
+	void callWithCancellation() throws InterruptedException
+	{
+		var startedLatch = new CountDownLatch(1);
+		var releaseLatch = new CountDownLatch(1);
+
+		/**
+		 * The only thread is occupied(the running call has left the queue)
+		 */
+		var runningCall = testedBridge.call(() -> {
+			startedLatch.countDown();
+			releaseLatch.await();
+			return 1;
+		})
+			.subscribe();
+		assertThat(startedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+		// :~)
+
+		var queuedCall = testedBridge.call(() -> 2).subscribe();
+		queuedCall.dispose();
+
+		assertThat(meterRegistry.get("valor.farming.blocking-bridge.queued").gauge().value())
+			.isEqualTo(0d);
+
+		releaseLatch.countDown();
+		runningCall.dispose();
+	}
+}
@@ -0,0 +1,109 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Injectable;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JpaBridgedReposTest extends AbstractTestBase {
+
+	@Injectable
+	private BlockRepos mockBlockRepos;
+	@Injectable
+	private LandRepos mockLandRepos;
+
+	private BlockingBridge testBlockingBridge;
+
+	public JpaBridgedReposTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		testBlockingBridge = new BlockingBridge(1, 8, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		testBlockingBridge.shutdown();
+	}
+
+	/**
+	 * Tests the blocking call of JPA, which is run by the bridge instead of the thread of caller.<p>
+	 *
+	 * The blocks are fetched page by page, the next page is sought after the last block of previous one.
+	 */
+	@Test
+	void findByLandIdOrderById()
+	{
+		final var landId = UUID.randomUUID();
+		final var firstPage = List.of(RandomModels.randomBlock(), RandomModels.randomBlock());
+		final var secondPage = List.of(RandomModels.randomBlock());
+		final var threadNames = new StringBuilder();
+
+		new Expectations() {{
+			mockBlockRepos.findBlocksOfLandAfter(landId, null, 2);
+			result = new Delegate<List<Block>>() {
+				@SuppressWarnings("unused")
+				List<Block> find(UUID landId, Block lastBlock, int fetchSize)
+				{
+					threadNames.append(Thread.currentThread().getName());
+					return firstPage;
+				}
+			};
+			times = 1;
+
+			mockBlockRepos.findBlocksOfLandAfter(landId, firstPage.get(1), 2);
+			result = secondPage;
+			times = 1;
+		}};
+
+		var testedRepos = new JpaBridgedBlockRepos(mockBlockRepos, testBlockingBridge, 2);
+
+		StepVerifier.create(testedRepos.findByLandIdOrderById(landId))
+			.expectNextSequence(firstPage)
+			.expectNextSequence(secondPage)
+			.verifyComplete();
+
+		assertThat(threadNames.toString())
+			.startsWith("blocking-bridge");
+	}
+
+	/**
+	 * Tests the finding of not-existing land, which gives empty result.
+	 */
+	@Test
+	void findByIdWithMissed()
+	{
+		final var landId = UUID.randomUUID();
+
+		new Expectations() {{
+			mockLandRepos.findById(landId);
+			result = Optional.empty();
+			times = 1;
+		}};
+
+		var testedRepos = new JpaBridgedLandRepos(mockLandRepos, testBlockingBridge);
+
+		StepVerifier.create(testedRepos.findById(landId))
+			.verifyComplete();
+	}
+}
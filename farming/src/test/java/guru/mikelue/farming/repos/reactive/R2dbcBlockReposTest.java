@@ -0,0 +1,272 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.base.AbstractR2dbcTestBase;
+import guru.mikelue.farming.model.AskBlockAction;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.model.Block.Status;
+
+import reactor.test.StepVerifier;
+
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class R2dbcBlockReposTest extends AbstractR2dbcTestBase {
+	@Autowired
+	private ReactiveBlockRepos testedRepos;
+
+	public R2dbcBlockReposTest() {}
+
+	/**
+	 * Tests the listing of blocks of a land(ordered by id).
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES('6b0d3f5e-5a4c-11ed-8f3e-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_status)
+				VALUES
+					('6b0d3f5e-5a4c-11ed-8f3e-00155da861c9', 2, 'Yams', 'Occupied'),
+					('6b0d3f5e-5a4c-11ed-8f3e-00155da861c9', 0, null, 'Available'),
+					('6b0d3f5e-5a4c-11ed-8f3e-00155da861c9', 1, null, 'Available');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"""
+				DELETE FROM vc_block WHERE bl_ld_id = '6b0d3f5e-5a4c-11ed-8f3e-00155da861c9';
+				DELETE FROM vc_land WHERE ld_id = '6b0d3f5e-5a4c-11ed-8f3e-00155da861c9';
+				"""
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void findByLandIdOrderById()
+	{
+		var testedResult = testedRepos.findByLandIdOrderById(
+			UUID.fromString("6b0d3f5e-5a4c-11ed-8f3e-00155da861c9")
+		)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.extracting("id", "status", "crop")
+			.containsExactly(
+				tuple((short)0, Status.Available, null),
+				tuple((short)1, Status.Available, null),
+				tuple((short)2, Status.Occupied, Crop.Yams)
+			);
+	}
+
+	/**
+	 * Tests the counting by status in a land.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 0, null, 'Available'),
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 1, null, 'Available'),
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 2, null, 'Available'),
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 3, '2018-05-04T10:15:07Z', 'Occupied'),
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 4, '2018-05-04T10:10:30Z', 'Occupied'),
+					('7c2e4a6f-5a4c-11ed-9b1d-00155da861c9', 5, '2018-05-04T10:10:32Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"""
+				DELETE FROM vc_block WHERE bl_ld_id = '7c2e4a6f-5a4c-11ed-9b1d-00155da861c9';
+				DELETE FROM vc_land WHERE ld_id = '7c2e4a6f-5a4c-11ed-9b1d-00155da861c9';
+				"""
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void countByLandIdAndStatus()
+	{
+		final var sampleLandId = UUID.fromString("7c2e4a6f-5a4c-11ed-9b1d-00155da861c9");
+
+		StepVerifier.create(testedRepos.countByLandIdAndStatus(sampleLandId, Status.Available, (short)20))
+			.expectNext((short)3)
+			.verifyComplete();
+
+		// Bounded by the limit
+		StepVerifier.create(testedRepos.countByLandIdAndStatus(sampleLandId, Status.Occupied, (short)2))
+			.expectNext((short)2)
+			.verifyComplete();
+
+		StepVerifier.create(testedRepos.countByLandIdAndStatus(sampleLandId, Status.ScheduledClean, (short)20))
+			.expectNext((short)0)
+			.verifyComplete();
+	}
+
+	/**
+	 * Tests the claiming of blocks(by status) in a land.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 'white mulberry', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_crop, bl_status)
+				VALUES
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 0, null, 'Available'),
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 1, 'Yams', 'Occupied'),
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 2, null, 'Available'),
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 3, 'Yams', 'Occupied'),
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 4, null, 'Available'),
+					('8d3f5b7a-5a4c-11ed-a6c4-00155da861c9', 5, 'Yams', 'ScheduledHarvest');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"""
+				DELETE FROM vc_block WHERE bl_ld_id = '8d3f5b7a-5a4c-11ed-a6c4-00155da861c9';
+				DELETE FROM vc_land WHERE ld_id = '8d3f5b7a-5a4c-11ed-a6c4-00155da861c9';
+				"""
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void claimBlocksOfLand()
+	{
+		final var sampleLandId = UUID.fromString("8d3f5b7a-5a4c-11ed-a6c4-00155da861c9");
+		final var sampleTime = Instant.parse("2018-05-04T10:10:30Z");
+
+		/**
+		 * Claims available blocks with crop, the version is increased
+		 */
+		var sampleAction = new AskBlockAction();
+		sampleAction.setLandId(sampleLandId);
+		sampleAction.setCrop(Crop.Rice);
+		sampleAction.setAskedBlocks((short)2);
+		sampleAction.setComment("bok choy");
+
+		var testedResult = testedRepos.claimBlocksOfLand(
+			sampleAction, Status.Available, Status.ScheduledSow, sampleTime
+		)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.hasSize(2)
+			.extracting("id", "status", "crop", "comment", "updateTime", "version")
+			.containsOnly(
+				tuple((short)0, Status.ScheduledSow, Crop.Rice, "bok choy", sampleTime, 1),
+				tuple((short)2, Status.ScheduledSow, Crop.Rice, "bok choy", sampleTime, 1)
+			);
+		// :~)
+
+		/**
+		 * Claims occupied blocks without crop(kept) and comment
+		 */
+		sampleAction.setCrop(null);
+		sampleAction.setComment(null);
+		sampleAction.setAskedBlocks((short)5);
+
+		testedResult = testedRepos.claimBlocksOfLand(
+			sampleAction, Status.Occupied, Status.ScheduledClean, sampleTime
+		)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.hasSize(2)
+			.extracting("id", "status", "crop", "comment")
+			.containsOnly(
+				tuple((short)1, Status.ScheduledClean, Crop.Yams, null),
+				tuple((short)3, Status.ScheduledClean, Crop.Yams, null)
+			);
+		// :~)
+	}
+
+	/**
+	 * Tests the scanning of matured(occupied) blocks, which is paged by keyset.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 'white mulberry', 10, 'Dry'),
+					('af517d9c-5a4c-11ed-8e08-00155da861c9', 'Archeologist', 10, 'Dry');
+				INSERT INTO vc_block(bl_ld_id, bl_id, bl_mature_time, bl_status)
+				VALUES
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 0, '2001-05-04T10:10:30Z', 'ScheduledHarvest'),
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 1, '2001-05-04T10:15:07Z', 'Occupied'), /* Not matured */
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 2, '2001-05-04T10:10:30Z', 'Occupied'),
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 3, '2001-05-04T10:10:30Z', 'Occupied'),
+					('af517d9c-5a4c-11ed-8e08-00155da861c9', 4, '2001-05-04T10:10:30Z', 'Occupied'),
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 5, '2001-05-04T10:10:34Z', 'Occupied'),
+					('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 6, '2001-05-04T10:10:35Z', 'Occupied');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"""
+				DELETE FROM vc_block WHERE bl_ld_id IN ('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 'af517d9c-5a4c-11ed-8e08-00155da861c9');
+				DELETE FROM vc_land WHERE ld_id IN ('1e406c8b-5a4c-11ed-b2f7-00155da861c9', 'af517d9c-5a4c-11ed-8e08-00155da861c9');
+				"""
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void scanMaturedBlocks()
+	{
+		var sampleTime = Instant.parse("2001-05-04T10:12:00Z");
+
+		/**
+		 * Blocks of same mature time are sought by land id and id(over three pages)
+		 */
+		var testedResult = testedRepos.scanMaturedBlocks(sampleTime, LandShard.ALL, 2)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.extracting("id")
+			.containsExactly((short)2, (short)3, (short)4, (short)5, (short)6);
+		// :~)
+
+		/**
+		 * Only the blocks in range of shard
+		 */
+		testedResult = testedRepos.scanMaturedBlocks(sampleTime, new LandShard(0, 2), 2)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.extracting("id")
+			.containsExactly((short)2, (short)3, (short)5, (short)6);
+		// :~)
+	}
+}
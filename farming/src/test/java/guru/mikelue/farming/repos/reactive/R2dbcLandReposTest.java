@@ -0,0 +1,124 @@
+package guru.mikelue.farming.repos.reactive;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.base.AbstractR2dbcTestBase;
+import guru.mikelue.farming.model.Climate;
+
+import reactor.test.StepVerifier;
+
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class R2dbcLandReposTest extends AbstractR2dbcTestBase {
+	@Autowired
+	private ReactiveLandRepos testedRepos;
+
+	public R2dbcLandReposTest() {}
+
+	/**
+	 * Tests the finding of land by id.
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES('c0628ead-5a4c-11ed-9f19-00155da861c9', 'white mulberry', 10, 'Mild');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"DELETE FROM vc_land WHERE ld_id = 'c0628ead-5a4c-11ed-9f19-00155da861c9'"
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void findById()
+	{
+		StepVerifier.create(testedRepos.findById(UUID.fromString("c0628ead-5a4c-11ed-9f19-00155da861c9")))
+			.assertNext(land -> assertThat(land)
+				.hasFieldOrPropertyWithValue("name", "white mulberry")
+				.hasFieldOrPropertyWithValue("size", (short)10)
+				.hasFieldOrPropertyWithValue("climate", Climate.Mild)
+				.extracting("creationTime")
+				.isNotNull()
+			)
+			.verifyComplete();
+
+		// Not existing land
+		StepVerifier.create(testedRepos.findById(UUID.randomUUID()))
+			.verifyComplete();
+	}
+
+	/**
+	 * Tests the listing of lands(paging with sorting).
+	 */
+	@Test
+	@SqlGroup({
+		@Sql(
+			statements={
+				"""
+				INSERT INTO vc_land(ld_id, ld_name, ld_size, ld_climate)
+				VALUES
+					('00000000-5a4c-11ed-a02a-00155da861c9', 'white Farmer', 20, 'Dry'),
+					('00000001-5a4c-11ed-a02a-00155da861c9', 'white writing', 21, 'Dry'),
+					('00000002-5a4c-11ed-a02a-00155da861c9', 'white giraffe', 31, 'Continental');
+				"""
+			},
+			executionPhase=BEFORE_TEST_METHOD
+		),
+		@Sql(
+			statements={
+				"""
+				DELETE FROM vc_land WHERE ld_id IN (
+					'00000000-5a4c-11ed-a02a-00155da861c9', '00000001-5a4c-11ed-a02a-00155da861c9',
+					'00000002-5a4c-11ed-a02a-00155da861c9'
+				)
+				"""
+			},
+			executionPhase=AFTER_TEST_METHOD
+		),
+	})
+	void findAll()
+	{
+		var testedResult = testedRepos.findAll(
+			PageRequest.of(0, 2, Sort.by("id"))
+		)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.extracting("name", "size", "climate")
+			.containsExactly(
+				tuple("white Farmer", (short)20, Climate.Dry),
+				tuple("white writing", (short)21, Climate.Dry)
+			);
+
+		testedResult = testedRepos.findAll(
+			PageRequest.of(1, 2, Sort.by("id"))
+		)
+			.collectList()
+			.block();
+
+		assertThat(testedResult)
+			.first()
+			.hasFieldOrPropertyWithValue("name", "white giraffe");
+
+		// Not a property of land
+		assertThatThrownBy(() -> testedRepos.findAll(PageRequest.of(0, 2, Sort.by("ld_name"))))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -28,6 +28,7 @@ import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TE
 	properties= {
 		"schedule.harvesting.initial-delay=PT10M",
 		"schedule.harvesting.fixed-delay=PT10M",
+		"valor.farming.maturity.rebuild-on-startup=false",
 	}
 )
 public class BlockControllerIT extends AbstractITBase {
@@ -121,10 +122,10 @@ public class BlockControllerIT extends AbstractITBase {
 		)
 	})
 	@CassandraData(
-		cqls="""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = cc0e5b4e-16ee-11ed-83e1-00155debdaa8
-		""",
+		cqls={
+			"TRUNCATE vc_land_log_by_day",
+			"TRUNCATE vc_land_log_bucket"
+		},
 		phase=Phase.AFTER
 	)
 	void askSowing()
@@ -199,10 +200,10 @@ public class BlockControllerIT extends AbstractITBase {
 		)
 	})
 	@CassandraData(
-		cqls="""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = cc0e5b4e-16ee-11ed-83e1-00155debdaa8
-		""",
+		cqls={
+			"TRUNCATE vc_land_log_by_day",
+			"TRUNCATE vc_land_log_bucket"
+		},
 		phase=Phase.AFTER
 	)
 	void askClean()
@@ -23,6 +23,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import guru.mikelue.farming.base.AbstractITBase;
 import guru.mikelue.farming.junit.cassandra.CassandraData;
 import guru.mikelue.farming.junit.cassandra.CassandraDataExecutor;
+import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandLogBucket;
 import guru.mikelue.farming.model.RandomModels;
 
 import reactor.core.publisher.Flux;
@@ -213,8 +215,10 @@ public class LandControllerIT extends AbstractITBase {
 	@CassandraData(
 		cqls={
 			"""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = 1342e058-1f72-11ed-a542-00155da861c9
+			TRUNCATE vc_land_log_by_day
+			""",
+			"""
+			TRUNCATE vc_land_log_bucket
 			"""
 		},
 		phase=AFTER
@@ -257,6 +261,9 @@ public class LandControllerIT extends AbstractITBase {
 					return log;
 				})
 				.flatMap(cassandraTemplate::insert)
+				.then(cassandraTemplate.insert(
+					LandLogBucket.of(LAND_ID, LandLog.dayOf(baseTime))
+				))
 				.then();
 		}
 	}
@@ -9,8 +9,9 @@ import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Climate;
 import guru.mikelue.farming.model.Crop;
 import guru.mikelue.farming.model.Land;
-import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
 import guru.mikelue.farming.service.FarmingService;
+import guru.mikelue.farming.service.LandSummaryService;
 import guru.mikelue.farming.service.UnsuitableCropException;
 import guru.mikelue.farming.web.CodeAndDetailException;
 import guru.mikelue.misc.testlib.AbstractTestBase;
@@ -28,7 +29,9 @@ public class MockBlockControllerTest extends AbstractTestBase {
 	@Injectable
 	private FarmingService mockFarmingService;
 	@Injectable
-	private BlockRepos mockBlockRepos;
+	private ReactiveBlockRepos mockBlockRepos;
+	@Injectable
+	private LandSummaryService mockLandSummaryService;
 
 	@Tested
 	private BlockController testedController;
@@ -2,21 +2,47 @@ package guru.mikelue.farming.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.server.ResponseStatusException;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
+import guru.mikelue.farming.config.WebConfig;
 import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.model.LandLogCursor;
+import guru.mikelue.farming.model.RandomModels;
 import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+import guru.mikelue.farming.repos.cassandra.LandRollupRepos;
 import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.farming.repos.reactive.BlockingBridge;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+import guru.mikelue.farming.service.LandCache;
+import guru.mikelue.farming.service.LandSummaryService;
 import guru.mikelue.farming.web.CodeAndDetailException;
 import guru.mikelue.misc.testlib.AbstractTestBase;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Injectable;
 import mockit.Tested;
@@ -27,13 +53,43 @@ public class MockLandControllerTest extends AbstractTestBase {
 	@Injectable
 	private LandRepos mockLandRepos;
 	@Injectable
+	private ReactiveLandRepos mockReactiveLandRepos;
+	@Injectable
 	private LandLogRepos mockLandLogRepos;
+	@Injectable
+	private LandRollupRepos mockLandRollupRepos;
+	@Injectable
+	private BlockingBridge mockBlockingBridge;
+	@Injectable
+	private LandSummaryService mockLandSummaryService;
+	@Injectable
+	private LandCache mockLandCache;
 
 	@Tested
 	private LandController testedController;
 
 	public MockLandControllerTest() {}
 
+	@BeforeEach
+	void setup()
+	{
+		/**
+		 * The blocking calls are run on the calling thread
+		 */
+		new Expectations() {{
+			mockBlockingBridge.call((Callable<?>)any);
+			result = new Delegate<Mono<?>>() {
+				@SuppressWarnings("unused")
+				Mono<?> call(Callable<?> blockingCall)
+				{
+					return Mono.fromCallable(blockingCall);
+				}
+			};
+			minTimes = 0;
+		}};
+		// :~)
+	}
+
 	/**
 	 * Tests getting of not-existing land by id.
 	 */
@@ -45,8 +101,8 @@ public class MockLandControllerTest extends AbstractTestBase {
 		sampleLand.setName("java apple");
 
 		new Expectations() {{
-			mockLandRepos.findById(sampleLand.getId());
-			result = Optional.empty();
+			mockLandCache.findById(sampleLand.getId());
+			result = Mono.empty();
 		}};
 
 		/**
@@ -66,6 +122,129 @@ public class MockLandControllerTest extends AbstractTestBase {
 		// :~)
 	}
 
+	/**
+	 * Tests the listing of logs by cursor, the cursor of next page is responded by header.
+	 */
+	@Test
+	void listByCursor()
+	{
+		final var landId = UUID.randomUUID();
+		final var sampleCursor = new LandLogCursor(Instant.parse("2020-05-10T10:00:00Z"), (short)3);
+		final var sampleLogs = RandomModels.randomLandLogs(2);
+
+		new Expectations() {{
+			mockLandLogRepos.findByTimeRangeOfLandAfter(
+				landId, null, null, sampleCursor, (Pageable)any
+			);
+			result = Mono.just(new SliceImpl<>(sampleLogs, PageRequest.of(0, 2), true));
+		}};
+
+		var testedResult = testedController.list(
+			landId, null, null,
+			sampleCursor.encode(), null,
+			PageRequest.of(0, 2)
+		);
+
+		StepVerifier.create(testedResult)
+			.assertNext(responseEntity -> {
+				assertThat(responseEntity.getHeaders().getFirst("page-next"))
+					.isEqualTo(LandLogCursor.of(sampleLogs.get(1)).encode());
+
+				StepVerifier.create(responseEntity.getBody())
+					.expectNextCount(2)
+					.verifyComplete();
+			})
+			.verifyComplete();
+	}
+
+	/**
+	 * Tests the header of cursor by HTTP, which must be responded before the body of logs.
+	 */
+	@Test
+	void listByCursorOfHttp()
+	{
+		final var landId = UUID.randomUUID();
+		final var sampleLogs = RandomModels.randomLandLogs(2);
+
+		new Expectations() {{
+			mockLandLogRepos.findByTimeRangeOfLand(
+				landId, null, null, (Pageable)any
+			);
+			result = Mono.just(new SliceImpl<>(sampleLogs, PageRequest.of(0, 2), true));
+		}};
+
+		/**
+		 * The controller is built by JMockit and the configuration of web(codecs, resolvers) is applied.
+		 */
+		var webContext = new AnnotationConfigApplicationContext();
+		webContext.registerBean(ObjectMapper.class, () -> Jackson2ObjectMapperBuilder.json().build());
+		webContext.getBeanFactory().registerSingleton("landController", testedController);
+		webContext.register(WebTestConfig.class);
+		webContext.refresh();
+		// :~)
+
+		try (webContext) {
+			WebTestClient.bindToApplicationContext(webContext)
+				.build()
+				.get()
+				.uri("/land/{land_id}/logs", landId)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals("page-next", LandLogCursor.of(sampleLogs.get(1)).encode())
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(2);
+		}
+	}
+
+	@Configuration(proxyBeanMethods=false)
+	@EnableWebFlux
+	@Import(WebConfig.class)
+	static class WebTestConfig {}
+
+	/**
+	 * Tests the listing of logs by malformed cursor.
+	 */
+	@Test
+	void listByMalformedCursor()
+	{
+		var testedResult = testedController.list(
+			UUID.randomUUID(), null, null,
+			null, "!not-a-cursor!",
+			PageRequest.of(0, 2)
+		);
+
+		StepVerifier.create(testedResult)
+			.expectErrorSatisfies(e -> assertThat(e)
+				.isInstanceOf(ResponseStatusException.class)
+				.hasFieldOrPropertyWithValue("status", HttpStatus.BAD_REQUEST)
+			)
+			.verify();
+	}
+
+	/**
+	 * Tests the listing of stats with invalid range of days or granularity.
+	 */
+	@ParameterizedTest
+	@CsvSource({
+		"2020-05-10,2020-05-09,day",
+		"2020-01-01,2020-12-31,day",
+		"2020-05-10,2020-05-10,minute",
+	})
+	void listStatsWithBadRequest(
+		LocalDate startDay, LocalDate endDay, String granularity
+	) {
+		var testedResult = testedController.listStats(
+			UUID.randomUUID(), startDay, endDay, granularity
+		);
+
+		StepVerifier.create(testedResult)
+			.expectErrorSatisfies(e -> assertThat(e)
+				.isInstanceOf(ResponseStatusException.class)
+				.hasFieldOrPropertyWithValue("status", HttpStatus.BAD_REQUEST)
+			)
+			.verify();
+	}
+
 	/**
 	 * Tests exception for duplicated name while adding.
 	 */
@@ -0,0 +1,87 @@
+package guru.mikelue.farming.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.config.KafkaConfig;
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.misc.testlib.AbstractEmbededKafkaTestBase;
+
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import({ CompletionReplayer.class, SimpleMeterRegistry.class })
+@TestPropertySource(properties="valor.farming.completion.replay-group=CompletionReplayerTest-replay")
+public class CompletionReplayerTest extends AbstractEmbededKafkaTestBase {
+	@Autowired
+	private KafkaTemplate<BlockId, Block> kafkaTemplate;
+	@Autowired
+	private CompletionReplayer testedReplayer;
+
+	public CompletionReplayerTest() {}
+
+	/**
+	 * Tests the replaying of dead letters, every dead letter is replayed once(bounded by maximum number of records)
+	 * and only the headers of completion are kept.
+	 */
+	@Test
+	void replay() throws Exception
+	{
+		for (var i = 0; i < 3; i++) {
+			var sampleBlock = RandomModels.randomBlock();
+			var deadRecord = new ProducerRecord<>(
+				KafkaConfig.TOPIC_FAILED_COMPLETION_DLT, sampleBlock.getBlockId(), sampleBlock
+			);
+			deadRecord.headers()
+				.add(FarmingConsumerService.HEADER_ACTIVITY, "Cleaning".getBytes(StandardCharsets.UTF_8))
+				.add("kafka_dlt-exception-message", "Database is down".getBytes(StandardCharsets.UTF_8));
+
+			kafkaTemplate.send(deadRecord).get(5, TimeUnit.SECONDS);
+		}
+
+		StepVerifier.create(testedReplayer.replay(2))
+			.expectNext(2)
+			.verifyComplete();
+		StepVerifier.create(testedReplayer.replay(5))
+			.expectNext(1)
+			.verifyComplete();
+		StepVerifier.create(testedReplayer.replay(5))
+			.expectNext(0)
+			.verifyComplete();
+
+		/**
+		 * Asserts the replayed records
+		 */
+		var consumer = this.<BlockId, Block>subscribeAndGetConsumer(KafkaConfig.TOPIC_FAILED_COMPLETION);
+		var testedRecords = new ArrayList<ConsumerRecord<BlockId, Block>>();
+		for (var i = 0; i < 10 && testedRecords.size() < 3; i++) {
+			consumer.poll(Duration.ofSeconds(1)).forEach(testedRecords::add);
+		}
+		consumer.close();
+
+		assertThat(testedRecords)
+			.hasSize(3)
+			.allSatisfy(record -> {
+				assertThat(record.headers().lastHeader(FarmingConsumerService.HEADER_ACTIVITY))
+					.isNotNull();
+				assertThat(record.headers().lastHeader("kafka_dlt-exception-message"))
+					.isNull();
+			});
+		// :~)
+	}
+}
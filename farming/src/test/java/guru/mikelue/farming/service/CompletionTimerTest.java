@@ -0,0 +1,92 @@
+package guru.mikelue.farming.service;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompletionTimerTest extends AbstractTestBase {
+	private CompletionTimer testedTimer;
+
+	public CompletionTimerTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		testedTimer = new CompletionTimer(2);
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		testedTimer.shutdown();
+	}
+
+	/**
+	 * Tests the execution of completions by due time.
+	 */
+	@Test
+	void schedule() throws InterruptedException
+	{
+		var executedBlocks = new CountDownLatch(2);
+
+		assertThat(testedTimer.schedule(
+			RandomModels.randomBlock().getBlockId(),
+			Instant.now().plusMillis(300), executedBlocks::countDown
+		))
+			.isTrue();
+		assertThat(testedTimer.schedule(
+			RandomModels.randomBlock().getBlockId(),
+			Instant.now().minusSeconds(10), executedBlocks::countDown
+		))
+			.isTrue();
+
+		assertThat(executedBlocks.await(5, TimeUnit.SECONDS))
+			.isTrue();
+	}
+
+	/**
+	 * Tests the rejection of duplicated completion for the same block.
+	 */
+	@Test
+	void scheduleDuplicatedBlock() throws InterruptedException
+	{
+		var sampleBlockId = RandomModels.randomBlock().getBlockId();
+		var executedBlocks = new CountDownLatch(1);
+
+		assertThat(testedTimer.schedule(
+			sampleBlockId, Instant.now().plusMillis(200), executedBlocks::countDown
+		))
+			.isTrue();
+		assertThat(testedTimer.schedule(
+			sampleBlockId, Instant.now(), executedBlocks::countDown
+		))
+			.isFalse();
+		assertThat(testedTimer.getPendingCount())
+			.isEqualTo(1);
+
+		assertThat(executedBlocks.await(5, TimeUnit.SECONDS))
+			.isTrue();
+
+		/**
+		 * The block could be scheduled again after the completion
+		 */
+		var nextExecution = new CountDownLatch(1);
+		Thread.sleep(100);
+		assertThat(testedTimer.schedule(
+			sampleBlockId, Instant.now(), nextExecution::countDown
+		))
+			.isTrue();
+		assertThat(nextExecution.await(5, TimeUnit.SECONDS))
+			.isTrue();
+		// :~)
+	}
+}
@@ -4,23 +4,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import guru.mikelue.farming.config.KafkaConfig;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.BlockTransition;
 import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.LandShard;
 import guru.mikelue.farming.model.LogActivity;
-import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.farming.model.Block.Status;
 import guru.mikelue.farming.model.RandomModels;
 import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+import guru.mikelue.farming.repos.cassandra.LandRollupRepos;
 import guru.mikelue.farming.repos.jpa.BlockRepos;
 import guru.mikelue.misc.testlib.AbstractEmbededKafkaTestBase;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static java.time.temporal.ChronoUnit.SECONDS;
 import static guru.mikelue.farming.model.LogActivity.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.InstanceOfAssertFactories.INSTANT;
@@ -28,21 +38,59 @@ import static org.assertj.core.api.InstanceOfAssertFactories.SHORT;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
-
-@Import({FarmingConsumerService.class})
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+@Import({
+	FarmingConsumerService.class, CompletionTimer.class, MaturityIndex.class,
+	TransitionLedger.class, SimpleMeterRegistry.class
+})
+@TestPropertySource(properties={
+	"spring.kafka.consumer.group-id=FarmingConsumerServiceTest",
+	"valor.farming.timer.rebuild-on-startup=false",
+	"valor.farming.completion.retry.attempts=3",
+	"valor.farming.completion.retry.initial-delay=PT0.1S",
+})
 public class FarmingConsumerServiceTest extends AbstractEmbededKafkaTestBase {
 	@Autowired
 	private KafkaTemplate<Block.BlockId, Block> kafkaTemplate;
+	@Autowired
+	private FarmingConsumerService testedService;
+	@Autowired
+	private MaturityIndex maturityIndex;
+	@Autowired
+	private TransitionLedger transitionLedger;
+	@Autowired
+	private MeterRegistry meterRegistry;
 
 	@MockBean
 	private BlockRepos mockBlockRepos;
 	@MockBean
 	private LandLogRepos mockLandLogRepos;
+	@MockBean
+	private LandRollupRepos mockLandRollupRepos;
+	@MockBean
+	private LandSummaryService mockLandSummaryService;
 
 	public FarmingConsumerServiceTest() {}
 
+	/**
+	 * Awaits the emitted completions to be applied(including the logs),
+	 * so no invocation on mocks is leaked to next test.
+	 */
+	@AfterEach
+	void awaitPendingCompletions()
+	{
+		var pendingCompletions = meterRegistry.get("valor.farming.completion.pending").gauge();
+		awaitCondition(() -> pendingCompletions.value() == 0);
+	}
+
 	/**
 	 * Tests the handling(consumeing) of block message for sowing.
 	 */
@@ -61,27 +109,12 @@ public class FarmingConsumerServiceTest extends AbstractEmbededKafkaTestBase {
 			sampleBlock
 		);
 
-		/**
-		 * Mocks the calling to BlockRepos/LandLogRepos
-		 */
-		when(mockBlockRepos.findById(sampleBlock.getBlockId()))
-			.thenReturn(Optional.of(sampleBlock));
-		when(mockBlockRepos.updateToBeSowed(any(Block.class)))
-			.thenReturn(1);
-		when(mockLandLogRepos.save(any(LandLog.class)))
-			.thenReturn(Mono.just(LandLog.from(sampleBlock)));
-		// :~)
-
-		var verifyMode = timeout(15000).times(1);
+		mockApplying(null);
 
 		/**
-		 * Asserts the block object received by BlockRepos.updateToBeSowed()
+		 * Asserts the block object received by BlockRepos.applyCompletions()
 		 */
-		var blockArgv = ArgumentCaptor.forClass(Block.class);
-		verify(mockBlockRepos, verifyMode)
-			.updateToBeSowed(blockArgv.capture());
-
-		var testedBlock = blockArgv.getValue();
+		var testedBlock = captureAppliedBlock(true);
 		var assertBlock = assertThat(testedBlock);
 
 		assertBlock
@@ -97,8 +130,17 @@ public class FarmingConsumerServiceTest extends AbstractEmbededKafkaTestBase {
 
 		assertLandLog(Sowing);
 
+		// The summary of land is updated by the transition of block
+		verify(mockLandSummaryService, timeout(15000).times(1))
+			.transit(any(Block.class), any(Block.class));
+
+		// The sowed block is indexed by its mature time
+		assertThat(maturityIndex.pollMatured(testedBlock.getMatureTime(), 8))
+			.contains(sampleBlock.getBlockId());
+
 		clearInvocations(mockBlockRepos);
 		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandSummaryService);
 	}
 
 	/**
@@ -137,31 +179,363 @@ public class FarmingConsumerServiceTest extends AbstractEmbededKafkaTestBase {
 		mockAndAssertCleanedBlock(sampleBlock.getComment(), Cleaning);
 	}
 
-	private void mockAndAssertCleanedBlock(
-		String expectedComment, LogActivity expectedActivity
-	) {
+	/**
+	 * Tests the handling(consumeing) of re-sent block, the activity is decided by status of block.
+	 */
+	@Test
+	void handleRetry()
+	{
 		var sampleBlock = RandomModels.randomBlock();
+		sampleBlock.setStatus(Status.ScheduledClean);
+
+		kafkaTemplate.send(
+			KafkaConfig.TOPIC_RETRY,
+			sampleBlock.getBlockId(),
+			sampleBlock
+		);
+
+		mockAndAssertCleanedBlock(sampleBlock.getComment(), Cleaning);
+	}
+
+	/**
+	 * Tests the rebuilding of completions for blocks in scheduled status.
+	 */
+	@Test
+	void rebuildCompletions() throws InterruptedException
+	{
+		var sampleBlocks = List.of(
+			RandomModels.randomBlock(),
+			RandomModels.randomBlock(),
+			RandomModels.randomBlock()
+		);
+		sampleBlocks.get(0).setStatus(Status.ScheduledSow);
+		sampleBlocks.get(1).setStatus(Status.ScheduledHarvest);
+		sampleBlocks.get(2).setStatus(Status.ScheduledClean);
 
 		/**
 		 * Mocks the calling to BlockRepos/LandLogRepos
 		 */
-		when(mockBlockRepos.findById(any(BlockId.class)))
-			.thenReturn(Optional.of(sampleBlock));
-		when(mockBlockRepos.updateForCleaning(any(Block.class)))
-			.thenReturn(1);
-		when(mockLandLogRepos.save(any(LandLog.class)))
-			.thenReturn(Mono.just(LandLog.from(sampleBlock)));
+		when(mockBlockRepos.scanOldScheduledActivities(any(Instant.class), any(LandShard.class), anyInt()))
+			.thenReturn(Flux.fromIterable(sampleBlocks));
+
+		var appliedBlocks = new CountDownLatch(sampleBlocks.size());
+		mockApplying(appliedBlocks);
 		// :~)
 
+		assertThat(testedService.rebuildCompletions(Instant.now()))
+			.isEqualTo(3);
+
 		/**
-		 * Asserts the block object received by BlockRepos.updateToBeSowed()
+		 * Asserts the completions of rebuilt blocks, which could be applied by more than one batch
 		 */
-		var verifyMode = timeout(15000).times(1);
-		var blockArgv = ArgumentCaptor.forClass(Block.class);
-		verify(mockBlockRepos, verifyMode)
-			.updateForCleaning(blockArgv.capture());
+		assertThat(appliedBlocks.await(15, TimeUnit.SECONDS))
+			.isTrue();
+		// :~)
+
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+	}
+
+	/**
+	 * Tests the applying of completions, only the logs(and transitions) of updated blocks are inserted.
+	 *
+	 * The error of rolling up logs doesn't fail the applying.
+	 */
+	@Test
+	void applyCompletions()
+	{
+		var sowedBlock = RandomModels.randomBlock();
+		var cleanedBlock = RandomModels.randomBlock();
+		var notUpdatedBlock = RandomModels.randomBlock();
+
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenReturn(List.of(
+				new BlockTransition(sowedBlock, sowedBlock),
+				new BlockTransition(cleanedBlock, cleanedBlock)
+			));
+		when(mockLandLogRepos.insertInBatchesOfLand(anyList()))
+			.thenAnswer(invocation -> Mono.just((long)invocation.<List<?>>getArgument(0).size()));
+		when(mockLandRollupRepos.addLogs(anyList()))
+			.thenReturn(Mono.error(new RuntimeException("Rollup is failed")));
+
+		var sampleTime = Instant.now();
+		var usedTime = Duration.ofSeconds(3);
+		var testedResult = testedService.applyCompletions(List.of(
+			new FarmingConsumerService.Completion(Sowing, sowedBlock, sampleTime, usedTime),
+			new FarmingConsumerService.Completion(Cleaning, cleanedBlock, sampleTime, usedTime),
+			new FarmingConsumerService.Completion(Harvesting, notUpdatedBlock, sampleTime, usedTime)
+		))
+			.block();
+
+		assertThat(testedResult)
+			.isEqualTo(2L);
+
+		verify(mockBlockRepos)
+			.applyCompletions(List.of(sowedBlock), List.of(cleanedBlock, notUpdatedBlock));
+
+		// Only the applied transitions are recorded
+		assertThat(transitionLedger.isApplied(sowedBlock))
+			.isTrue();
+		assertThat(transitionLedger.isApplied(notUpdatedBlock))
+			.isFalse();
+		verify(mockLandRollupRepos)
+			.addLogs(argThat(logs -> logs.size() == 2));
+
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandRollupRepos);
+	}
+
+	/**
+	 * Tests the retrying of inserting logs, the logs are rolled up once after the inserting is succeeded.
+	 */
+	@Test
+	void applyCompletionsWithRetriedLogs()
+	{
+		var sowedBlock = RandomModels.randomBlock();
+		var failures = new AtomicInteger(2);
+
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenReturn(List.of(new BlockTransition(sowedBlock, sowedBlock)));
+		when(mockLandLogRepos.insertInBatchesOfLand(anyList()))
+			.thenReturn(Mono.defer(() -> failures.getAndDecrement() > 0 ?
+				Mono.error(new RuntimeException("Cassandra is timeout")) :
+				Mono.just(1L)
+			));
+		when(mockLandRollupRepos.addLogs(anyList()))
+			.thenReturn(Mono.just(2));
+
+		var testedResult = testedService.applyCompletions(List.of(
+			new FarmingConsumerService.Completion(Sowing, sowedBlock, Instant.now(), Duration.ofSeconds(3))
+		))
+			.block();
+
+		assertThat(testedResult)
+			.isEqualTo(1L);
+		assertThat(failures.get())
+			.isEqualTo(-1);
+
+		verify(mockLandRollupRepos, times(1))
+			.addLogs(argThat(logs -> logs.size() == 1));
+
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandRollupRepos);
+	}
+
+	/**
+	 * Tests the logs exhausted by retries of inserting, which are inserted by the listener of retrying(log only),
+	 * the blocks are not updated again.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void applyCompletionsWithLogOnlyRetrying()
+	{
+		var sowedBlock = RandomModels.randomBlock();
+		// The first inserting and the retries(valor.farming.completion.log-retries)
+		var failures = new AtomicInteger(4);
+
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenReturn(List.of(new BlockTransition(sowedBlock, sowedBlock)));
+		when(mockLandLogRepos.insertInBatchesOfLand(anyList()))
+			.thenReturn(Mono.defer(() -> failures.getAndDecrement() > 0 ?
+				Mono.error(new RuntimeException("Cassandra is down")) :
+				Mono.just(1L)
+			));
+		when(mockLandRollupRepos.addLogs(anyList()))
+			.thenReturn(Mono.just(2));
+
+		var sampleTime = Instant.now().truncatedTo(SECONDS);
+		var testedResult = testedService.applyCompletions(List.of(
+			new FarmingConsumerService.Completion(Sowing, sowedBlock, sampleTime, Duration.ofSeconds(3))
+		))
+			.block();
+
+		assertThat(testedResult)
+			.isNull();
+
+		/**
+		 * Asserts the log(re-built from record of retrying) inserted by the listener
+		 */
+		verify(mockLandRollupRepos, timeout(15000).times(1))
+			.addLogs(anyList());
+
+		var landLogsArgv = ArgumentCaptor.forClass(List.class);
+		verify(mockLandLogRepos, times(2))
+			.insertInBatchesOfLand(landLogsArgv.capture());
+		var landLogs = (List<LandLog>)landLogsArgv.getValue();
+		assertThat(landLogs)
+			.hasSize(1);
+		assertThat(landLogs.get(0))
+			.hasFieldOrPropertyWithValue("landId", sowedBlock.getLandId())
+			.hasFieldOrPropertyWithValue("blockId", sowedBlock.getId())
+			.hasFieldOrPropertyWithValue("activity", Sowing)
+			.hasFieldOrPropertyWithValue("time", sampleTime)
+			.hasFieldOrPropertyWithValue("usedTimeSecond", (short)3);
+		// :~)
+
+		verify(mockBlockRepos, times(1))
+			.applyCompletions(anyList(), anyList());
 
-		assertThat(blockArgv.getValue())
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandRollupRepos);
+	}
+
+	/**
+	 * Tests the unexpected error of a batch(thrown while building logs), the applying of next batch is not affected.
+	 */
+	@Test
+	void emitCompletionAfterUnexpectedError()
+	{
+		var failedBlock = RandomModels.randomBlock();
+		var appliedBlock = RandomModels.randomBlock();
+
+		mockApplying(null);
+		doThrow(new IllegalStateException("Summary is broken"))
+			.doNothing()
+			.when(mockLandSummaryService).transit(any(Block.class), any(Block.class));
+
+		var sampleTime = Instant.now();
+		var usedTime = Duration.ofSeconds(3);
+
+		testedService.emitCompletion(
+			new FarmingConsumerService.Completion(Cleaning, failedBlock, sampleTime, usedTime)
+		);
+		verify(mockBlockRepos, timeout(15000).times(1))
+			.applyCompletions(anyList(), anyList());
+
+		testedService.emitCompletion(
+			new FarmingConsumerService.Completion(Cleaning, appliedBlock, sampleTime, usedTime)
+		);
+		verify(mockBlockRepos, timeout(15000).times(2))
+			.applyCompletions(anyList(), anyList());
+
+		// Only the logs of second batch are inserted
+		verify(mockLandLogRepos, timeout(15000).times(1))
+			.insertInBatchesOfLand(argThat(logs -> logs.size() == 1));
+
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandSummaryService);
+	}
+
+	/**
+	 * Tests the failed updating of blocks, the completion is applied by the listener of retrying.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void applyCompletionsWithRetrying()
+	{
+		var sowedBlock = RandomModels.randomBlock();
+
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenThrow(new RuntimeException("Database is timeout"))
+			.thenReturn(List.of(new BlockTransition(sowedBlock, sowedBlock)));
+		when(mockLandLogRepos.insertInBatchesOfLand(anyList()))
+			.thenReturn(Mono.just(1L));
+		when(mockLandRollupRepos.addLogs(anyList()))
+			.thenReturn(Mono.just(2));
+
+		var sampleTime = Instant.now();
+		var testedResult = testedService.applyCompletions(List.of(
+			new FarmingConsumerService.Completion(Sowing, sowedBlock, sampleTime, Duration.ofSeconds(3))
+		))
+			.block();
+
+		assertThat(testedResult)
+			.isNull();
+
+		/**
+		 * Asserts the completion(re-built from record of retrying) applied by the listener
+		 */
+		verify(mockBlockRepos, timeout(15000).times(2))
+			.applyCompletions(argThat(blocks -> blocks.size() == 1), argThat(List::isEmpty));
+
+		var landLogsArgv = ArgumentCaptor.forClass(List.class);
+		verify(mockLandLogRepos, timeout(15000).times(1))
+			.insertInBatchesOfLand(landLogsArgv.capture());
+		var landLogs = (List<LandLog>)landLogsArgv.getValue();
+		assertThat(landLogs)
+			.hasSize(1);
+		assertThat(landLogs.get(0))
+			.hasFieldOrPropertyWithValue("activity", Sowing)
+			.hasFieldOrPropertyWithValue("time", sampleTime)
+			.hasFieldOrPropertyWithValue("usedTimeSecond", (short)3);
+		// :~)
+
+		assertThat(transitionLedger.isApplied(sowedBlock))
+			.isTrue();
+
+		clearInvocations(mockBlockRepos);
+		clearInvocations(mockLandLogRepos);
+		clearInvocations(mockLandRollupRepos);
+	}
+
+	/**
+	 * Tests the completion exhausted by retrying, which is sent to the topic of dead letters.
+	 */
+	@Test
+	void applyCompletionsWithDeadLetter()
+	{
+		var cleanedBlock = RandomModels.randomBlock();
+		var deadLettered = meterRegistry.get("valor.farming.completion.dead-lettered").counter();
+		var initialCount = deadLettered.count();
+
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenThrow(new RuntimeException("Database is down"));
+
+		testedService.applyCompletions(List.of(
+			new FarmingConsumerService.Completion(Cleaning, cleanedBlock, Instant.now(), Duration.ofSeconds(3))
+		))
+			.block();
+
+		// The first applying, then the attempts of retrying
+		verify(mockBlockRepos, timeout(15000).times(4))
+			.applyCompletions(anyList(), anyList());
+
+		/**
+		 * Asserts the record of dead letter(by a dedicated group), then the handling of it
+		 */
+		try (var consumer = this.<Block.BlockId, Block>subscribeAndGetConsumerWith(
+			"FarmingConsumerServiceTest-dlt", KafkaConfig.TOPIC_FAILED_COMPLETION_DLT
+		)) {
+			var deadLetter = KafkaTestUtils.getSingleRecord(
+				consumer, KafkaConfig.TOPIC_FAILED_COMPLETION_DLT, 15000
+			);
+			assertThat(deadLetter.key())
+				.isEqualTo(cleanedBlock.getBlockId());
+		}
+
+		awaitCondition(() -> deadLettered.count() == initialCount + 1);
+		// :~)
+
+		verify(mockLandLogRepos, never())
+			.insertInBatchesOfLand(anyList());
+
+		clearInvocations(mockBlockRepos);
+	}
+
+	/**
+	 * Awaits the condition(polled every 50 milliseconds), which is failed after 15 seconds.
+	 */
+	private static void awaitCondition(BooleanSupplier condition)
+	{
+		Mono.fromSupplier(condition::getAsBoolean)
+			.filter(Boolean::booleanValue)
+			.repeatWhenEmpty(polls -> polls.delayElements(Duration.ofMillis(50)))
+			.block(Duration.ofSeconds(15));
+	}
+
+	private void mockAndAssertCleanedBlock(
+		String expectedComment, LogActivity expectedActivity
+	) {
+		mockApplying(null);
+
+		/**
+		 * Asserts the block object received by BlockRepos.applyCompletions()
+		 */
+		assertThat(captureAppliedBlock(false))
 			.hasFieldOrPropertyWithValue("status", Status.Available)
 			.hasFieldOrPropertyWithValue("crop", null)
 			.hasFieldOrPropertyWithValue("sowTime", null)
@@ -176,20 +550,69 @@ public class FarmingConsumerServiceTest extends AbstractEmbededKafkaTestBase {
 		clearInvocations(mockLandLogRepos);
 	}
 
+	/**
+	 * Mocks the applying of completions, every block is updated.
+	 *
+	 * @param appliedBlocks counted down for every applied block, could be {@code null}
+	 */
+	private void mockApplying(CountDownLatch appliedBlocks)
+	{
+		when(mockBlockRepos.applyCompletions(anyList(), anyList()))
+			.thenAnswer(invocation -> {
+				var updatedBlocks = new ArrayList<Block>(invocation.<List<Block>>getArgument(0));
+				updatedBlocks.addAll(invocation.<List<Block>>getArgument(1));
+
+				if (appliedBlocks != null) {
+					updatedBlocks.forEach(b -> appliedBlocks.countDown());
+				}
+
+				return updatedBlocks.stream()
+					.map(b -> new BlockTransition(b, b))
+					.toList();
+			});
+		when(mockLandLogRepos.insertInBatchesOfLand(anyList()))
+			.thenAnswer(invocation -> Mono.just((long)invocation.<List<?>>getArgument(0).size()));
+		when(mockLandRollupRepos.addLogs(anyList()))
+			.thenAnswer(invocation -> Mono.just(invocation.<List<?>>getArgument(0).size() * 2));
+	}
+
+	/**
+	 * Captures the only block applied by BlockRepos.applyCompletions().
+	 *
+	 * @param sowed Whether or not to capture the block of sowing
+	 */
+	@SuppressWarnings("unchecked")
+	private Block captureAppliedBlock(boolean sowed)
+	{
+		var sowedArgv = ArgumentCaptor.forClass(List.class);
+		var cleanedArgv = ArgumentCaptor.forClass(List.class);
+		verify(mockBlockRepos, timeout(15000).times(1))
+			.applyCompletions(sowedArgv.capture(), cleanedArgv.capture());
+
+		var appliedBlocks = (List<Block>)(sowed ? sowedArgv : cleanedArgv).getValue();
+		assertThat(appliedBlocks)
+			.hasSize(1);
+
+		return appliedBlocks.get(0);
+	}
+
+	@SuppressWarnings("unchecked")
 	private void assertLandLog(LogActivity expectedActivity)
 	{
 		var verifyMode = timeout(15000).times(1);
 
 		/**
-		 * Asserts the block object received by LandLogRepos.save()
+		 * Asserts the logs received by LandLogRepos.insertInBatchesOfLand()
 		 */
-		var landLogArgv = ArgumentCaptor.forClass(LandLog.class);
+		var landLogsArgv = ArgumentCaptor.forClass(List.class);
 		verify(mockLandLogRepos, verifyMode)
-			.save(landLogArgv.capture());
+			.insertInBatchesOfLand(landLogsArgv.capture());
 
-		var assertLog = assertThat(
-			landLogArgv.getValue()
-		);
+		var landLogs = (List<LandLog>)landLogsArgv.getValue();
+		assertThat(landLogs)
+			.hasSize(1);
+
+		var assertLog = assertThat(landLogs.get(0));
 
 		assertLog
 			.hasFieldOrPropertyWithValue("activity", expectedActivity)
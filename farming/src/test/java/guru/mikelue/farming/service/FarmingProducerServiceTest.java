@@ -15,6 +15,7 @@ import guru.mikelue.farming.model.Block;
 import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.misc.testlib.AbstractEmbededKafkaTestBase;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -71,6 +72,32 @@ public class FarmingProducerServiceTest extends AbstractEmbededKafkaTestBase {
 		);
 	}
 
+	/**
+	 * Tests the sending of blocks in batch.
+	 */
+	@Test
+	void sendBatch()
+	{
+		final var numberOfBlocks = 20;
+		final var topicName = "Test-sendBatch";
+
+		var sampleBlocks = Flux.range(0, numberOfBlocks)
+			.map(i -> randomBlock());
+
+		var testedResult = testedService.sendBatch(sampleBlocks, topicName)
+			.map(r -> r.getRecordMetadata().offset())
+			.collectList()
+			.block();
+
+		/**
+		 * Every block is acknowledged with its own offset
+		 */
+		assertThat(testedResult)
+			.hasSize(numberOfBlocks)
+			.doesNotHaveDuplicates();
+		// :~)
+	}
+
 	private void assertMonoAndKafkaTopic(
 		String gropuId,
 		Mono<SendResult<BlockId, Block>> testedResult, String topicName
@@ -0,0 +1,277 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.LandShard;
+import guru.mikelue.farming.repos.jpa.ShardLeaseRepos;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import mockit.*;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests the scheduling over shards of lands in mocked environments
+ */
+public class FarmingSchedulerTest extends AbstractTestBase {
+	@Injectable
+	private FarmingService mockFarmingService;
+	@Injectable
+	private LandSummaryService mockLandSummaryService;
+	@Injectable
+	private ShardLeaseRepos mockShardLeaseRepos;
+	@Injectable
+	private MeterRegistry mockMeterRegistry;
+
+	@Injectable("4")
+	private int shardCount;
+	@Injectable("2")
+	private int parallelism;
+	@Injectable("farming-0")
+	private String owner;
+
+	@Tested(availableDuringSetup=true)
+	private FarmingScheduler testedScheduler;
+
+	public FarmingSchedulerTest() {}
+
+	@BeforeEach
+	void setupLease()
+	{
+		ReflectionTestUtils.setField(testedScheduler, "leaseDuration", Duration.ofMinutes(5));
+	}
+
+	/**
+	 * Tests the processing of shards, only the leased shards are processed.
+	 */
+	@Test
+	void buildProcessShards()
+	{
+		final var sampleInterval = Duration.ofMinutes(10);
+
+		/**
+		 * Only the shards of even index could be leased
+		 */
+		new Expectations() {{
+			mockShardLeaseRepos.tryAcquire(
+				FarmingScheduler.TASK_HARVESTING, anyShort, "farming-0", anyLong
+			);
+			result = new Delegate<Integer>() {
+				@SuppressWarnings("unused")
+				int tryAcquire(String task, short shard, String owner, long leaseSeconds)
+				{
+					return shard % 2 == 0 ? 1 : 0;
+				}
+			};
+			times = 4;
+		}};
+		// :~)
+
+		var processedShards = Collections.synchronizedSet(new HashSet<Integer>());
+		var testedResult = testedScheduler.buildProcessShards(
+			FarmingScheduler.TASK_HARVESTING, sampleInterval,
+			shard -> {
+				processedShards.add(shard.index());
+				return randomBlocks(shard.index() + 1);
+			}
+		)
+			.block();
+
+		/**
+		 * Asserts the processed shards(0, 2) and the number of blocks(1 + 3)
+		 */
+		assertThat(processedShards)
+			.containsOnly(0, 2);
+		assertThat(testedResult)
+			.isEqualTo(4L);
+		// :~)
+
+		/**
+		 * The leased shards are released with rest of half interval
+		 */
+		new Verifications() {{
+			List<Short> releasedShards = new ArrayList<>();
+
+			mockShardLeaseRepos.release(
+				FarmingScheduler.TASK_HARVESTING, withCapture(releasedShards), "farming-0",
+				sampleInterval.dividedBy(2).toSeconds()
+			);
+			times = 2;
+
+			assertThat(releasedShards)
+				.containsOnly((short)0, (short)2);
+		}};
+		// :~)
+	}
+
+	/**
+	 * Tests the processing of shards with error, other shards are not affected.
+	 */
+	@Test
+	void buildProcessShardsWithError()
+	{
+		new Expectations() {{
+			mockShardLeaseRepos.tryAcquire(anyString, anyShort, anyString, anyLong);
+			result = 1;
+		}};
+
+		var testedResult = testedScheduler.buildProcessShards(
+			FarmingScheduler.TASK_TOO_LONG_SCHEDULED, Duration.ofMinutes(10),
+			shard -> shard.index() == 1 ?
+				Flux.error(new RuntimeException("Database is gone")) :
+				randomBlocks(2)
+		)
+			.block();
+
+		assertThat(testedResult)
+			.isEqualTo(6L);
+
+		/**
+		 * The lease of failed shard is released too
+		 */
+		new Verifications() {{
+			mockShardLeaseRepos.release(anyString, anyShort, anyString, anyLong);
+			times = 4;
+		}};
+		// :~)
+	}
+
+	/**
+	 * Tests the error of acquiring a lease, the share of this instance is kept for other shards.
+	 */
+	@Test
+	void buildProcessShardsWithErrorOfAcquiring()
+	{
+		final var acquiringCalls = new AtomicInteger(0);
+
+		/**
+		 * The first acquiring is failed by error
+		 */
+		new Expectations() {{
+			mockShardLeaseRepos.countLiveOwners(anyLong);
+			result = 2;
+
+			mockShardLeaseRepos.tryAcquire(anyString, anyShort, anyString, anyLong);
+			result = new Delegate<Integer>() {
+				@SuppressWarnings("unused")
+				int tryAcquire(String task, short shard, String owner, long leaseSeconds)
+				{
+					if (acquiringCalls.getAndIncrement() == 0) {
+						throw new RuntimeException("Database is timeout");
+					}
+
+					return 1;
+				}
+			};
+		}};
+		// :~)
+
+		var processedShards = Collections.synchronizedSet(new HashSet<Integer>());
+		var testedResult = testedScheduler.buildProcessShards(
+			FarmingScheduler.TASK_TOO_LONG_SCHEDULED, Duration.ofMinutes(10),
+			shard -> {
+				processedShards.add(shard.index());
+				return randomBlocks(1);
+			}
+		)
+			.block();
+
+		assertThat(processedShards)
+			.hasSize(2);
+		assertThat(testedResult)
+			.isEqualTo(2L);
+	}
+
+	/**
+	 * Tests the balancing of shards between two live owners, every owner leases a half of shards.
+	 */
+	@Test
+	void buildProcessShardsWithTwoOwners()
+	{
+		final var leasedShards = Collections.synchronizedSet(new HashSet<Short>());
+
+		/**
+		 * A shard is leased once, by any owner
+		 */
+		new Expectations() {{
+			mockShardLeaseRepos.countLiveOwners(anyLong);
+			result = 2;
+
+			mockShardLeaseRepos.tryAcquire(anyString, anyShort, anyString, anyLong);
+			result = new Delegate<Integer>() {
+				@SuppressWarnings("unused")
+				int tryAcquire(String task, short shard, String owner, long leaseSeconds)
+				{
+					return leasedShards.add(shard) ? 1 : 0;
+				}
+			};
+		}};
+		// :~)
+
+		var anotherScheduler = new FarmingScheduler();
+		ReflectionTestUtils.setField(anotherScheduler, "shardLeaseRepos", mockShardLeaseRepos);
+		ReflectionTestUtils.setField(anotherScheduler, "meterRegistry", mockMeterRegistry);
+		ReflectionTestUtils.setField(anotherScheduler, "shardCount", 4);
+		ReflectionTestUtils.setField(anotherScheduler, "parallelism", 2);
+		ReflectionTestUtils.setField(anotherScheduler, "owner", "farming-1");
+		ReflectionTestUtils.setField(anotherScheduler, "leaseDuration", Duration.ofMinutes(5));
+		anotherScheduler.init();
+
+		try {
+			for (var scheduler: List.of(testedScheduler, anotherScheduler)) {
+				var processedShards = Collections.synchronizedSet(new HashSet<Integer>());
+
+				scheduler.buildProcessShards(
+					FarmingScheduler.TASK_TOO_LONG_SCHEDULED, Duration.ofMinutes(10),
+					shard -> {
+						processedShards.add(shard.index());
+						return randomBlocks(1);
+					}
+				)
+					.block();
+
+				assertThat(processedShards)
+					.hasSize(2);
+			}
+		} finally {
+			anotherScheduler.shutdown();
+		}
+
+		assertThat(leasedShards)
+			.containsOnly((short)0, (short)1, (short)2, (short)3);
+
+		new Verifications() {{
+			mockShardLeaseRepos.heartbeat("farming-0");
+			times = 1;
+			mockShardLeaseRepos.heartbeat("farming-1");
+			times = 1;
+		}};
+	}
+
+	private static Flux<Block> randomBlocks(int number)
+	{
+		var landId = UUID.randomUUID();
+
+		return Flux.range(0, number)
+			.map(i -> {
+				var newBlock = new Block();
+				newBlock.setLandId(landId);
+				newBlock.setId(i.shortValue());
+				return newBlock;
+			});
+	}
+}
@@ -69,10 +69,10 @@ public class FarmingServiceIT extends AbstractITBase {
 		)
 	})
 	@CassandraData(
-		cqls="""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = 53d6ab6e-1c6f-11ed-8ed0-00155da861c9
-		""",
+		cqls={
+			"TRUNCATE vc_land_log_by_day",
+			"TRUNCATE vc_land_log_bucket"
+		},
 		phase=Phase.AFTER
 	)
 	void processMaturedBlocks() throws Throwable
@@ -130,10 +130,10 @@ public class FarmingServiceIT extends AbstractITBase {
 		)
 	})
 	@CassandraData(
-		cqls="""
-			DELETE FROM vc_land_log_by_time
-			WHERE ll_ld_id = 05626d56-1ddc-11ed-91f1-00155da861c9
-		""",
+		cqls={
+			"TRUNCATE vc_land_log_by_day",
+			"TRUNCATE vc_land_log_bucket"
+		},
 		phase=Phase.AFTER
 	)
 	void processTooLongScheduledBlocks() throws Throwable
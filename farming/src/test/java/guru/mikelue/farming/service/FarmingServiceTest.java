@@ -3,25 +3,25 @@ package guru.mikelue.farming.service;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
-import org.springframework.data.domain.SliceImpl;
 import org.springframework.kafka.support.SendResult;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
+import guru.mikelue.farming.config.KafkaConfig;
 import guru.mikelue.farming.model.AskBlockAction;
 import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.BlockId;
 import guru.mikelue.farming.model.Climate;
 import guru.mikelue.farming.model.Block.Status;
 import guru.mikelue.farming.model.Crop;
 import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.model.LandShard;
 import guru.mikelue.farming.repos.jpa.BlockRepos;
-import guru.mikelue.farming.repos.jpa.LandRepos;
+import guru.mikelue.farming.repos.reactive.ReactiveBlockRepos;
 import guru.mikelue.misc.testlib.AbstractTestBase;
 
 import mockit.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -36,7 +36,13 @@ public class FarmingServiceTest extends AbstractTestBase {
 	@Injectable
 	private BlockRepos mockBlockRepos;
 	@Injectable
-	private LandRepos mockLandRepos;
+	private ReactiveBlockRepos mockReactiveBlockRepos;
+	@Injectable
+	private LandCache mockLandCache;
+	@Injectable
+	private MaturityIndex mockMaturityIndex;
+	@Injectable
+	private LandSummaryService mockLandSummaryService;
 
 	@Tested
 	private FarmingService testedService;
@@ -47,10 +53,8 @@ public class FarmingServiceTest extends AbstractTestBase {
 	 * Tests the available blocks for sowing queue.
 	 */
 	@Test
-	void askSow(
-		@Mocked
-		SendResult<?, ?> mockSendResult
-	) {
+	void askSow()
+	{
 		final var totalBlocks = (short)10;
 		final var availableBlocks = (short)7;
 
@@ -64,36 +68,34 @@ public class FarmingServiceTest extends AbstractTestBase {
 		sampleLand.setId(sampleAskSowing.getLandId());
 		sampleLand.setClimate(Climate.Mild);
 
-		var sampleBlocks = randomBlocks(sampleAskSowing);
-
 		/**
 		 * Sets-up mocks
 		 */
 		new Expectations() {{
-			mockLandRepos.findById(sampleAskSowing.getLandId());
-			result = Optional.of(sampleLand);
-			times = 1;
-
-			mockBlockRepos.findAvailableByLandId(
-				sampleAskSowing.getLandId(),
-				sampleAskSowing.getAskedBlocks()
-			);
-			result = sampleBlocks;
+			mockLandCache.findById(sampleAskSowing.getLandId());
+			result = Mono.just(sampleLand);
 			times = 1;
 
 			/**
-			 * Sets-up available blocks
+			 * Only part of blocks are available
 			 */
-			mockBlockRepos.updateStatusByCheckPreviousOne(
-				(Block)any, Status.ScheduledSow
+			mockReactiveBlockRepos.claimBlocksOfLand(
+				sampleAskSowing, Status.Available, Status.ScheduledSow,
+				(Instant)any
 			);
-			result = buildNumberSerials(totalBlocks, availableBlocks);
-			times = totalBlocks;
+			result = new Delegate<Flux<Block>>() {
+				@SuppressWarnings("unused")
+				Flux<Block> claim(AskBlockAction action, Status currentStatus, Status newStatus, Instant updateTime)
+				{
+					return Flux.fromIterable(claimedBlocks(action, availableBlocks, newStatus, updateTime));
+				}
+			};
+			times = 1;
 			// :~)
 
-			mockQueueService.sendSowing((Block)any);
-			result = Mono.just(mockSendResult);
-			times = availableBlocks;
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_SOWING);
+			result = new SendingBatch();
+			times = 1;
 		}};
 		// :~)
 
@@ -117,6 +119,16 @@ public class FarmingServiceTest extends AbstractTestBase {
 				.isAfter(checkedTime);
 		}
 		// :~)
+
+		// The summary of land is updated by the claimed blocks
+		new Verifications() {{
+			mockLandSummaryService.transit(
+				sampleAskSowing.getLandId(),
+				Status.Available, null,
+				Status.ScheduledSow, Crop.Manioc
+			);
+			times = availableBlocks;
+		}};
 	}
 
 
@@ -124,10 +136,8 @@ public class FarmingServiceTest extends AbstractTestBase {
 	 * Tests the occupied blocks for cleaning queue.
 	 */
 	@Test
-	void askClean(
-		@Mocked
-		SendResult<?, ?> mockSendResult
-	) {
+	void askClean()
+	{
 		final var totalBlocks = (short)30;
 		final var availableBlocks = (short)20;
 		final var occupiedBlocks = (short)(totalBlocks - availableBlocks);
@@ -138,43 +148,39 @@ public class FarmingServiceTest extends AbstractTestBase {
 		sampleAskCleaning.setComment("fennelg goat");
 		sampleAskCleaning.setAskedBlocks(totalBlocks);
 
-		var sampleBlocks = randomBlocks(
-			sampleAskCleaning.getLandId(), occupiedBlocks,
-			Status.Occupied
-		);
-
 		/**
 		 * Sets-up mocks
 		 */
 		new Expectations() {{
-			mockBlockRepos.countByLandIdAndStatus(
+			mockReactiveBlockRepos.countByLandIdAndStatus(
 				sampleAskCleaning.getLandId(),
 				Status.Available,
 				sampleAskCleaning.getAskedBlocks()
 			);
-			result = availableBlocks;
-			times = 1;
-
-			mockBlockRepos.findOccupiedByLandId(
-				sampleAskCleaning.getLandId(),
-				occupiedBlocks
-			);
-			result = sampleBlocks;
+			result = Mono.just(availableBlocks);
 			times = 1;
 
 			/**
-			 * Sets-up available blocks
+			 * Only part of occupied blocks are claimed
 			 */
-			mockBlockRepos.updateStatusByCheckPreviousOne(
-				(Block)any, Status.ScheduledClean
+			mockReactiveBlockRepos.claimBlocksOfLand(
+				(AskBlockAction)any,
+				Status.Occupied, Status.ScheduledClean,
+				(Instant)any
 			);
-			result = buildNumberSerials(occupiedBlocks, scheduledBlocks);
-			times = occupiedBlocks;
+			result = new Delegate<Flux<Block>>() {
+				@SuppressWarnings("unused")
+				Flux<Block> claim(AskBlockAction action, Status currentStatus, Status newStatus, Instant updateTime)
+				{
+					return Flux.fromIterable(claimedBlocks(action, scheduledBlocks, newStatus, updateTime));
+				}
+			};
+			times = 1;
 			// :~)
 
-			mockQueueService.sendCleaning((Block)any);
-			result = Mono.just(mockSendResult);
-			times = scheduledBlocks;
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_CLEANING);
+			result = new SendingBatch();
+			times = 1;
 		}};
 		// :~)
 
@@ -197,6 +203,23 @@ public class FarmingServiceTest extends AbstractTestBase {
 				.isAfter(checkedTime);
 		}
 		// :~)
+
+		/**
+		 * Asserts the claiming of occupied blocks(the number of available ones are excluded)
+		 */
+		new Verifications() {{
+			AskBlockAction claimingInfo;
+			mockReactiveBlockRepos.claimBlocksOfLand(
+				claimingInfo = withCapture(),
+				Status.Occupied, Status.ScheduledClean, (Instant)any
+			);
+
+			assertThat(claimingInfo)
+				.hasFieldOrPropertyWithValue("landId", sampleAskCleaning.getLandId())
+				.hasFieldOrPropertyWithValue("askedBlocks", occupiedBlocks)
+				.hasFieldOrPropertyWithValue("crop", null);
+		}};
+		// :~)
 	}
 
 	/**
@@ -216,30 +239,29 @@ public class FarmingServiceTest extends AbstractTestBase {
 		 * Sets-up mocks
 		 */
 		new Expectations() {{
-			mockBlockRepos.countByLandIdAndStatus(
+			mockReactiveBlockRepos.countByLandIdAndStatus(
 				sampleAskCleaning.getLandId(),
 				Status.Available,
 				sampleAskCleaning.getAskedBlocks()
 			);
-			result = availableBlocks;
+			result = Mono.just(availableBlocks);
 			times = 1;
 
-			mockBlockRepos.findOccupiedByLandId(
-				(UUID)any, anyShort
-			);
-			times = 0;
-
 			/**
 			 * No-needed for scheduled cleaning
 			 */
-			mockBlockRepos.updateStatusByCheckPreviousOne(
-				(Block)any, Status.ScheduledClean
+			mockReactiveBlockRepos.claimBlocksOfLand(
+				(AskBlockAction)any, (Status)any, (Status)any, (Instant)any
 			);
 			times = 0;
 			// :~)
 
-			mockQueueService.sendCleaning((Block)any);
-			times = 0;
+			/**
+			 * The batch is assembled with no block
+			 */
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), anyString);
+			result = new SendingBatch();
+			// :~)
 		}};
 		// :~)
 
@@ -272,12 +294,17 @@ public class FarmingServiceTest extends AbstractTestBase {
 		 * Sets-up mocks
 		 */
 		new Expectations() {{
-			mockLandRepos.findById(sampleAskSowing.getLandId());
-			result = Optional.of(sampleLand);
+			mockLandCache.findById(sampleAskSowing.getLandId());
+			result = Mono.just(sampleLand);
 			times = 1;
 
-			mockBlockRepos.findAvailableByLandId((UUID)any, anyInt);
+			mockReactiveBlockRepos.claimBlocksOfLand(
+				(AskBlockAction)any, (Status)any, (Status)any, (Instant)any
+			);
 			times = 0;
+
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), anyString);
+			result = new SendingBatch();
 		}};
 		// :~)
 
@@ -298,44 +325,44 @@ public class FarmingServiceTest extends AbstractTestBase {
 	 * Tests the matured blocks for harvesting queue.
 	 */
 	@Test
-	void buildProcessMaturedBlocks(
-		@Mocked
-		SendResult<?, ?> mockSendResult
-	) {
-		// More than one page
-		final var totalBlocks = (short)50;
+	void buildProcessMaturedBlocks()
+	{
+		// More than one batch
 		final var matchedBlocks = (short)40;
+		final var now = Instant.now();
 
 		/**
 		 * Sets-up mocks
 		 */
 		new Expectations() {{
-			mockBlockRepos.findMaturedBlocksByTime(
-				(Instant)any, (Pageable)any
-
-			);
-			var sampleSlicesOfBlocks = buildMultiplePages(totalBlocks, 30, Status.Occupied);
-			returns(sampleSlicesOfBlocks[0], sampleSlicesOfBlocks[1]);
-			// times = 1;
-
 			/**
-			 * Sets-up available blocks
+			 * The second batch is smaller than the size of a batch
 			 */
-			mockBlockRepos.updateStatusByCheckPreviousOne(
-				(Block)any, Status.ScheduledHarvest
-			);
-			result = buildNumberSerials(totalBlocks, matchedBlocks);
-			times = totalBlocks;
+			mockBlockRepos.claimMaturedBlocks(now, LandShard.ALL, anyInt);
+			result = new Delegate<List<Block>>() {
+				int remainingBlocks = matchedBlocks;
+
+				@SuppressWarnings("unused")
+				List<Block> claim(Instant checkedTime, LandShard shard, int maxBlocks)
+				{
+					var numberOfBlocks = Math.min(remainingBlocks, maxBlocks);
+					remainingBlocks -= numberOfBlocks;
+
+					var blocks = randomBlocks(UUID.randomUUID(), numberOfBlocks, Status.ScheduledHarvest);
+					blocks.forEach(b -> b.setUpdateTime(checkedTime));
+					return blocks;
+				}
+			};
+			times = 2;
 			// :~)
 
-			mockQueueService.sendHarvesting((Block)any);
-			result = Mono.just(mockSendResult);
-			times = matchedBlocks;
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_HARVESTING);
+			result = new SendingBatch();
+			times = 1;
 		}};
 		// :~)
 
-		var now = Instant.now();
-		var testedResult = testedService.buildProcessMaturedBlocks(now)
+		var testedResult = testedService.buildProcessMaturedBlocks(now, LandShard.ALL)
 			.collectList()
 			.block();
 
@@ -356,6 +383,101 @@ public class FarmingServiceTest extends AbstractTestBase {
 		// :~)
 	}
 
+	/**
+	 * Tests the blocks matured by index for harvesting queue.
+	 */
+	@Test
+	void buildProcessIndexedMaturedBlocks()
+	{
+		final var now = Instant.now();
+		final var sampleBlocks = randomBlocks(UUID.randomUUID(), 3, Status.ScheduledHarvest);
+		final var sampleBlockIds = sampleBlocks.stream()
+			.map(Block::getBlockId)
+			.toList();
+
+		new Expectations() {{
+			mockMaturityIndex.pollMatured(now, anyInt);
+			result = sampleBlockIds;
+			times = 1;
+
+			mockBlockRepos.claimMaturedBlocksById(now, sampleBlockIds);
+			result = sampleBlocks;
+			times = 1;
+
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_HARVESTING);
+			result = new SendingBatch();
+			times = 1;
+		}};
+
+		var testedResult = testedService.buildProcessIndexedMaturedBlocks(now);
+		StepVerifier.create(testedResult)
+			.expectNextSequence(sampleBlocks)
+			.verifyComplete();
+	}
+
+	/**
+	 * Tests the failed claiming of indexed blocks, the polled blocks are put back to the index.
+	 */
+	@Test
+	void buildProcessIndexedMaturedBlocksWithError()
+	{
+		final var now = Instant.now();
+		final var sampleBlockIds = randomBlocks(UUID.randomUUID(), 3, Status.Occupied).stream()
+			.map(Block::getBlockId)
+			.toList();
+
+		new Expectations() {{
+			mockMaturityIndex.pollMatured(now, anyInt);
+			result = sampleBlockIds;
+			times = 1;
+
+			mockBlockRepos.claimMaturedBlocksById(now, sampleBlockIds);
+			result = new RuntimeException("Database is timeout");
+			times = 1;
+
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_HARVESTING);
+			result = new SendingBatch();
+		}};
+
+		// The error is logged by the sending of matured blocks
+		StepVerifier.create(testedService.buildProcessIndexedMaturedBlocks(now))
+			.verifyComplete();
+
+		new Verifications() {{
+			List<BlockId> restoredBlockIds = new ArrayList<>();
+
+			mockMaturityIndex.add(withCapture(restoredBlockIds), now);
+			times = 3;
+
+			assertThat(restoredBlockIds)
+				.containsExactlyElementsOf(sampleBlockIds);
+		}};
+	}
+
+	/**
+	 * Tests the rebuilding of maturity index, only newly-indexed blocks are counted.
+	 */
+	@Test
+	void buildRebuildMaturityIndex()
+	{
+		final var horizonTime = Instant.now();
+		final var sampleBlocks = randomBlocks(UUID.randomUUID(), 3, Status.Occupied);
+		sampleBlocks.forEach(b -> b.setMatureTime(horizonTime.minusSeconds(10)));
+
+		new Expectations() {{
+			mockReactiveBlockRepos.scanMaturedBlocks(horizonTime, LandShard.ALL, anyInt);
+			result = Flux.fromIterable(sampleBlocks);
+			times = 1;
+
+			mockMaturityIndex.add((BlockId)any, (Instant)any);
+			returns(true, false, true);
+		}};
+
+		StepVerifier.create(testedService.buildRebuildMaturityIndex(horizonTime))
+			.expectNext(2L)
+			.verifyComplete();
+	}
+
 	/**
 	 * Tests the processing for scheduled blocks of too-long.
 	 */
@@ -369,47 +491,59 @@ public class FarmingServiceTest extends AbstractTestBase {
 		sampleBlocks.addAll(randomBlocks(UUID.randomUUID(), 2, Status.ScheduledClean));
 		sampleBlocks.addAll(randomBlocks(UUID.randomUUID(), 2, Status.ScheduledHarvest));
 
+		// The non-scheduled block is not re-sent
+		var scannedBlocks = new ArrayList<Block>(sampleBlocks);
+		scannedBlocks.addAll(randomBlocks(UUID.randomUUID(), 1, Status.Occupied));
+
 		new Expectations() {{
-			mockBlockRepos.findOldScheduledActivities(testTime, (Pageable)any);
-			result = new SliceImpl<>(sampleBlocks, PageRequest.of(1, 10), false);
+			mockBlockRepos.scanOldScheduledActivities(testTime, LandShard.ALL, anyInt);
+			result = Flux.fromIterable(scannedBlocks);
 			times = 1;
 
-			mockQueueService.sendSowing((Block)any);
-			result = Mono.empty();
-			times = 2;
-
-			mockQueueService.sendCleaning((Block)any);
-			result = Mono.empty();
-			times = 2;
-
-			mockQueueService.sendHarvesting((Block)any);
-			result = Mono.empty();
-			times = 2;
+			/**
+			 * One batch for all of scheduled blocks
+			 */
+			mockQueueService.sendBatch(this.<Flux<Block>>withNotNull(), KafkaConfig.TOPIC_RETRY);
+			result = new SendingBatch();
+			times = 1;
+			// :~)
 		}};
 
-		var testedResult = testedService.buildProcessTooLongBlocks(testTime);
+		var testedResult = testedService.buildProcessTooLongBlocks(testTime, LandShard.ALL);
 		StepVerifier.create(testedResult)
 			.expectNextCount(sampleBlocks.size())
 			.verifyComplete();
 	}
 
-	private static List<Integer> buildNumberSerials(
-		int totalTimes, int successfulTimes
-	) {
-		var resultList = new ArrayList<Integer>(totalTimes);
+	/**
+	 * Acknowledges every block of the batch.
+	 */
+	private static class SendingBatch implements Delegate<Flux<SendResult<BlockId, Block>>> {
+		@SuppressWarnings("unused")
+		Flux<SendResult<BlockId, Block>> sendBatch(Flux<Block> blocks, String topicName)
+		{
+			return blocks.map(b -> new SendResult<>(
+				new ProducerRecord<>(topicName, b.getBlockId(), b), null
+			));
+		}
+	}
 
-		for (var i = 0; i < totalTimes; i++) {
-			resultList.add(
-				i < successfulTimes ? 1 : 0
-			);
+	private static List<Block> claimedBlocks(
+		AskBlockAction action, int number,
+		Status newStatus, Instant updateTime
+	) {
+		var resultList = randomBlocks(action.getLandId(), number, newStatus);
+
+		for (var b: resultList) {
+			if (action.getCrop() != null) {
+				b.setCrop(action.getCrop());
+			}
+			b.setComment(action.getComment());
+			b.setUpdateTime(updateTime);
 		}
 
 		return resultList;
 	}
-	private static List<Block> randomBlocks(AskBlockAction sowInfo)
-	{
-		return randomBlocks(sowInfo.getLandId(), sowInfo.getAskedBlocks(), Status.Available);
-	}
 
 	private static List<Block> randomBlocks(UUID landId, int number, Status status)
 	{
@@ -429,25 +563,4 @@ public class FarmingServiceTest extends AbstractTestBase {
 
 		return resultList;
 	}
-
-	private static Object[] buildMultiplePages(int totalSize, int pageSize, Status status)
-	{
-		var numberOfPages = totalSize / pageSize + 1;
-		var resultPages = new ArrayList<Slice<Block>>(numberOfPages);
-
-		for (var i = 0; i < numberOfPages; i++) {
-			var numberOfBlocks = Math.min(totalSize, pageSize);
-
-			var sampleBlocks = randomBlocks(UUID.randomUUID(), numberOfBlocks, status);
-			var lastPage = i == (numberOfPages - 1);
-
-			var newPage = new SliceImpl<Block>(sampleBlocks, PageRequest.of(i, pageSize), !lastPage);
-
-			resultPages.add(newPage);
-
-			totalSize -= pageSize;
-		}
-
-		return resultPages.toArray();
-	}
 }
@@ -0,0 +1,99 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.config.KafkaConfig;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+import guru.mikelue.misc.testlib.AbstractEmbededKafkaTestBase;
+
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@Import({ LandCache.class, SimpleMeterRegistry.class })
+@TestPropertySource(properties="valor.farming.land-cache.invalidation-group=LandCacheInvalidationTest-land-cache")
+public class LandCacheInvalidationTest extends AbstractEmbededKafkaTestBase {
+	@Autowired
+	private LandCache testedCache;
+	@Autowired
+	private KafkaProperties kafkaProperties;
+	@Autowired
+	private KafkaListenerEndpointRegistry listenerRegistry;
+
+	@MockBean
+	private ReactiveLandRepos mockReactiveLandRepos;
+
+	public LandCacheInvalidationTest() {}
+
+	/**
+	 * Tests the invalidation published by other instance, the cached land is evicted and re-loaded from database.
+	 */
+	@Test
+	void handleInvalidation()
+	{
+		var landId = UUID.randomUUID();
+		var cachedLand = new Land(landId);
+		cachedLand.setName("cached-land");
+		var modifiedLand = new Land(landId);
+		modifiedLand.setName("modified-land");
+
+		when(mockReactiveLandRepos.findById(landId))
+			.thenReturn(Mono.just(cachedLand))
+			.thenReturn(Mono.just(modifiedLand));
+
+		assertThat(testedCache.findById(landId).block())
+			.hasFieldOrPropertyWithValue("name", "cached-land");
+
+		/**
+		 * Publishes the invalidation after the listener(offsets reset to latest) is assigned
+		 */
+		ContainerTestUtils.waitForAssignment(
+			listenerRegistry.getListenerContainer("farming-land-invalidation"), 1
+		);
+
+		var producerFactory = new DefaultKafkaProducerFactory<String, String>(
+			kafkaProperties.buildProducerProperties(),
+			new StringSerializer(), new StringSerializer()
+		);
+		try {
+			new KafkaTemplate<>(producerFactory)
+				.send(KafkaConfig.TOPIC_LAND_INVALIDATION, landId.toString(), LandCache.REASON_MODIFIED)
+				.completable()
+				.join();
+		} finally {
+			producerFactory.destroy();
+		}
+		// :~)
+
+		/**
+		 * Asserts the land re-loaded after the invalidation is consumed
+		 */
+		var reloadedLand = Mono.defer(() -> testedCache.findById(landId))
+			.filter(land -> "modified-land".equals(land.getName()))
+			.repeatWhenEmpty(polls -> polls.delayElements(Duration.ofMillis(50)))
+			.block(Duration.ofSeconds(15));
+
+		assertThat(reloadedLand)
+			.isNotNull();
+		verify(mockReactiveLandRepos, times(2))
+			.findById(landId);
+		// :~)
+	}
+}
@@ -0,0 +1,120 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.config.KafkaConfig;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.repos.reactive.ReactiveLandRepos;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import mockit.Expectations;
+import mockit.Injectable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LandCacheTest extends AbstractTestBase {
+	@Injectable
+	private ReactiveLandRepos mockReactiveLandRepos;
+
+	private SimpleMeterRegistry meterRegistry;
+	private LandCache testedCache;
+
+	public LandCacheTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		meterRegistry = new SimpleMeterRegistry();
+		testedCache = new LandCache(
+			mockReactiveLandRepos, new KafkaProperties(), meterRegistry,
+			16, Duration.ofMinutes(10)
+		);
+	}
+
+	@AfterEach
+	void tearDown()
+	{
+		testedCache.shutdown();
+	}
+
+	/**
+	 * Tests the loading of land, which is accessed by database only once.
+	 */
+	@Test
+	void findById()
+	{
+		final var sampleLand = new Land(UUID.randomUUID());
+
+		new Expectations() {{
+			mockReactiveLandRepos.findById(sampleLand.getId());
+			result = Mono.just(sampleLand);
+			times = 1;
+		}};
+
+		for (var i = 0; i < 3; i++) {
+			StepVerifier.create(testedCache.findById(sampleLand.getId()))
+				.expectNext(sampleLand)
+				.verifyComplete();
+		}
+
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "land").tag("result", "hit").functionCounter().count())
+			.isEqualTo(2);
+	}
+
+	/**
+	 * Tests the not-existing land, which is not cached.
+	 */
+	@Test
+	void findByIdWithMissed()
+	{
+		final var missedLandId = UUID.randomUUID();
+
+		new Expectations() {{
+			mockReactiveLandRepos.findById(missedLandId);
+			result = Mono.empty();
+			times = 2;
+		}};
+
+		for (var i = 0; i < 2; i++) {
+			StepVerifier.create(testedCache.findById(missedLandId))
+				.verifyComplete();
+		}
+	}
+
+	/**
+	 * Tests the invalidation received from topic, the land is loaded again.
+	 */
+	@Test
+	void handleInvalidation()
+	{
+		final var sampleLand = new Land(UUID.randomUUID());
+
+		new Expectations() {{
+			mockReactiveLandRepos.findById(sampleLand.getId());
+			result = Mono.just(sampleLand);
+			times = 2;
+		}};
+
+		testedCache.findById(sampleLand.getId()).block();
+
+		testedCache.handleInvalidation(new ConsumerRecord<>(
+			KafkaConfig.TOPIC_LAND_INVALIDATION, 0, 0,
+			sampleLand.getId().toString(), LandCache.REASON_MODIFIED
+		));
+
+		StepVerifier.create(testedCache.findById(sampleLand.getId()))
+			.expectNext(sampleLand)
+			.verifyComplete();
+	}
+}
@@ -0,0 +1,56 @@
+package guru.mikelue.farming.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.LandLog;
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.farming.repos.cassandra.LandLogRepos;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import mockit.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class LandLogMigratorTest extends AbstractTestBase {
+	@Injectable
+	private LandLogRepos mockLandLogRepos;
+
+	@Injectable("migrateOnStartup")
+	private boolean migrateOnStartup = false;
+	@Injectable("4")
+	private int fetchSize;
+
+	@Tested
+	private LandLogMigrator testedMigrator;
+
+	public LandLogMigratorTest() {}
+
+	/**
+	 * Tests the copying of logs, which are inserted by batches of fetch size.
+	 */
+	@Test
+	void buildMigrate()
+	{
+		new Expectations() {{
+			mockLandLogRepos.scanLogsOfLegacyTable(4);
+			result = Flux.fromIterable(RandomModels.randomLandLogs(10));
+
+			mockLandLogRepos.insertInBatchesOfLand(this.<List<LandLog>>withNotNull());
+			result = new Delegate<Mono<Long>>() {
+				@SuppressWarnings("unused")
+				Mono<Long> insertInBatchesOfLand(List<LandLog> logs)
+				{
+					return Mono.just((long)logs.size());
+				}
+			};
+			times = 3;
+		}};
+
+		StepVerifier.create(testedMigrator.buildMigrate())
+			.expectNext(10L)
+			.verifyComplete();
+	}
+}
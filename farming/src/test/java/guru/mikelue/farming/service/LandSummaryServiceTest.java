@@ -0,0 +1,186 @@
+package guru.mikelue.farming.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.Block.Status;
+import guru.mikelue.farming.model.BlockCount;
+import guru.mikelue.farming.model.Crop;
+import guru.mikelue.farming.model.Land;
+import guru.mikelue.farming.model.LandSummary;
+import guru.mikelue.farming.repos.jpa.BlockRepos;
+import guru.mikelue.farming.repos.reactive.BlockingBridge;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Tested;
+import mockit.Verifications;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LandSummaryServiceTest extends AbstractTestBase {
+	@Injectable
+	private BlockRepos mockBlockRepos;
+	@Injectable
+	private BlockingBridge mockBlockingBridge;
+
+	@Tested
+	private LandSummaryService testedService;
+
+	public LandSummaryServiceTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		/**
+		 * The blocking calls are run on the calling thread
+		 */
+		new Expectations() {{
+			mockBlockingBridge.call((Callable<?>)any);
+			result = new Delegate<Mono<?>>() {
+				@SuppressWarnings("unused")
+				Mono<?> call(Callable<?> blockingCall)
+				{
+					return Mono.fromCallable(blockingCall);
+				}
+			};
+			minTimes = 0;
+		}};
+		// :~)
+	}
+
+	/**
+	 * Tests the incremental updating of a new land, the database is not accessed.
+	 */
+	@Test
+	void transit()
+	{
+		var sampleLand = new Land(UUID.randomUUID());
+		sampleLand.setSize((short)10);
+
+		testedService.addLand(sampleLand);
+
+		for (var i = 0; i < 3; i++) {
+			testedService.transit(
+				sampleLand.getId(),
+				Status.Available, null,
+				Status.ScheduledSow, Crop.Rice
+			);
+		}
+
+		var previousBlock = new Block();
+		previousBlock.setLandId(sampleLand.getId());
+		previousBlock.setStatus(Status.ScheduledSow);
+		previousBlock.setCrop(Crop.Rice);
+		var currentBlock = new Block();
+		currentBlock.setLandId(sampleLand.getId());
+		currentBlock.setStatus(Status.Occupied);
+		currentBlock.setCrop(Crop.Rice);
+		testedService.transit(previousBlock, currentBlock);
+
+		var testedSummary = testedService.getSummary(sampleLand.getId()).block();
+
+		assertThat(testedSummary)
+			.hasFieldOrPropertyWithValue("numberOfBlocks", 10);
+		assertThat(testedSummary.getNumberOfBlocks(Status.Available))
+			.isEqualTo(7);
+		assertThat(testedSummary.getNumberOfBlocks(Status.ScheduledSow))
+			.isEqualTo(2);
+		assertThat(testedSummary.getNumberOfBlocks(Status.Occupied))
+			.isEqualTo(1);
+		assertThat(testedSummary.getNumberOfBlocks(Crop.Rice))
+			.isEqualTo(3);
+		assertThat(testedSummary.blocksOfCrop())
+			.hasSize(1);
+
+		new Verifications() {{
+			mockBlockRepos.countBlocksOfLands(this.<Collection<UUID>>withNotNull());
+			times = 0;
+		}};
+	}
+
+	/**
+	 * Tests the loading of land(by database) when the summary is read the first time.
+	 */
+	@Test
+	void getSummary()
+	{
+		final var sampleLandId = UUID.randomUUID();
+		final var missedLandId = UUID.randomUUID();
+
+		new Expectations() {{
+			mockBlockRepos.countBlocksOfLands(List.of(sampleLandId));
+			result = List.of(
+				new BlockCount(sampleLandId, Status.Available, null, 4),
+				new BlockCount(sampleLandId, Status.Occupied, Crop.Kale, 2),
+				new BlockCount(sampleLandId, Status.ScheduledClean, Crop.Kale, 1)
+			);
+			times = 1;
+
+			mockBlockRepos.countBlocksOfLands(List.of(missedLandId));
+			result = List.of();
+			times = 1;
+		}};
+
+		for (var i = 0; i < 2; i++) {
+			StepVerifier.create(testedService.getSummary(sampleLandId))
+				.assertNext(summary -> {
+					assertThat(summary)
+						.hasFieldOrPropertyWithValue("numberOfBlocks", 7);
+					assertThat(summary.getNumberOfBlocks(Crop.Kale))
+						.isEqualTo(3);
+				})
+				.verifyComplete();
+		}
+
+		StepVerifier.create(testedService.getSummary(missedLandId))
+			.verifyComplete();
+	}
+
+	/**
+	 * Tests the reconciling, the numbers are replaced and the deleted lands are removed.
+	 */
+	@Test
+	void buildReconcile()
+	{
+		var reconciledLand = new Land(UUID.randomUUID());
+		reconciledLand.setSize((short)5);
+		var deletedLand = new Land(UUID.randomUUID());
+		deletedLand.setSize((short)5);
+
+		testedService.addLand(reconciledLand);
+		testedService.addLand(deletedLand);
+
+		new Expectations() {{
+			mockBlockRepos.countBlocksOfLands(this.<Collection<UUID>>withNotNull());
+			result = List.of(
+				new BlockCount(reconciledLand.getId(), Status.Available, null, 3),
+				new BlockCount(reconciledLand.getId(), Status.Occupied, Crop.Grape, 2)
+			);
+			times = 1;
+		}};
+
+		StepVerifier.create(testedService.buildReconcile())
+			.expectNext(1)
+			.verifyComplete();
+
+		assertThat(testedService.getSize())
+			.isEqualTo(1);
+
+		LandSummary testedSummary = testedService.getSummary(reconciledLand.getId()).block();
+		assertThat(testedSummary.getNumberOfBlocks(Status.Occupied))
+			.isEqualTo(2);
+		assertThat(testedSummary.getNumberOfBlocks(Crop.Grape))
+			.isEqualTo(2);
+	}
+}
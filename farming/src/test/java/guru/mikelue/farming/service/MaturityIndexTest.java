@@ -0,0 +1,64 @@
+package guru.mikelue.farming.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import guru.mikelue.farming.model.Block.BlockId;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MaturityIndexTest extends AbstractTestBase {
+	public MaturityIndexTest() {}
+
+	/**
+	 * Tests the polling of matured blocks, which are ordered by mature time.
+	 */
+	@Test
+	void pollMatured()
+	{
+		var testedIndex = new MaturityIndex();
+
+		var sampleTime = Instant.parse("2018-05-04T10:12:00Z");
+		var landId = UUID.randomUUID();
+
+		testedIndex.add(new BlockId(landId, (short)1), sampleTime.plusSeconds(1)); // Not matured
+		testedIndex.add(new BlockId(landId, (short)2), sampleTime);
+		testedIndex.add(new BlockId(landId, (short)3), sampleTime.minusSeconds(5));
+		testedIndex.add(new BlockId(landId, (short)4), sampleTime.minusSeconds(3));
+
+		assertThat(testedIndex.pollMatured(sampleTime, 2))
+			.containsExactly(
+				new BlockId(landId, (short)3), new BlockId(landId, (short)4)
+			);
+		assertThat(testedIndex.pollMatured(sampleTime, 2))
+			.containsExactly(new BlockId(landId, (short)2));
+		assertThat(testedIndex.pollMatured(sampleTime, 2))
+			.isEmpty();
+
+		assertThat(testedIndex.getSize())
+			.isEqualTo(1);
+	}
+
+	/**
+	 * Tests the adding of same block with same mature time.
+	 */
+	@Test
+	void addDuplicatedBlock()
+	{
+		var testedIndex = new MaturityIndex();
+
+		var sampleTime = Instant.now();
+		var sampleBlockId = new BlockId(UUID.randomUUID(), (short)1);
+
+		assertThat(testedIndex.add(sampleBlockId, sampleTime))
+			.isTrue();
+		assertThat(testedIndex.add(new BlockId(sampleBlockId.getLandId(), (short)1), sampleTime))
+			.isFalse();
+
+		assertThat(testedIndex.getSize())
+			.isEqualTo(1);
+	}
+}
@@ -0,0 +1,78 @@
+package guru.mikelue.farming.service;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import guru.mikelue.farming.model.Block;
+import guru.mikelue.farming.model.RandomModels;
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransitionLedgerTest extends AbstractTestBase {
+	private SimpleMeterRegistry meterRegistry;
+	private TransitionLedger testedLedger;
+
+	public TransitionLedgerTest() {}
+
+	@BeforeEach
+	void setup()
+	{
+		meterRegistry = new SimpleMeterRegistry();
+		testedLedger = new TransitionLedger(16, Duration.ofMinutes(10), meterRegistry);
+	}
+
+	/**
+	 * Tests the discarding of delivered blocks, only the blocks of applied(or older) version are discarded.
+	 */
+	@Test
+	void isApplied()
+	{
+		var appliedBlock = RandomModels.randomBlock();
+		appliedBlock.setVersion(5);
+		testedLedger.record(appliedBlock);
+
+		assertThat(testedLedger.isApplied(copyOf(appliedBlock, 5)))
+			.isTrue();
+		assertThat(testedLedger.isApplied(copyOf(appliedBlock, 3)))
+			.isTrue();
+		assertThat(testedLedger.isApplied(copyOf(appliedBlock, 6)))
+			.isFalse();
+		assertThat(testedLedger.isApplied(copyOf(appliedBlock, null)))
+			.isFalse();
+		assertThat(testedLedger.isApplied(RandomModels.randomBlock()))
+			.isFalse();
+
+		assertThat(meterRegistry.get("valor.farming.transition-ledger.discarded").counter().count())
+			.isEqualTo(2);
+	}
+
+	/**
+	 * Tests the recording of older version, which doesn't replace the newer one.
+	 */
+	@Test
+	void recordOlderVersion()
+	{
+		var appliedBlock = RandomModels.randomBlock();
+		appliedBlock.setVersion(8);
+		testedLedger.record(appliedBlock);
+		testedLedger.record(copyOf(appliedBlock, 2));
+
+		assertThat(testedLedger.isApplied(copyOf(appliedBlock, 7)))
+			.isTrue();
+	}
+
+	private static Block copyOf(Block block, Integer version)
+	{
+		var newBlock = new Block();
+		newBlock.setLandId(block.getLandId());
+		newBlock.setId(block.getId());
+		newBlock.setStatus(block.getStatus());
+		newBlock.setVersion(version);
+		return newBlock;
+	}
+}
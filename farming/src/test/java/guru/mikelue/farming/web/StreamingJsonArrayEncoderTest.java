@@ -0,0 +1,164 @@
+package guru.mikelue.farming.web;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import guru.mikelue.misc.testlib.AbstractTestBase;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class StreamingJsonArrayEncoderTest extends AbstractTestBase {
+	private final static ResolvableType MAP_TYPE = ResolvableType.forClass(Map.class);
+
+	private final StreamingJsonArrayEncoder testedEncoder = new StreamingJsonArrayEncoder(new ObjectMapper());
+
+	public StreamingJsonArrayEncoderTest() {}
+
+	/**
+	 * Tests the writing of JSON array, the elements are encoded one by one.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints={ 0, 1, 3 })
+	void encodeArray(int numberOfElements)
+	{
+		var sampleElements = Flux.range(0, numberOfElements)
+			.map(i -> Map.of("id", i));
+
+		var encodedBuffers = testedEncoder.encode(
+			sampleElements, DefaultDataBufferFactory.sharedInstance,
+			MAP_TYPE, MediaType.APPLICATION_JSON, null
+		)
+			.collectList()
+			.block();
+
+		/**
+		 * Asserts the buffers of elements(the first one with "["), and "]"
+		 */
+		assertThat(encodedBuffers)
+			.hasSize(Math.max(numberOfElements, 1) + 1);
+		// :~)
+
+		var expectedJson = new StringBuilder("[");
+		for (int i = 0; i < numberOfElements; i++) {
+			expectedJson.append(i > 0 ? "," : "")
+				.append(String.format("{\"id\":%d}", i));
+		}
+		expectedJson.append("]");
+
+		assertThat(joinAsString(Flux.fromIterable(encodedBuffers)))
+			.isEqualTo(expectedJson.toString());
+	}
+
+	/**
+	 * Tests the encoding of NDJSON and Mono, which are the same as the default encoder.
+	 */
+	@Test
+	void encodeByDefault()
+	{
+		var testedNdjson = joinAsString(
+			testedEncoder.encode(
+				Flux.just(Map.of("id", 1), Map.of("id", 2)),
+				DefaultDataBufferFactory.sharedInstance,
+				MAP_TYPE, MediaType.APPLICATION_NDJSON, null
+			)
+		);
+		assertThat(testedNdjson)
+			.isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+
+		var testedMono = joinAsString(
+			testedEncoder.encode(
+				Mono.just(Map.of("id", 1)),
+				DefaultDataBufferFactory.sharedInstance,
+				MAP_TYPE, MediaType.APPLICATION_JSON, null
+			)
+		);
+		assertThat(testedMono)
+			.isEqualTo("{\"id\":1}");
+	}
+
+	/**
+	 * Tests the error before any element, nothing is written.
+	 */
+	@Test
+	void encodeArrayWithError()
+	{
+		StepVerifier.create(
+			testedEncoder.encode(
+				Flux.error(new IllegalStateException("Cursor is gone")),
+				DefaultDataBufferFactory.sharedInstance,
+				MAP_TYPE, MediaType.APPLICATION_JSON, null
+			)
+		)
+			.expectError(IllegalStateException.class)
+			.verify();
+	}
+
+	/**
+	 * Tests the responses by HTTP, the status of error(before any element) is kept.
+	 */
+	@Test
+	void respondByHttp()
+	{
+		var testedClient = WebTestClient.bindToController(new SampleController())
+			.httpMessageCodecs(configurer -> configurer.defaultCodecs()
+				.jackson2JsonEncoder(new StreamingJsonArrayEncoder(new ObjectMapper()))
+			)
+			.build();
+
+		testedClient.get().uri("/bad-request")
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		testedClient.get().uri("/elements")
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody().json("[{\"id\":0},{\"id\":1}]");
+	}
+
+	@RestController
+	static class SampleController {
+		@GetMapping("/bad-request")
+		Flux<Map<String, Integer>> badRequest()
+		{
+			return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bad cursor"));
+		}
+
+		@GetMapping("/elements")
+		Flux<Map<String, Integer>> elements()
+		{
+			return Flux.range(0, 2)
+				.map(i -> Map.of("id", i));
+		}
+	}
+
+	private static String joinAsString(Flux<DataBuffer> buffers)
+	{
+		return DataBufferUtils.join(buffers)
+			.map(buffer -> {
+				var result = buffer.toString(StandardCharsets.UTF_8);
+				DataBufferUtils.release(buffer);
+				return result;
+			})
+			.block();
+	}
+}
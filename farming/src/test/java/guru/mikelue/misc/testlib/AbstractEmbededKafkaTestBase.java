@@ -33,6 +33,11 @@ import guru.mikelue.farming.config.KafkaConfig;
 		"kafka.topic.harvesting.replicas=1",
 		"kafka.topic.cleaning.partitions=1",
 		"kafka.topic.cleaning.replicas=1",
+		"kafka.topic.retry.partitions=1",
+		"kafka.topic.retry.replicas=1",
+		"kafka.topic.failed-completion.partitions=1",
+		"kafka.topic.failed-completion.replicas=1",
+		"kafka.topic.land-invalidation.replicas=1",
 	}
 )
 @EmbeddedKafka(